@@ -0,0 +1,113 @@
+package com.kodehaus.plaza.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.access.AccessType;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hibernate second-level cache regions held in local Caffeine caches.
+ *
+ * Entity, collection and query result regions are bounded by hibernate.cache.caffeine.maximum-size entries
+ * and expire hibernate.cache.caffeine.expire-after-write after they were cached, which bounds how long a
+ * write made on another instance can go unseen. The update-timestamps region is never evicted: losing an
+ * entry there would let a cached query outlive a local write to its table.
+ */
+public class CaffeineRegionFactory extends RegionFactoryTemplate {
+
+    public static final String MAXIMUM_SIZE = "hibernate.cache.caffeine.maximum-size";
+    public static final String EXPIRE_AFTER_WRITE = "hibernate.cache.caffeine.expire-after-write";
+
+    private final Map<String, Cache<Object, Object>> caches = new ConcurrentHashMap<>();
+    private long maximumSize;
+    private Duration expireAfterWrite;
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+        Object size = configValues.get(MAXIMUM_SIZE);
+        Object ttl = configValues.get(EXPIRE_AFTER_WRITE);
+        this.maximumSize = size != null ? Long.parseLong(size.toString()) : 10_000L;
+        this.expireAfterWrite = ttl != null ? Duration.parse(ttl.toString()) : Duration.ofMinutes(1);
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        caches.values().forEach(Cache::invalidateAll);
+        caches.clear();
+    }
+
+    @Override
+    public AccessType getDefaultAccessType() {
+        return AccessType.READ_WRITE;
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                   DomainDataRegionBuildingContext buildingContext) {
+        return new CaffeineStorageAccess(boundedCache(regionConfig.getRegionName()));
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName,
+                                                                  SessionFactoryImplementor sessionFactory) {
+        return new CaffeineStorageAccess(boundedCache(regionName));
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+                                                                SessionFactoryImplementor sessionFactory) {
+        // one entry per table, kept for the life of the session factory
+        return new CaffeineStorageAccess(caches.computeIfAbsent(regionName, name -> Caffeine.newBuilder().build()));
+    }
+
+    private Cache<Object, Object> boundedCache(String regionName) {
+        return caches.computeIfAbsent(regionName, name -> Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build());
+    }
+
+    private record CaffeineStorageAccess(Cache<Object, Object> cache) implements DomainDataStorageAccess {
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            return cache.getIfPresent(key);
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            cache.put(key, value);
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return cache.asMap().containsKey(key);
+        }
+
+        @Override
+        public void evictData() {
+            cache.invalidateAll();
+        }
+
+        @Override
+        public void evictData(Object key) {
+            cache.invalidate(key);
+        }
+
+        @Override
+        public void release() {
+            cache.invalidateAll();
+        }
+    }
+}
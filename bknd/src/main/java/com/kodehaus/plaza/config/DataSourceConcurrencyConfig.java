@@ -0,0 +1,67 @@
+package com.kodehaus.plaza.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * In virtual-thread mode, wraps the application DataSource in a BoundedDataSource so concurrent database work
+ * is capped at db.concurrency.max-concurrent (0 means the Hikari maximum-pool-size).
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class DataSourceConcurrencyConfig {
+
+    @Bean
+    public static BeanPostProcessor boundedDataSourcePostProcessor(Environment environment) {
+        Binder binder = Binder.get(environment);
+        int configured = binder.bind("db.concurrency.max-concurrent", Integer.class).orElse(0);
+        int maxConcurrent = configured > 0 ? configured
+                : binder.bind("spring.datasource.hikari.maximum-pool-size", Integer.class).orElse(10);
+        Duration acquireTimeout = binder.bind("db.concurrency.acquire-timeout", Duration.class)
+                .orElse(Duration.ofSeconds(10));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof BoundedDataSource)) {
+                    return new BoundedDataSource(dataSource, maxConcurrent, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder boundedDataSourceMetrics(DataSource dataSource) {
+        return registry -> {
+            BoundedDataSource bounded;
+            try {
+                bounded = dataSource.unwrap(BoundedDataSource.class);
+            } catch (SQLException e) {
+                return;
+            }
+            Gauge.builder("db.concurrency.active", bounded, BoundedDataSource::active)
+                    .description("Database connections out under the concurrency cap")
+                    .register(registry);
+            Gauge.builder("db.concurrency.waiting", bounded, BoundedDataSource::waiting)
+                    .description("Callers waiting for a database connection permit")
+                    .register(registry);
+            Gauge.builder("db.concurrency.max", bounded, BoundedDataSource::maxConcurrent)
+                    .register(registry);
+            FunctionCounter.builder("db.concurrency.timeouts", bounded, BoundedDataSource::timeouts)
+                    .description("Callers that gave up waiting for a database connection permit")
+                    .register(registry);
+        };
+    }
+}
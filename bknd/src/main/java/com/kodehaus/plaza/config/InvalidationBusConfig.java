@@ -0,0 +1,36 @@
+package com.kodehaus.plaza.config;
+
+import com.kodehaus.plaza.service.LoopbackInvalidationBus;
+import com.kodehaus.plaza.service.PostgresInvalidationBus;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+/**
+ * Picks the InvalidationBus transport: postgres (LISTEN/NOTIFY, default) or loopback (in-JVM, for tests)
+ */
+@Configuration
+public class InvalidationBusConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "cache.invalidation.transport", havingValue = "postgres", matchIfMissing = true)
+    public PostgresInvalidationBus postgresInvalidationBus(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                                                           @Value("${spring.datasource.url}") String url,
+                                                           @Value("${spring.datasource.username}") String username,
+                                                           @Value("${spring.datasource.password}") String password,
+                                                           @Value("${cache.invalidation.poll-timeout:PT1S}") Duration pollTimeout,
+                                                           @Value("${cache.invalidation.max-backoff:PT30S}") Duration maxBackoff) {
+        return new PostgresInvalidationBus(jdbcTemplate, url, username, password, pollTimeout, maxBackoff, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "cache.invalidation.transport", havingValue = "loopback")
+    public LoopbackInvalidationBus loopbackInvalidationBus() {
+        return new LoopbackInvalidationBus();
+    }
+}
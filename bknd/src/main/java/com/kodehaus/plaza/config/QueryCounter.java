@@ -0,0 +1,29 @@
+package com.kodehaus.plaza.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread.
+ * QueryCountFilter resets it per request; tests read it to bound the statements of an endpoint.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    /**
+     * Statements prepared on this thread since the last reset()
+     */
+    public static int current() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,12 @@
+package com.kodehaus.plaza.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (e.g. AuthzVersionRegistry polling)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
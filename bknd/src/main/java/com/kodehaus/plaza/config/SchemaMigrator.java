@@ -0,0 +1,163 @@
+package com.kodehaus.plaza.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Applies versioned SQL migrations (V{n}__{description}.sql) before JPA starts, Flyway style.
+ *
+ * Applied versions and their checksums are recorded in schema_migrations; a migration that changed
+ * after being applied stops startup. Each script runs in its own transaction, as a single statement batch
+ * (so it must not use CREATE INDEX CONCURRENTLY). A Postgres advisory lock keeps instances that start
+ * together from migrating twice.
+ */
+public class SchemaMigrator implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+    private static final long LOCK_KEY = 0x706c617a61L; // "plaza"
+
+    private record Migration(int version, String description, String sql, String checksum) {}
+
+    private final DataSource dataSource;
+    private final String location;
+
+    public SchemaMigrator(DataSource dataSource, String location) {
+        this.dataSource = dataSource;
+        this.location = location;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        List<Migration> migrations = loadMigrations();
+        try (Connection connection = dataSource.getConnection()) {
+            execute(connection, "SELECT pg_advisory_lock(" + LOCK_KEY + ")");
+            try {
+                migrate(connection, migrations);
+            } finally {
+                connection.setAutoCommit(true);
+                execute(connection, "SELECT pg_advisory_unlock(" + LOCK_KEY + ")");
+            }
+        }
+    }
+
+    private void migrate(Connection connection, List<Migration> migrations) throws SQLException {
+        execute(connection, "CREATE TABLE IF NOT EXISTS schema_migrations ("
+                + "version INTEGER PRIMARY KEY, "
+                + "description VARCHAR(200) NOT NULL, "
+                + "checksum VARCHAR(64) NOT NULL, "
+                + "installed_on TIMESTAMP NOT NULL DEFAULT now())");
+
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT version, checksum FROM schema_migrations")) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getString(2));
+            }
+        }
+
+        int count = 0;
+        for (Migration migration : migrations) {
+            String checksum = applied.get(migration.version());
+            if (checksum != null) {
+                if (!checksum.equals(migration.checksum())) {
+                    throw new IllegalStateException("Migration V" + migration.version()
+                            + " was modified after it was applied");
+                }
+                continue;
+            }
+            apply(connection, migration);
+            count++;
+        }
+        log.info("Schema at version {} ({} migrations applied now)",
+                migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version(), count);
+    }
+
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        log.info("Applying migration V{} {}", migration.version(), migration.description());
+        connection.setAutoCommit(false);
+        try {
+            execute(connection, migration.sql());
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO schema_migrations (version, description, checksum) VALUES (?, ?, ?)")) {
+                insert.setInt(1, migration.version());
+                insert.setString(2, migration.description());
+                insert.setString(3, migration.checksum());
+                insert.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private List<Migration> loadMigrations() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(location + "/V*__*.sql");
+        List<Migration> migrations = Stream.of(resources)
+                .map(SchemaMigrator::toMigration)
+                .sorted(Comparator.comparingInt(Migration::version))
+                .toList();
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version() == migrations.get(i - 1).version()) {
+                throw new IllegalStateException("Duplicate migration version V" + migrations.get(i).version());
+            }
+        }
+        return migrations;
+    }
+
+    private static Migration toMigration(Resource resource) {
+        Matcher matcher = FILE_NAME.matcher(resource.getFilename());
+        if (!matcher.matches()) {
+            throw new IllegalStateException("Invalid migration file name: " + resource.getFilename());
+        }
+        try {
+            String sql = StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8);
+            return new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '),
+                    sql, sha256(sql));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read migration " + resource.getFilename(), e);
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static String sha256(String content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.kodehaus.plaza.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Exposes the Hibernate second-level and query cache statistics under /actuator/metrics
+ * (only when hibernate.generate_statistics is enabled; otherwise the counters would stay at zero)
+ */
+@Component
+public class SecondLevelCacheMetrics implements MeterBinder {
+
+    private final Statistics statistics;
+
+    public SecondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics == null) {
+                continue;
+            }
+            counter(registry, "hibernate.second.level.cache.requests", regionStatistics,
+                    CacheRegionStatistics::getHitCount, "region", region, "result", "hit");
+            counter(registry, "hibernate.second.level.cache.requests", regionStatistics,
+                    CacheRegionStatistics::getMissCount, "region", region, "result", "miss");
+            counter(registry, "hibernate.second.level.cache.puts", regionStatistics,
+                    CacheRegionStatistics::getPutCount, "region", region);
+        }
+        counter(registry, "hibernate.cache.query.requests", statistics,
+                Statistics::getQueryCacheHitCount, "result", "hit");
+        counter(registry, "hibernate.cache.query.requests", statistics,
+                Statistics::getQueryCacheMissCount, "result", "miss");
+        counter(registry, "hibernate.cache.query.puts", statistics, Statistics::getQueryCachePutCount);
+    }
+
+    private static <T> void counter(MeterRegistry registry, String name, T source,
+                                    ToDoubleFunction<T> count, String... tags) {
+        FunctionCounter.builder(name, source, count).tags(tags).register(registry);
+    }
+}
@@ -1,16 +1,29 @@
 package com.kodehaus.plaza.config;
 
+import com.kodehaus.plaza.security.AuthorityAuthorizationManager;
 import com.kodehaus.plaza.security.JwtAuthenticationEntryPoint;
 import com.kodehaus.plaza.security.JwtAuthenticationFilter;
 import com.kodehaus.plaza.security.ExternalApiKeyFilter;
+import com.kodehaus.plaza.security.RequiresAuthority;
+import com.kodehaus.plaza.security.RouteClassifier;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.NoOpPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
@@ -29,13 +42,16 @@ public class SecurityConfig {
     private final JwtAuthenticationEntryPoint unauthorizedHandler;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final ExternalApiKeyFilter externalApiKeyFilter;
+    private final RouteClassifier routeClassifier;
 
     public SecurityConfig(JwtAuthenticationEntryPoint unauthorizedHandler,
                           JwtAuthenticationFilter jwtAuthenticationFilter,
-                          ExternalApiKeyFilter externalApiKeyFilter) {
+                          ExternalApiKeyFilter externalApiKeyFilter,
+                          RouteClassifier routeClassifier) {
         this.unauthorizedHandler = unauthorizedHandler;
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.externalApiKeyFilter = externalApiKeyFilter;
+        this.routeClassifier = routeClassifier;
     }
 
     @Bean
@@ -46,27 +62,8 @@ public class SecurityConfig {
             .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
-                // públicos
-                .requestMatchers("/api/auth/**").permitAll()
-                .requestMatchers("/actuator/**").permitAll()
-                .requestMatchers("/api/plazas/externo").permitAll()
-                .requestMatchers("/api/users/externo").permitAll()
-                .requestMatchers("/api/managers/register").permitAll()
-                // abrir explícitamente los módulos (redundante con @PermitAll, pero recomendado)
-                .requestMatchers("/api/modulos/**").permitAll()
-                .requestMatchers(
-                    "/v3/api-docs/**",
-                    "/swagger-ui/**",
-                    "/swagger-ui.html",
-                    "/swagger-resources/**",
-                    "/webjars/**",
-                    "/error"
-                ).permitAll()
-
-                .requestMatchers("/error").permitAll()
-                // Las rutas de la API principal, si usas SpringDoc o similar:
-                .requestMatchers("/v3/api-docs").permitAll()
-                // el resto autenticado
+                // públicos, opcionales y API key: ver RouteClassifier (compartido con JwtAuthenticationFilter)
+                .requestMatchers(routeClassifier.permitAllMatcher()).permitAll()
                 // el resto requiere autenticación JWT
                 .anyRequest().authenticated()
             );
@@ -79,12 +76,28 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Method interceptor for @RequiresAuthority, ordered like @PreAuthorize
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor requiresAuthorityAdvisor(AuthorityAuthorizationManager authorityAuthorizationManager) {
+        Pointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(null, RequiresAuthority.class, true))
+                .union(new AnnotationMatchingPointcut(RequiresAuthority.class, true));
+        AuthorizationManagerBeforeMethodInterceptor interceptor =
+                new AuthorizationManagerBeforeMethodInterceptor(pointcut, authorityAuthorizationManager);
+        interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder());
+        return interceptor;
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(Arrays.asList("*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        // next page cursor of list endpoints (see KeysetPagination) and the validators for conditional GETs
+        configuration.setExposedHeaders(Arrays.asList("X-Next-Cursor", "Retry-After", "ETag", "Last-Modified"));
         configuration.setAllowCredentials(false);
         configuration.setMaxAge(3600L);
 
@@ -98,10 +111,16 @@ public class SecurityConfig {
         return cfg.getAuthenticationManager();
     }
 
+    /**
+     * New passwords are stored as {bcrypt}...; legacy plaintext rows (no {id} prefix) still match
+     * and are re-hashed on the next successful login through CustomUserDetailsService.updatePassword
+     */
     @Bean
     @SuppressWarnings("deprecation")
     public PasswordEncoder passwordEncoder() {
-        // ⚠️ SOLO PARA TESTING - NO USAR EN PRODUCCIÓN
-        return NoOpPasswordEncoder.getInstance();
+        DelegatingPasswordEncoder encoder =
+                (DelegatingPasswordEncoder) PasswordEncoderFactories.createDelegatingPasswordEncoder();
+        encoder.setDefaultPasswordEncoderForMatches(NoOpPasswordEncoder.getInstance());
+        return encoder;
     }
 }
@@ -2,23 +2,38 @@ package com.kodehaus.plaza.controller;
 
 import com.kodehaus.plaza.dto.LoginRequestDto;
 import com.kodehaus.plaza.dto.LoginResponseDto;
+import com.kodehaus.plaza.dto.RefreshTokenRequestDto;
 import com.kodehaus.plaza.dto.UserRequestDto;
 import com.kodehaus.plaza.entity.Plaza;
+import com.kodehaus.plaza.entity.RefreshToken;
 import com.kodehaus.plaza.entity.Role;
 import com.kodehaus.plaza.entity.User;
+import com.kodehaus.plaza.exception.TooManyRequestsException;
 import com.kodehaus.plaza.repository.PermissionRepository;
 import com.kodehaus.plaza.repository.PlazaRepository;
 import com.kodehaus.plaza.repository.RoleRepository;
 import com.kodehaus.plaza.repository.UserRepository;
+import com.kodehaus.plaza.security.JwtClaims;
 import com.kodehaus.plaza.security.JwtTokenProvider;
+import com.kodehaus.plaza.security.LoginThrottle;
+import com.kodehaus.plaza.security.PasswordHashingExecutor;
+import com.kodehaus.plaza.security.UserSnapshot;
 import com.kodehaus.plaza.service.CustomUserDetailsService;
+import com.kodehaus.plaza.service.InvalidationBus;
+import com.kodehaus.plaza.service.InvalidationEvent;
+import com.kodehaus.plaza.service.RefreshTokenService;
+import com.kodehaus.plaza.service.RevokedTokenRegistry;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Set;
@@ -36,6 +51,7 @@ import java.util.stream.Collectors;
  * Response:
  * {
  *   "accessToken": "eyJhbGciOiJIUzUxMiJ9...",
+ *   "refreshToken": "q3Vh0yJ6...",
  *   "tokenType": "Bearer",
  *   "id": 1,
  *   "username": "manager1",
@@ -47,6 +63,9 @@ import java.util.stream.Collectors;
  *   "plazaName": "Centro Comercial Plaza",
  *   "roles": ["MANAGER"]
  * }
+ * 
+ * The access token is short-lived (jwt.expiration); POST /api/auth/refresh with
+ * { "refreshToken": "..." } returns a new pair and invalidates the refresh token that was sent.
  */
 @RestController
 @RequestMapping("/api/auth")
@@ -60,11 +79,20 @@ public class AuthController {
     private final RoleRepository roleRepository;
     private final PlazaRepository plazaRepository;
     private final PermissionRepository permissionRepository;
+    private final RefreshTokenService refreshTokenService;
+    private final RevokedTokenRegistry revokedTokenRegistry;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final PasswordEncoder passwordEncoder;
+    private final LoginThrottle loginThrottle;
+    private final InvalidationBus invalidationBus;
     
     public AuthController(AuthenticationManager authenticationManager, JwtTokenProvider tokenProvider,
                          CustomUserDetailsService userDetailsService, UserRepository userRepository,
                          RoleRepository roleRepository, PlazaRepository plazaRepository,
-                         PermissionRepository permissionRepository) {
+                         PermissionRepository permissionRepository, RefreshTokenService refreshTokenService,
+                         RevokedTokenRegistry revokedTokenRegistry, PasswordHashingExecutor passwordHashingExecutor,
+                         PasswordEncoder passwordEncoder, LoginThrottle loginThrottle,
+                         InvalidationBus invalidationBus) {
         this.authenticationManager = authenticationManager;
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
@@ -72,24 +100,89 @@ public class AuthController {
         this.roleRepository = roleRepository;
         this.plazaRepository = plazaRepository;
         this.permissionRepository = permissionRepository;
+        this.refreshTokenService = refreshTokenService;
+        this.revokedTokenRegistry = revokedTokenRegistry;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.passwordEncoder = passwordEncoder;
+        this.loginThrottle = loginThrottle;
+        this.invalidationBus = invalidationBus;
     }
     
+    /**
+     * Attempts are throttled per username and client IP before any lookup (the remote address is the
+     * forwarded client behind the proxy, see server.forward-headers-strategy); password checks then run
+     * on the bounded PasswordHashingExecutor. Either one answers 429 with Retry-After when saturated.
+     */
     @PostMapping("/login")
-    public ResponseEntity<LoginResponseDto> login(@Valid @RequestBody LoginRequestDto loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(
-                loginRequest.getUsername(),
-                loginRequest.getPassword()
-            )
-        );
+    public ResponseEntity<?> login(@Valid @RequestBody LoginRequestDto loginRequest, HttpServletRequest request) {
+        Authentication authentication;
+        try {
+            loginThrottle.checkAttempt(loginRequest.getUsername(), request.getRemoteAddr());
+            authentication = passwordHashingExecutor.call(() -> authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(
+                    loginRequest.getUsername(),
+                    loginRequest.getPassword()
+                )
+            ));
+        } catch (TooManyRequestsException ex) {
+            return tooManyRequests(ex);
+        }
         
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.generateToken(authentication);
+        User user = userDetailsService.loadCurrentUser(authentication);
+        loginThrottle.reset(loginRequest.getUsername());
         
-        User user = (User) authentication.getPrincipal();
+        String tokenId = tokenProvider.newTokenId();
+        String jwt = tokenProvider.generateToken(authentication, tokenId);
+        String refreshToken = refreshTokenService.issue(user, tokenId);
+        
+        return ResponseEntity.ok(toLoginResponse(user, jwt, refreshToken));
+    }
+    
+    /**
+     * Exchange a refresh token for a new access token and refresh token.
+     * 
+     * Example JSON:
+     * {
+     *   "refreshToken": "q3Vh0yJ6..."
+     * }
+     * 
+     * Each refresh token works once; sending one that was already used revokes every token of that login.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshTokenRequestDto refreshRequest) {
+        if (!StringUtils.hasText(refreshRequest.getRefreshToken())) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Refresh token is required");
+        }
+        RefreshToken previous = refreshTokenService.rotate(refreshRequest.getRefreshToken()).orElse(null);
+        if (previous == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid refresh token");
+        }
         
+        UserSnapshot snapshot = userDetailsService.loadUserById(previous.getUser().getId());
+        if (!snapshot.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User is inactive");
+        }
+        
+        Authentication authentication = new UsernamePasswordAuthenticationToken(snapshot, null, snapshot.getAuthorities());
+        User user = userDetailsService.loadCurrentUser(authentication);
+        String tokenId = tokenProvider.newTokenId();
+        String jwt = tokenProvider.generateToken(authentication, tokenId);
+        String refreshToken = refreshTokenService.issue(user, previous.getFamilyId(), tokenId);
+        
+        return ResponseEntity.ok(toLoginResponse(user, jwt, refreshToken));
+    }
+    
+    private ResponseEntity<String> tooManyRequests(TooManyRequestsException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(ex.getMessage());
+    }
+    
+    private LoginResponseDto toLoginResponse(User user, String jwt, String refreshToken) {
         LoginResponseDto response = new LoginResponseDto();
         response.setAccessToken(jwt);
+        response.setRefreshToken(refreshToken);
         response.setTokenType("Bearer");
         response.setId(user.getId());
         response.setUsername(user.getUsername());
@@ -113,7 +206,7 @@ public class AuthController {
             .map(role -> role.getName())
             .collect(Collectors.toSet()));
         
-        return ResponseEntity.ok(response);
+        return response;
     }
     
     /**
@@ -149,7 +242,14 @@ public class AuthController {
      * }
      */
     @PostMapping("/external-register")
-    public ResponseEntity<?> externalRegister(@Valid @RequestBody UserRequestDto registerRequest) {
+    public ResponseEntity<?> externalRegister(@Valid @RequestBody UserRequestDto registerRequest,
+                                              HttpServletRequest request) {
+        try {
+            loginThrottle.checkAttempt(registerRequest.getUsername(), request.getRemoteAddr());
+        } catch (TooManyRequestsException ex) {
+            return tooManyRequests(ex);
+        }
+        
         // Check if username already exists
         if (userRepository.existsByUsername(registerRequest.getUsername())) {
             return ResponseEntity.status(HttpStatus.CONFLICT)
@@ -184,11 +284,18 @@ public class AuthController {
                 .body("Plaza is inactive");
         }
         
+        String encodedPassword;
+        try {
+            encodedPassword = passwordHashingExecutor.call(() -> passwordEncoder.encode(registerRequest.getPassword()));
+        } catch (TooManyRequestsException ex) {
+            return tooManyRequests(ex);
+        }
+        
         // Create new user
         User user = new User();
         user.setUsername(registerRequest.getUsername());
         user.setEmail(registerRequest.getEmail());
-        user.setPassword(registerRequest.getPassword()); // Password stored as-is (not encoded)
+        user.setPassword(encodedPassword);
         user.setFirstName(registerRequest.getFirstName());
         user.setLastName(registerRequest.getLastName());
         user.setPhoneNumber(registerRequest.getPhoneNumber());
@@ -208,25 +315,24 @@ public class AuthController {
                 new java.util.HashSet<>(permissionRepository.findByIsActiveTrue());
             gerenteRole.setPermissions(allPermissions);
             gerenteRole = roleRepository.save(gerenteRole);
+            invalidationBus.publish(InvalidationEvent.ROLE, gerenteRole.getId(), null);
         }
         user.setRoles(Set.of(gerenteRole));
         
         User savedUser = userRepository.save(user);
         
-        // Automatically authenticate the newly registered user
-        Authentication authentication = authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(
-                savedUser.getUsername(),
-                registerRequest.getPassword()
-            )
-        );
+        // Automatically authenticate the newly registered user (its password was just set, no need to hash it again)
+        Authentication authentication = 
+            new UsernamePasswordAuthenticationToken(savedUser, null, savedUser.getAuthorities());
         
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.generateToken(authentication);
+        String tokenId = tokenProvider.newTokenId();
+        String jwt = tokenProvider.generateToken(authentication, tokenId);
         
         // Build response similar to login
         LoginResponseDto response = new LoginResponseDto();
         response.setAccessToken(jwt);
+        response.setRefreshToken(refreshTokenService.issue(savedUser, tokenId));
         response.setTokenType("Bearer");
         response.setId(savedUser.getId());
         response.setUsername(savedUser.getUsername());
@@ -251,8 +357,23 @@ public class AuthController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
     
+    /**
+     * Revoke the access token in the Authorization header and, when the body carries one,
+     * every token of the refresh token's login
+     */
     @PostMapping("/logout")
-    public ResponseEntity<String> logout() {
+    public ResponseEntity<String> logout(HttpServletRequest request,
+                                         @RequestBody(required = false) RefreshTokenRequestDto logoutRequest) {
+        String bearerToken = request.getHeader("Authorization");
+        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
+            JwtClaims claims = tokenProvider.parseOrNull(bearerToken.substring(7));
+            if (claims != null) {
+                revokedTokenRegistry.revoke(claims.tokenId(), claims.expiration());
+            }
+        }
+        if (logoutRequest != null && StringUtils.hasText(logoutRequest.getRefreshToken())) {
+            refreshTokenService.revoke(logoutRequest.getRefreshToken());
+        }
         SecurityContextHolder.clearContext();
         return ResponseEntity.ok("Successfully logged out");
     }
@@ -261,8 +382,7 @@ public class AuthController {
     public ResponseEntity<LoginResponseDto> getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         
-        String username = authentication.getName();
-        User user = (User) userDetailsService.loadUserByUsername(username);
+        User user = userDetailsService.loadCurrentUser(authentication);
         
         LoginResponseDto response = new LoginResponseDto();
         response.setId(user.getId());
@@ -6,19 +6,24 @@ import com.kodehaus.plaza.entity.Bulletin;
 import com.kodehaus.plaza.entity.User;
 import com.kodehaus.plaza.repository.BulletinRepository;
 import com.kodehaus.plaza.repository.PlazaRepository;
+import com.kodehaus.plaza.security.RequiresAuthority;
 import com.kodehaus.plaza.service.CustomUserDetailsService;
+import com.kodehaus.plaza.service.InvalidationEvent;
+import com.kodehaus.plaza.service.KeysetPagination;
+import com.kodehaus.plaza.service.ResourceVersions;
 import jakarta.validation.Valid;
 // Lombok annotations removed for compatibility
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Bulletin Management Controller
@@ -39,75 +44,83 @@ public class BulletinController {
     private final BulletinRepository bulletinRepository;
     private final PlazaRepository plazaRepository;
     private final CustomUserDetailsService userDetailsService;
+    private final KeysetPagination keysetPagination;
+    private final ResourceVersions resourceVersions;
     
     public BulletinController(BulletinRepository bulletinRepository, PlazaRepository plazaRepository,
-                            CustomUserDetailsService userDetailsService) {
+                            CustomUserDetailsService userDetailsService, KeysetPagination keysetPagination,
+                            ResourceVersions resourceVersions) {
         this.bulletinRepository = bulletinRepository;
         this.plazaRepository = plazaRepository;
         this.userDetailsService = userDetailsService;
+        this.keysetPagination = keysetPagination;
+        this.resourceVersions = resourceVersions;
     }
     
     @GetMapping
-    @PreAuthorize("hasAnyRole('MANAGER', 'gerente', 'EMPLOYEE_GENERAL', 'EMPLOYEE_SECURITY', 'EMPLOYEE_PARKING')")
-    public ResponseEntity<List<BulletinResponseDto>> getAllBulletins(Authentication authentication) {
-        String username = authentication.getName();
-        User currentUser = (User) userDetailsService.loadUserByUsername(username);
-        List<Bulletin> bulletins = bulletinRepository.findByPlazaIdAndIsActiveTrue(currentUser.getPlaza().getId());
-        
-        List<BulletinResponseDto> response = bulletins.stream()
-            .map(this::convertToResponseDto)
-            .collect(Collectors.toList());
+    @RequiresAuthority(roles = {"MANAGER", "gerente", "EMPLOYEE_GENERAL", "EMPLOYEE_SECURITY", "EMPLOYEE_PARKING"})
+    public ResponseEntity<List<BulletinResponseDto>> getAllBulletins(Authentication authentication,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(required = false) Integer limit) {
+        Long plazaId = userDetailsService.getPlazaId(authentication);
+        List<BulletinResponseDto> bulletins;
+        if (cursor == null) {
+            bulletins = bulletinRepository.findPageByPlazaId(plazaId, keysetPagination.limit(limit, cursor));
+        } else {
+            try {
+                String[] after = KeysetPagination.decode(cursor, 3);
+                bulletins = bulletinRepository.findPageByPlazaIdAfter(plazaId, LocalDate.parse(after[0]),
+                    LocalDateTime.parse(after[1]), Long.valueOf(after[2]), keysetPagination.limit(limit, cursor));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
         
-        return ResponseEntity.ok(response);
+        return keysetPagination.page(bulletins, limit, cursor,
+            bulletin -> KeysetPagination.encode(bulletin.getPublicationDate(), bulletin.getCreatedAt(), bulletin.getId()));
     }
     
     @GetMapping("/{id}")
-    @PreAuthorize("hasAnyRole('MANAGER', 'gerente', 'EMPLOYEE_GENERAL', 'EMPLOYEE_SECURITY', 'EMPLOYEE_PARKING')")
+    @RequiresAuthority(roles = {"MANAGER", "gerente", "EMPLOYEE_GENERAL", "EMPLOYEE_SECURITY", "EMPLOYEE_PARKING"})
     public ResponseEntity<BulletinResponseDto> getBulletinById(@PathVariable Long id, Authentication authentication) {
-        String username = authentication.getName();
-        User currentUser = (User) userDetailsService.loadUserByUsername(username);
+        Long plazaId = userDetailsService.getPlazaId(authentication);
         
-        return bulletinRepository.findByIdAndPlazaIdAndIsActiveTrue(id, currentUser.getPlaza().getId())
-            .map(bulletin -> ResponseEntity.ok(convertToResponseDto(bulletin)))
+        return bulletinRepository.findDtoByIdAndPlazaId(id, plazaId)
+            .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/today")
-    @PreAuthorize("hasAnyRole('MANAGER', 'gerente', 'EMPLOYEE_GENERAL', 'EMPLOYEE_SECURITY', 'EMPLOYEE_PARKING')")
-    public ResponseEntity<List<BulletinResponseDto>> getTodaysBulletins(Authentication authentication) {
-        String username = authentication.getName();
-        User currentUser = (User) userDetailsService.loadUserByUsername(username);
-        List<Bulletin> bulletins = bulletinRepository.findTodaysBulletinsByPlazaId(currentUser.getPlaza().getId());
-        
-        List<BulletinResponseDto> response = bulletins.stream()
-            .map(this::convertToResponseDto)
-            .collect(Collectors.toList());
+    @RequiresAuthority(roles = {"MANAGER", "gerente", "EMPLOYEE_GENERAL", "EMPLOYEE_SECURITY", "EMPLOYEE_PARKING"})
+    public ResponseEntity<List<BulletinResponseDto>> getTodaysBulletins(Authentication authentication,
+                                                                        WebRequest webRequest) {
+        Long plazaId = userDetailsService.getPlazaId(authentication);
+        // the version carries the database date, so the ETag also changes at midnight
+        ResourceVersions.Version version = resourceVersions.current(InvalidationEvent.BULLETIN, plazaId);
+        if (webRequest.checkNotModified(version.etag("today"), version.lastModified())) {
+            return null;
+        }
+        List<BulletinResponseDto> bulletins = bulletinRepository.findTodaysDtosByPlazaId(plazaId);
         
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(bulletins);
     }
     
     @GetMapping("/date/{date}")
-    @PreAuthorize("hasAnyRole('MANAGER', 'gerente', 'EMPLOYEE_GENERAL', 'EMPLOYEE_SECURITY', 'EMPLOYEE_PARKING')")
+    @RequiresAuthority(roles = {"MANAGER", "gerente", "EMPLOYEE_GENERAL", "EMPLOYEE_SECURITY", "EMPLOYEE_PARKING"})
     public ResponseEntity<List<BulletinResponseDto>> getBulletinsByDate(
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             Authentication authentication) {
-        String username = authentication.getName();
-        User currentUser = (User) userDetailsService.loadUserByUsername(username);
-        List<Bulletin> bulletins = bulletinRepository.findByPlazaIdAndPublicationDate(currentUser.getPlaza().getId(), date);
-        
-        List<BulletinResponseDto> response = bulletins.stream()
-            .map(this::convertToResponseDto)
-            .collect(Collectors.toList());
+        Long plazaId = userDetailsService.getPlazaId(authentication);
+        List<BulletinResponseDto> bulletins = bulletinRepository.findDtosByPlazaIdAndPublicationDate(plazaId, date);
         
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(bulletins);
     }
     
     @PostMapping
-    @PreAuthorize("hasAnyRole('MANAGER', 'gerente', 'EMPLOYEE_GENERAL', 'EMPLOYEE_SECURITY', 'EMPLOYEE_PARKING')")
+    @RequiresAuthority(roles = {"MANAGER", "gerente", "EMPLOYEE_GENERAL", "EMPLOYEE_SECURITY", "EMPLOYEE_PARKING"})
     public ResponseEntity<BulletinResponseDto> createBulletin(@Valid @RequestBody BulletinRequestDto bulletinRequest,
                                                               Authentication authentication) {
-        String username = authentication.getName();
-        User currentUser = (User) userDetailsService.loadUserByUsername(username);
+        User currentUser = userDetailsService.loadCurrentUser(authentication);
         
         // Verify plaza exists and user has access
         if (!plazaRepository.existsByIdAndIsActiveTrue(bulletinRequest.getPlazaId())) {
@@ -123,18 +136,18 @@ public class BulletinController {
         bulletin.setCreatedBy(currentUser);
         
         Bulletin savedBulletin = bulletinRepository.save(bulletin);
+        resourceVersions.changed(InvalidationEvent.BULLETIN, savedBulletin.getId(), savedBulletin.getPlaza().getId());
         return ResponseEntity.status(HttpStatus.CREATED).body(convertToResponseDto(savedBulletin));
     }
     
     @PutMapping("/{id}")
-    @PreAuthorize("hasAnyRole('MANAGER', 'gerente', 'EMPLOYEE_GENERAL', 'EMPLOYEE_SECURITY', 'EMPLOYEE_PARKING')")
+    @RequiresAuthority(roles = {"MANAGER", "gerente", "EMPLOYEE_GENERAL", "EMPLOYEE_SECURITY", "EMPLOYEE_PARKING"})
     public ResponseEntity<BulletinResponseDto> updateBulletin(@PathVariable Long id,
                                                              @Valid @RequestBody BulletinRequestDto bulletinRequest,
                                                              Authentication authentication) {
-        String username = authentication.getName();
-        User currentUser = (User) userDetailsService.loadUserByUsername(username);
+        Long plazaId = userDetailsService.getPlazaId(authentication);
         
-        return bulletinRepository.findByIdAndPlazaIdAndIsActiveTrue(id, currentUser.getPlaza().getId())
+        return bulletinRepository.findByIdAndPlazaIdAndIsActiveTrue(id, plazaId)
             .map(bulletin -> {
                 bulletin.setTitle(bulletinRequest.getTitle());
                 bulletin.setContent(bulletinRequest.getContent());
@@ -143,21 +156,22 @@ public class BulletinController {
                 }
                 
                 Bulletin savedBulletin = bulletinRepository.save(bulletin);
+                resourceVersions.changed(InvalidationEvent.BULLETIN, id, plazaId);
                 return ResponseEntity.ok(convertToResponseDto(savedBulletin));
             })
             .orElse(ResponseEntity.notFound().build());
     }
     
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasAnyRole('MANAGER', 'gerente', 'EMPLOYEE_GENERAL', 'EMPLOYEE_SECURITY', 'EMPLOYEE_PARKING')")
+    @RequiresAuthority(roles = {"MANAGER", "gerente", "EMPLOYEE_GENERAL", "EMPLOYEE_SECURITY", "EMPLOYEE_PARKING"})
     public ResponseEntity<Void> deleteBulletin(@PathVariable Long id, Authentication authentication) {
-        String username = authentication.getName();
-        User currentUser = (User) userDetailsService.loadUserByUsername(username);
+        Long plazaId = userDetailsService.getPlazaId(authentication);
         
-        return bulletinRepository.findByIdAndPlazaIdAndIsActiveTrue(id, currentUser.getPlaza().getId())
+        return bulletinRepository.findByIdAndPlazaIdAndIsActiveTrue(id, plazaId)
             .map(bulletin -> {
                 bulletin.setIsActive(false);
                 bulletinRepository.save(bulletin);
+                resourceVersions.changed(InvalidationEvent.BULLETIN, id, plazaId);
                 return ResponseEntity.noContent().<Void>build();
             })
             .orElse(ResponseEntity.notFound().build());
@@ -9,6 +9,7 @@ import com.kodehaus.plaza.entity.User;
 import com.kodehaus.plaza.repository.PlazaRepository;
 import com.kodehaus.plaza.repository.RoleRepository;
 import com.kodehaus.plaza.repository.UserRepository;
+import com.kodehaus.plaza.service.CustomUserDetailsService;
 import jakarta.validation.Valid;
 // Lombok annotations removed for compatibility
 import org.springframework.http.HttpStatus;
@@ -44,13 +45,16 @@ public class ManagerController {
     private final RoleRepository roleRepository;
     private final PlazaRepository plazaRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CustomUserDetailsService userDetailsService;
     
     public ManagerController(UserRepository userRepository, RoleRepository roleRepository,
-                           PlazaRepository plazaRepository, PasswordEncoder passwordEncoder) {
+                           PlazaRepository plazaRepository, PasswordEncoder passwordEncoder,
+                           CustomUserDetailsService userDetailsService) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.plazaRepository = plazaRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userDetailsService = userDetailsService;
     }
     
     @PostMapping("/register")
@@ -115,6 +119,7 @@ public class ManagerController {
         }
         
         User savedManager = userRepository.save(manager);
+        userDetailsService.evictUser(savedManager.getId(), savedManager.getUsername());
         return ResponseEntity.status(HttpStatus.CREATED).body(convertToResponseDto(savedManager));
     }
     
@@ -129,7 +134,7 @@ public class ManagerController {
     
     @GetMapping("/{plazaId}/exists")
     public ResponseEntity<Boolean> checkManagerExists(@PathVariable Long plazaId) {
-        boolean exists = !userRepository.findByPlazaIdAndRoleName(plazaId, "MANAGER").isEmpty();
+        boolean exists = userRepository.existsByPlazaIdAndRoleName(plazaId, "MANAGER");
         return ResponseEntity.ok(exists);
     }
     
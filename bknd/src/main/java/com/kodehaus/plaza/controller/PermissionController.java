@@ -3,11 +3,16 @@ package com.kodehaus.plaza.controller;
 import com.kodehaus.plaza.dto.PermissionResponseDto;
 import com.kodehaus.plaza.entity.Permission;
 import com.kodehaus.plaza.repository.PermissionRepository;
+import com.kodehaus.plaza.security.RequiresAuthority;
+import com.kodehaus.plaza.service.AuthorityRegistry;
+import com.kodehaus.plaza.service.ResponseCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 // Lombok annotations removed for compatibility
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,25 +25,29 @@ import java.util.stream.Collectors;
 public class PermissionController {
     
     private final PermissionRepository permissionRepository;
+    private final AuthorityRegistry authorityRegistry;
+    private final ResponseCache responseCache;
     
-    public PermissionController(PermissionRepository permissionRepository) {
+    public PermissionController(PermissionRepository permissionRepository, AuthorityRegistry authorityRegistry,
+                                ResponseCache responseCache) {
         this.permissionRepository = permissionRepository;
+        this.authorityRegistry = authorityRegistry;
+        this.responseCache = responseCache;
     }
     
+    /**
+     * Permissions have no write endpoint; the cached lists follow AuthorityRegistry.refresh(),
+     * which reloads them whenever roles change
+     */
     @GetMapping
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN') or hasRole('gerente')")
-    public ResponseEntity<List<PermissionResponseDto>> getAllPermissions() {
-        List<Permission> permissions = permissionRepository.findByIsActiveTrue();
-        
-        List<PermissionResponseDto> response = permissions.stream()
-            .map(this::convertToResponseDto)
-            .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(response);
+    @RequiresAuthority(roles = {"MANAGER", "ADMIN", "gerente"})
+    public void getAllPermissions(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        responseCache.write("permissions", null, authorityRegistry.generation(),
+            () -> toResponseDtos(permissionRepository.findByIsActiveTrue()), request, response);
     }
     
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN') or hasRole('gerente')")
+    @RequiresAuthority(roles = {"MANAGER", "ADMIN", "gerente"})
     public ResponseEntity<PermissionResponseDto> getPermissionById(@PathVariable Long id) {
         return permissionRepository.findById(id)
             .filter(permission -> permission.getIsActive())
@@ -47,15 +56,17 @@ public class PermissionController {
     }
     
     @GetMapping("/resource/{resource}")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN') or hasRole('gerente')")
-    public ResponseEntity<List<PermissionResponseDto>> getPermissionsByResource(@PathVariable String resource) {
-        List<Permission> permissions = permissionRepository.findByResource(resource);
-        
-        List<PermissionResponseDto> response = permissions.stream()
+    @RequiresAuthority(roles = {"MANAGER", "ADMIN", "gerente"})
+    public void getPermissionsByResource(@PathVariable String resource, HttpServletRequest request,
+                                         HttpServletResponse response) throws IOException {
+        responseCache.write("permissions/resource/" + resource, null, authorityRegistry.generation(),
+            () -> toResponseDtos(permissionRepository.findByResource(resource)), request, response);
+    }
+    
+    private List<PermissionResponseDto> toResponseDtos(List<Permission> permissions) {
+        return permissions.stream()
             .map(this::convertToResponseDto)
             .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(response);
     }
     
     private PermissionResponseDto convertToResponseDto(Permission permission) {
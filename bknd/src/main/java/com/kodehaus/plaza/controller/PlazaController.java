@@ -1,12 +1,22 @@
 package com.kodehaus.plaza.controller;
 
+import com.kodehaus.plaza.dto.PlazaResponseDto;
 import com.kodehaus.plaza.entity.Plaza;
+import com.kodehaus.plaza.entity.Role;
 import com.kodehaus.plaza.entity.User;
 import com.kodehaus.plaza.repository.PlazaRepository;
+import com.kodehaus.plaza.security.AuthorityMask;
+import com.kodehaus.plaza.security.RequiresAuthority;
+import com.kodehaus.plaza.service.AuthorityRegistry;
+import com.kodehaus.plaza.service.CustomUserDetailsService;
+import com.kodehaus.plaza.service.InvalidationBus;
+import com.kodehaus.plaza.service.InvalidationEvent;
+import com.kodehaus.plaza.service.KeysetPagination;
+import com.kodehaus.plaza.service.ProductCatalog;
+import com.kodehaus.plaza.service.ResourceVersions;
 // Lombok annotations removed for compatibility
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
@@ -22,13 +32,30 @@ import java.util.stream.Collectors;
 public class PlazaController {
     
     private final PlazaRepository plazaRepository;
+    private final CustomUserDetailsService userDetailsService;
+    private final AuthorityRegistry authorityRegistry;
+    private final AuthorityMask adminRoles;
+    private final KeysetPagination keysetPagination;
+    private final InvalidationBus invalidationBus;
+    private final ProductCatalog productCatalog;
+    private final ResourceVersions resourceVersions;
     
-    public PlazaController(PlazaRepository plazaRepository) {
+    public PlazaController(PlazaRepository plazaRepository, CustomUserDetailsService userDetailsService,
+                           AuthorityRegistry authorityRegistry, KeysetPagination keysetPagination,
+                           InvalidationBus invalidationBus, ProductCatalog productCatalog,
+                           ResourceVersions resourceVersions) {
         this.plazaRepository = plazaRepository;
+        this.userDetailsService = userDetailsService;
+        this.authorityRegistry = authorityRegistry;
+        this.keysetPagination = keysetPagination;
+        this.invalidationBus = invalidationBus;
+        this.productCatalog = productCatalog;
+        this.resourceVersions = resourceVersions;
+        this.adminRoles = authorityRegistry.roleMask(List.of("ADMIN", Role.GERENTE));
     }
     
     @PostMapping
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresAuthority(roles = {"ADMIN"})
     public ResponseEntity<PlazaResponseDto> createPlaza(@RequestBody PlazaCreateRequest req) {
         // Log para depuración
         System.out.println("POST /api/plazas received: " + req);
@@ -65,6 +92,8 @@ public class PlazaController {
         }
 
         Plaza saved = plazaRepository.save(plaza);
+        // other instances may have cached a miss for its name or externalId
+        invalidationBus.publish(InvalidationEvent.PLAZA, saved.getId(), saved.getId());
         return ResponseEntity.ok(convertToResponseDto(saved));
     }
 
@@ -96,7 +125,9 @@ public class PlazaController {
             p.setClosingHours(req.getClosingHours());
             p.setIsActive(true);
             p.setExternalId(req.getExternalId());
-            return plazaRepository.save(p);
+            Plaza saved = plazaRepository.save(p);
+            invalidationBus.publish(InvalidationEvent.PLAZA, saved.getId(), saved.getId());
+            return saved;
         });
 
         ExternalPlazaResponse resp = new ExternalPlazaResponse();
@@ -108,11 +139,11 @@ public class PlazaController {
     }
     
     @PutMapping("/{id}")
-    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'gerente')")
+    @RequiresAuthority(roles = {"ADMIN", "MANAGER", "gerente"})
     public ResponseEntity<PlazaResponseDto> updatePlaza(@PathVariable Long id, @RequestBody PlazaUpdateRequest req,
                                                         Authentication authentication) {
-        User currentUser = (User) authentication.getPrincipal();
-        boolean isAdmin = hasRole(currentUser, "ADMIN");
+        User currentUser = userDetailsService.loadCurrentUser(authentication);
+        boolean isAdmin = isAdmin(authentication);
         if (!isAdmin && !belongsToUserPlaza(currentUser, id)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
@@ -128,6 +159,9 @@ public class PlazaController {
                 if (req.getOpeningHours() != null) plaza.setOpeningHours(req.getOpeningHours());
                 if (req.getClosingHours() != null) plaza.setClosingHours(req.getClosingHours());
                 Plaza saved = plazaRepository.save(plaza);
+                productCatalog.evictLocally(saved.getId());
+                resourceVersions.evictPlaza(saved.getId());
+                invalidationBus.publish(InvalidationEvent.PLAZA, saved.getId(), saved.getId());
                 return ResponseEntity.ok(convertToResponseDto(saved));
             })
             .orElse(ResponseEntity.notFound().build());
@@ -203,14 +237,27 @@ public class PlazaController {
     }
     
     @GetMapping
-    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'gerente', 'EMPLOYEE_GENERAL', 'EMPLOYEE_SECURITY', 'EMPLOYEE_PARKING')")
-    public ResponseEntity<List<PlazaResponseDto>> getAllPlazas(Authentication authentication) {
-        User currentUser = (User) authentication.getPrincipal();
-        boolean isAdmin = hasRole(currentUser, "ADMIN");
+    @RequiresAuthority(roles = {"ADMIN", "MANAGER", "gerente", "EMPLOYEE_GENERAL", "EMPLOYEE_SECURITY", "EMPLOYEE_PARKING"})
+    public ResponseEntity<List<PlazaResponseDto>> getAllPlazas(Authentication authentication,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer limit) {
+        User currentUser = userDetailsService.loadCurrentUser(authentication);
+        boolean isAdmin = isAdmin(authentication);
 
         List<Plaza> plazas;
         if (isAdmin) {
-            plazas = plazaRepository.findByIsActiveTrue();
+            List<PlazaResponseDto> page;
+            if (cursor == null) {
+                page = plazaRepository.findActivePage(keysetPagination.limit(limit, cursor));
+            } else {
+                try {
+                    Long afterId = Long.valueOf(KeysetPagination.decode(cursor, 1)[0]);
+                    page = plazaRepository.findActivePageAfter(afterId, keysetPagination.limit(limit, cursor));
+                } catch (IllegalArgumentException e) {
+                    return ResponseEntity.badRequest().build();
+                }
+            }
+            return keysetPagination.page(page, limit, cursor, plaza -> KeysetPagination.encode(plaza.getId()));
         } else if (currentUser.getPlaza() != null && Boolean.TRUE.equals(currentUser.getPlaza().getIsActive())) {
             plazas = List.of(currentUser.getPlaza());
         } else {
@@ -225,30 +272,31 @@ public class PlazaController {
     }
     
     @GetMapping("/{id}")
-    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'gerente', 'EMPLOYEE_GENERAL', 'EMPLOYEE_SECURITY', 'EMPLOYEE_PARKING')")
+    @RequiresAuthority(roles = {"ADMIN", "MANAGER", "gerente", "EMPLOYEE_GENERAL", "EMPLOYEE_SECURITY", "EMPLOYEE_PARKING"})
     public ResponseEntity<PlazaResponseDto> getPlazaById(@PathVariable Long id, Authentication authentication) {
-        User currentUser = (User) authentication.getPrincipal();
-        boolean isAdmin = hasRole(currentUser, "ADMIN");
+        User currentUser = userDetailsService.loadCurrentUser(authentication);
+        boolean isAdmin = isAdmin(authentication);
         if (!isAdmin && !belongsToUserPlaza(currentUser, id)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        return plazaRepository.findById(id)
-            .filter(plaza -> plaza.getIsActive())
-            .map(plaza -> ResponseEntity.ok(convertToResponseDto(plaza)))
+        return plazaRepository.findActiveDtoById(id)
+            .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/search")
-    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'gerente', 'EMPLOYEE_GENERAL', 'EMPLOYEE_SECURITY', 'EMPLOYEE_PARKING')")
+    @RequiresAuthority(roles = {"ADMIN", "MANAGER", "gerente", "EMPLOYEE_GENERAL", "EMPLOYEE_SECURITY", "EMPLOYEE_PARKING"})
     public ResponseEntity<List<PlazaResponseDto>> searchPlazas(@RequestParam String name, Authentication authentication) {
-        User currentUser = (User) authentication.getPrincipal();
-        boolean isAdmin = hasRole(currentUser, "ADMIN");
+        User currentUser = userDetailsService.loadCurrentUser(authentication);
+        boolean isAdmin = isAdmin(authentication);
 
-        List<Plaza> plazas;
         if (isAdmin) {
-            plazas = plazaRepository.findByNameContainingIgnoreCase(name);
-        } else if (currentUser.getPlaza() != null && Boolean.TRUE.equals(currentUser.getPlaza().getIsActive())) {
+            return ResponseEntity.ok(plazaRepository.findDtosByNameContainingIgnoreCase(name));
+        }
+        
+        List<Plaza> plazas;
+        if (currentUser.getPlaza() != null && Boolean.TRUE.equals(currentUser.getPlaza().getIsActive())) {
             Plaza userPlaza = currentUser.getPlaza();
             boolean matches = userPlaza.getName() != null && userPlaza.getName().toLowerCase().contains(name.toLowerCase());
             plazas = matches ? List.of(userPlaza) : List.of();
@@ -281,12 +329,9 @@ public class PlazaController {
         return dto;
     }
 
-    private boolean hasRole(User user, String roleName) {
-        if (user.getRoles() == null) return false;
-        // Check for exact match or if user has "gerente" role (which has all permissions)
-        return user.getRoles().stream().anyMatch(role -> 
-            roleName.equalsIgnoreCase(role.getName()) || "gerente".equalsIgnoreCase(role.getName())
-        );
+    private boolean isAdmin(Authentication authentication) {
+        // ADMIN, or "gerente" (which has all permissions)
+        return authorityRegistry.roleMaskOf(authentication).intersects(adminRoles);
     }
 
     private boolean belongsToUserPlaza(User user, Long plazaId) {
@@ -338,57 +383,4 @@ public class PlazaController {
         public String getMessage() { return message; }
         public void setMessage(String message) { this.message = message; }
     }
-    
-    // Inner class for plaza responses
-    public static class PlazaResponseDto {
-        private Long id;
-        private String externalId;
-        private String name;
-        private String description;
-        private String address;
-        private String phoneNumber;
-        private String email;
-        private String openingHours;
-        private String closingHours;
-        private Boolean isActive;
-        private java.time.LocalDateTime createdAt;
-        private java.time.LocalDateTime updatedAt;
-        
-        // Getters and setters
-        public Long getId() { return id; }
-        public void setId(Long id) { this.id = id; }
-
-        public String getExternalId() { return externalId; }
-        public void setExternalId(String externalId) { this.externalId = externalId; }
-        
-        public String getName() { return name; }
-        public void setName(String name) { this.name = name; }
-        
-        public String getDescription() { return description; }
-        public void setDescription(String description) { this.description = description; }
-        
-        public String getAddress() { return address; }
-        public void setAddress(String address) { this.address = address; }
-        
-        public String getPhoneNumber() { return phoneNumber; }
-        public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
-        
-        public String getEmail() { return email; }
-        public void setEmail(String email) { this.email = email; }
-        
-        public String getOpeningHours() { return openingHours; }
-        public void setOpeningHours(String openingHours) { this.openingHours = openingHours; }
-        
-        public String getClosingHours() { return closingHours; }
-        public void setClosingHours(String closingHours) { this.closingHours = closingHours; }
-        
-        public Boolean getIsActive() { return isActive; }
-        public void setIsActive(Boolean isActive) { this.isActive = isActive; }
-        
-        public java.time.LocalDateTime getCreatedAt() { return createdAt; }
-        public void setCreatedAt(java.time.LocalDateTime createdAt) { this.createdAt = createdAt; }
-        
-        public java.time.LocalDateTime getUpdatedAt() { return updatedAt; }
-        public void setUpdatedAt(java.time.LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
-    }
 }
@@ -1,21 +1,40 @@
 package com.kodehaus.plaza.controller;
 
+import com.kodehaus.plaza.dto.ProductBulkUpdateResultDto;
+import com.kodehaus.plaza.dto.ProductImportResultDto;
+import com.kodehaus.plaza.dto.ProductPriceUpdateDto;
 import com.kodehaus.plaza.dto.ProductRequestDto;
 import com.kodehaus.plaza.dto.ProductResponseDto;
 import com.kodehaus.plaza.entity.Product;
-import com.kodehaus.plaza.entity.User;
 import com.kodehaus.plaza.repository.PlazaRepository;
 import com.kodehaus.plaza.repository.ProductRepository;
+import com.kodehaus.plaza.security.RequiresAuthority;
+import com.kodehaus.plaza.service.CatalogSnapshot;
 import com.kodehaus.plaza.service.CustomUserDetailsService;
+import com.kodehaus.plaza.service.KeysetPagination;
+import com.kodehaus.plaza.service.ProductCatalog;
+import com.kodehaus.plaza.service.InvalidationEvent;
+import com.kodehaus.plaza.service.ProductImportService;
+import com.kodehaus.plaza.service.ResourceVersions;
+import com.kodehaus.plaza.service.ResponseCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * Product Management Controller
@@ -38,72 +57,130 @@ public class ProductController {
     private final ProductRepository productRepository;
     private final PlazaRepository plazaRepository;
     private final CustomUserDetailsService userDetailsService;
+    private final KeysetPagination keysetPagination;
+    private final ProductImportService productImportService;
+    private final ProductCatalog productCatalog;
+    private final ResourceVersions resourceVersions;
+    private final ResponseCache responseCache;
+    private final int maxBulkUpdateRows;
+    private final int searchDefaultSize;
     
     public ProductController(ProductRepository productRepository, PlazaRepository plazaRepository,
-                           CustomUserDetailsService userDetailsService) {
+                           CustomUserDetailsService userDetailsService, KeysetPagination keysetPagination,
+                           ProductImportService productImportService, ProductCatalog productCatalog,
+                           ResourceVersions resourceVersions, ResponseCache responseCache,
+                           @Value("${products.bulk-update.max-rows:1000}") int maxBulkUpdateRows,
+                           @Value("${products.search.default-size:20}") int searchDefaultSize) {
         this.productRepository = productRepository;
         this.plazaRepository = plazaRepository;
         this.userDetailsService = userDetailsService;
+        this.keysetPagination = keysetPagination;
+        this.productImportService = productImportService;
+        this.productCatalog = productCatalog;
+        this.resourceVersions = resourceVersions;
+        this.responseCache = responseCache;
+        this.maxBulkUpdateRows = maxBulkUpdateRows;
+        this.searchDefaultSize = searchDefaultSize;
     }
     
     @GetMapping
-    @PreAuthorize("hasAnyRole('MANAGER', 'gerente', 'EMPLOYEE_GENERAL', 'EMPLOYEE_SECURITY', 'EMPLOYEE_PARKING')")
-    public ResponseEntity<List<ProductResponseDto>> getAllProducts(Authentication authentication) {
-        String username = authentication.getName();
-        User currentUser = (User) userDetailsService.loadUserByUsername(username);
-        List<Product> products = productRepository.findByPlazaIdOrderByCategoryAndName(currentUser.getPlaza().getId());
-        
-        List<ProductResponseDto> response = products.stream()
-            .map(this::convertToResponseDto)
-            .collect(Collectors.toList());
+    @RequiresAuthority(roles = {"MANAGER", "gerente", "EMPLOYEE_GENERAL", "EMPLOYEE_SECURITY", "EMPLOYEE_PARKING"})
+    public ResponseEntity<List<ProductResponseDto>> getAllProducts(Authentication authentication,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false) Integer limit,
+                                                                   WebRequest webRequest) {
+        Long plazaId = userDetailsService.getPlazaId(authentication);
+        // version before snapshot: a concurrent change can only make the ETag older than the body, never newer
+        ResourceVersions.Version version = resourceVersions.current(InvalidationEvent.PRODUCT, plazaId);
+        if (webRequest.checkNotModified(version.etag("list:" + cursor + ":" + limit), version.lastModified())) {
+            return null;
+        }
+        CatalogSnapshot catalog = productCatalog.snapshot(plazaId);
+        int rows = keysetPagination.fetchSize(limit, cursor);
+        List<ProductResponseDto> products;
+        if (cursor == null) {
+            products = catalog.first(rows);
+        } else {
+            try {
+                String[] after = KeysetPagination.decode(cursor, 3);
+                products = catalog.after(after[0], after[1], Long.valueOf(after[2]), rows);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
         
-        return ResponseEntity.ok(response);
+        return keysetPagination.page(products, limit, cursor,
+            product -> KeysetPagination.encode(product.getCategory(), product.getName(), product.getId()));
     }
     
     @GetMapping("/available")
-    @PreAuthorize("hasAnyRole('MANAGER', 'gerente', 'EMPLOYEE_GENERAL', 'EMPLOYEE_SECURITY', 'EMPLOYEE_PARKING')")
-    public ResponseEntity<List<ProductResponseDto>> getAvailableProducts(Authentication authentication) {
-        String username = authentication.getName();
-        User currentUser = (User) userDetailsService.loadUserByUsername(username);
-        List<Product> products = productRepository.findByPlazaIdAndIsActiveTrueAndIsAvailableTrue(currentUser.getPlaza().getId());
-        
-        List<ProductResponseDto> response = products.stream()
-            .map(this::convertToResponseDto)
-            .collect(Collectors.toList());
+    @RequiresAuthority(roles = {"MANAGER", "gerente", "EMPLOYEE_GENERAL", "EMPLOYEE_SECURITY", "EMPLOYEE_PARKING"})
+    public ResponseEntity<List<ProductResponseDto>> getAvailableProducts(Authentication authentication,
+                                                                         WebRequest webRequest) {
+        Long plazaId = userDetailsService.getPlazaId(authentication);
+        ResourceVersions.Version version = resourceVersions.current(InvalidationEvent.PRODUCT, plazaId);
+        if (webRequest.checkNotModified(version.etag("available"), version.lastModified())) {
+            return null;
+        }
+        List<ProductResponseDto> products = productCatalog.snapshot(plazaId).available();
         
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(products);
     }
     
     @GetMapping("/categories")
-    @PreAuthorize("hasAnyRole('MANAGER', 'gerente', 'EMPLOYEE_GENERAL', 'EMPLOYEE_SECURITY', 'EMPLOYEE_PARKING')")
-    public ResponseEntity<List<String>> getCategories(Authentication authentication) {
-        String username = authentication.getName();
-        User currentUser = (User) userDetailsService.loadUserByUsername(username);
-        List<String> categories = productRepository.findDistinctCategoriesByPlazaId(currentUser.getPlaza().getId());
+    @RequiresAuthority(roles = {"MANAGER", "gerente", "EMPLOYEE_GENERAL", "EMPLOYEE_SECURITY", "EMPLOYEE_PARKING"})
+    public void getCategories(Authentication authentication, WebRequest webRequest,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Long plazaId = userDetailsService.getPlazaId(authentication);
+        ResourceVersions.Version version = resourceVersions.current(InvalidationEvent.PRODUCT, plazaId);
+        // gzip and identity bodies are different representations, so they get different ETags
+        String encoding = ResponseCache.acceptsGzip(request) ? "gzip" : "identity";
+        if (webRequest.checkNotModified(version.etag("categories:" + encoding), version.lastModified())) {
+            return;
+        }
+        CatalogSnapshot catalog = productCatalog.snapshot(plazaId);
         
-        return ResponseEntity.ok(categories);
+        // a replaced snapshot has a new serial, so the cached bytes always match the snapshot being served
+        responseCache.write("products/categories", plazaId, catalog.serial(), catalog::categories, request, response);
+    }
+    
+    /**
+     * Name search for autocomplete: accent and case insensitive ("pimenton" finds "Pimentón"),
+     * best matches first; limit defaults to products.search.default-size
+     */
+    @GetMapping("/search")
+    @RequiresAuthority(roles = {"MANAGER", "gerente", "EMPLOYEE_GENERAL", "EMPLOYEE_SECURITY", "EMPLOYEE_PARKING"})
+    public ResponseEntity<List<ProductResponseDto>> searchProducts(@RequestParam String q,
+                                                                   @RequestParam(required = false) Integer limit,
+                                                                   Authentication authentication) {
+        Long plazaId = userDetailsService.getPlazaId(authentication);
+        String query = q.strip();
+        if (query.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        int size = keysetPagination.pageSize(limit != null ? limit : searchDefaultSize);
+        return ResponseEntity.ok(productRepository.searchByName(plazaId, query, size));
     }
     
     @GetMapping("/{id}")
-    @PreAuthorize("hasAnyRole('MANAGER', 'gerente', 'EMPLOYEE_GENERAL', 'EMPLOYEE_SECURITY', 'EMPLOYEE_PARKING')")
+    @RequiresAuthority(roles = {"MANAGER", "gerente", "EMPLOYEE_GENERAL", "EMPLOYEE_SECURITY", "EMPLOYEE_PARKING"})
     public ResponseEntity<ProductResponseDto> getProductById(@PathVariable Long id, Authentication authentication) {
-        String username = authentication.getName();
-        User currentUser = (User) userDetailsService.loadUserByUsername(username);
+        Long plazaId = userDetailsService.getPlazaId(authentication);
         
-        return productRepository.findByIdAndPlazaIdAndIsActiveTrue(id, currentUser.getPlaza().getId())
-            .map(product -> ResponseEntity.ok(convertToResponseDto(product)))
+        return productRepository.findDtoByIdAndPlazaId(id, plazaId)
+            .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
     
     @PostMapping
-    @PreAuthorize("hasRole('MANAGER') or hasRole('gerente')")
+    @RequiresAuthority(roles = {"MANAGER", "gerente"})
     public ResponseEntity<ProductResponseDto> createProduct(@Valid @RequestBody ProductRequestDto productRequest, 
                                                           Authentication authentication) {
-        String username = authentication.getName();
-        User currentUser = (User) userDetailsService.loadUserByUsername(username);
+        Long plazaId = userDetailsService.getPlazaId(authentication);
         
         // Verify plaza exists and user has access
-        if (!plazaRepository.existsByIdAndIsActiveTrue(currentUser.getPlaza().getId())) {
+        if (!plazaRepository.existsByIdAndIsActiveTrue(plazaId)) {
             return ResponseEntity.badRequest().build();
         }
         
@@ -115,21 +192,50 @@ public class ProductController {
         product.setUnit(productRequest.getUnit());
         product.setPrice(productRequest.getPrice());
         product.setIsAvailable(productRequest.getIsAvailable());
-        product.setPlaza(currentUser.getPlaza());
+        product.setPlaza(plazaRepository.getReferenceById(plazaId));
         
         Product savedProduct = productRepository.save(product);
-        return ResponseEntity.status(HttpStatus.CREATED).body(convertToResponseDto(savedProduct));
+        ProductResponseDto response = convertToResponseDto(savedProduct);
+        productCatalog.updated(plazaId, response);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+    
+    /**
+     * Bulk import: a JSON array of products (same fields as POST /api/products) or a CSV file with a header line.
+     * Invalid rows are reported in the result and do not stop the others from being stored.
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, "text/csv"})
+    @RequiresAuthority(roles = {"MANAGER", "gerente"})
+    public ResponseEntity<ProductImportResultDto> importProducts(InputStream body,
+                                                                 @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                                 Authentication authentication) throws IOException {
+        Long plazaId = userDetailsService.getPlazaId(authentication);
+        if (!plazaRepository.existsByIdAndIsActiveTrue(plazaId)) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        try {
+            ProductImportResultDto result = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_JSON)
+                ? productImportService.importJson(body, plazaId)
+                : productImportService.importCsv(body, plazaId);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            // header or top-level structure is unusable, nothing was imported
+            return ResponseEntity.badRequest().build();
+        } finally {
+            // chunks are committed as they go, even when the upload breaks off
+            productCatalog.invalidate(plazaId);
+        }
     }
     
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('gerente')")
+    @RequiresAuthority(roles = {"MANAGER", "gerente"})
     public ResponseEntity<ProductResponseDto> updateProduct(@PathVariable Long id, 
                                                           @Valid @RequestBody ProductRequestDto productRequest,
                                                           Authentication authentication) {
-        String username = authentication.getName();
-        User currentUser = (User) userDetailsService.loadUserByUsername(username);
+        Long plazaId = userDetailsService.getPlazaId(authentication);
         
-        return productRepository.findByIdAndPlazaIdAndIsActiveTrue(id, currentUser.getPlaza().getId())
+        return productRepository.findByIdAndPlazaIdAndIsActiveTrue(id, plazaId)
             .map(product -> {
                 product.setName(productRequest.getName());
                 product.setDescription(productRequest.getDescription());
@@ -139,39 +245,72 @@ public class ProductController {
                 product.setIsAvailable(productRequest.getIsAvailable());
                 
                 Product savedProduct = productRepository.save(product);
-                return ResponseEntity.ok(convertToResponseDto(savedProduct));
+                ProductResponseDto response = convertToResponseDto(savedProduct);
+                productCatalog.updated(plazaId, response);
+                return ResponseEntity.ok(response);
             })
             .orElse(ResponseEntity.notFound().build());
     }
     
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('gerente')")
+    @RequiresAuthority(roles = {"MANAGER", "gerente"})
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id, Authentication authentication) {
-        String username = authentication.getName();
-        User currentUser = (User) userDetailsService.loadUserByUsername(username);
+        Long plazaId = userDetailsService.getPlazaId(authentication);
         
-        return productRepository.findByIdAndPlazaIdAndIsActiveTrue(id, currentUser.getPlaza().getId())
+        return productRepository.findByIdAndPlazaIdAndIsActiveTrue(id, plazaId)
             .map(product -> {
                 product.setIsActive(false);
                 productRepository.save(product);
+                productCatalog.removed(plazaId, id);
                 return ResponseEntity.noContent().<Void>build();
             })
             .orElse(ResponseEntity.notFound().build());
     }
     
+    /**
+     * Bulk price/availability update: [{id, price, isAvailable, version}], null fields are left unchanged.
+     * Returns only the products that changed; 409 with the conflicting ids (and no change at all)
+     * when a given version is no longer current.
+     */
+    @PatchMapping("/bulk")
+    @RequiresAuthority(roles = {"MANAGER", "gerente"})
+    public ResponseEntity<ProductBulkUpdateResultDto> updatePricesAndAvailability(
+            @RequestBody List<ProductPriceUpdateDto> updates, Authentication authentication) {
+        Long plazaId = userDetailsService.getPlazaId(authentication);
+        
+        if (updates.isEmpty() || updates.size() > maxBulkUpdateRows) {
+            return ResponseEntity.badRequest().build();
+        }
+        Set<Long> ids = new HashSet<>();
+        for (ProductPriceUpdateDto update : updates) {
+            if (update.getId() == null || !ids.add(update.getId())
+                    || (update.getPrice() != null && update.getPrice().compareTo(BigDecimal.ZERO) <= 0)) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        
+        ProductBulkUpdateResultDto result = productRepository.updatePricesAndAvailability(plazaId, updates);
+        if (!result.getConflicts().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+        }
+        productCatalog.updated(plazaId, result.getUpdated());
+        return ResponseEntity.ok(result);
+    }
+    
     @PutMapping("/{id}/price")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('gerente')")
+    @RequiresAuthority(roles = {"MANAGER", "gerente"})
     public ResponseEntity<ProductResponseDto> updateProductPrice(@PathVariable Long id, 
                                                                @RequestBody ProductRequestDto priceRequest,
                                                                Authentication authentication) {
-        String username = authentication.getName();
-        User currentUser = (User) userDetailsService.loadUserByUsername(username);
+        Long plazaId = userDetailsService.getPlazaId(authentication);
         
-        return productRepository.findByIdAndPlazaIdAndIsActiveTrue(id, currentUser.getPlaza().getId())
+        return productRepository.findByIdAndPlazaIdAndIsActiveTrue(id, plazaId)
             .map(product -> {
                 product.setPrice(priceRequest.getPrice());
                 Product savedProduct = productRepository.save(product);
-                return ResponseEntity.ok(convertToResponseDto(savedProduct));
+                ProductResponseDto response = convertToResponseDto(savedProduct);
+                productCatalog.updated(plazaId, response);
+                return ResponseEntity.ok(response);
             })
             .orElse(ResponseEntity.notFound().build());
     }
@@ -188,6 +327,7 @@ public class ProductController {
         dto.setIsAvailable(product.getIsAvailable());
         dto.setCreatedAt(product.getCreatedAt());
         dto.setUpdatedAt(product.getUpdatedAt());
+        dto.setVersion(product.getVersion());
         dto.setPlazaId(product.getPlaza().getId());
         dto.setPlazaName(product.getPlaza().getName());
         
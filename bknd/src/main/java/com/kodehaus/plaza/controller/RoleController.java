@@ -6,13 +6,22 @@ import com.kodehaus.plaza.entity.Permission;
 import com.kodehaus.plaza.entity.Role;
 import com.kodehaus.plaza.repository.PermissionRepository;
 import com.kodehaus.plaza.repository.RoleRepository;
+import com.kodehaus.plaza.security.RequiresAuthority;
+import com.kodehaus.plaza.service.AuthorityRegistry;
+import com.kodehaus.plaza.service.AuthzVersionRegistry;
+import com.kodehaus.plaza.service.CustomUserDetailsService;
+import com.kodehaus.plaza.service.InvalidationBus;
+import com.kodehaus.plaza.service.InvalidationEvent;
+import com.kodehaus.plaza.service.ResponseCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 // Lombok annotations removed for compatibility
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -32,37 +41,48 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*")
 public class RoleController {
     
+    private static final String ROLES_RESPONSE = "roles";
+    
     private final RoleRepository roleRepository;
     private final PermissionRepository permissionRepository;
+    private final CustomUserDetailsService userDetailsService;
+    private final AuthorityRegistry authorityRegistry;
+    private final AuthzVersionRegistry authzVersionRegistry;
+    private final InvalidationBus invalidationBus;
+    private final ResponseCache responseCache;
     
-    public RoleController(RoleRepository roleRepository, PermissionRepository permissionRepository) {
+    public RoleController(RoleRepository roleRepository, PermissionRepository permissionRepository,
+                          CustomUserDetailsService userDetailsService, AuthorityRegistry authorityRegistry,
+                          AuthzVersionRegistry authzVersionRegistry, InvalidationBus invalidationBus,
+                          ResponseCache responseCache) {
         this.roleRepository = roleRepository;
         this.permissionRepository = permissionRepository;
+        this.userDetailsService = userDetailsService;
+        this.authorityRegistry = authorityRegistry;
+        this.authzVersionRegistry = authzVersionRegistry;
+        this.invalidationBus = invalidationBus;
+        this.responseCache = responseCache;
     }
     
     @GetMapping
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN') or hasRole('gerente')")
-    public ResponseEntity<List<RoleResponseDto>> getAllRoles() {
-        List<Role> roles = roleRepository.findByIsActiveTrue();
-        
-        List<RoleResponseDto> response = roles.stream()
+    @RequiresAuthority(roles = {"MANAGER", "ADMIN", "gerente"})
+    public void getAllRoles(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // every role change refreshes the AuthorityRegistry, here and on the other instances
+        responseCache.write(ROLES_RESPONSE, null, authorityRegistry.generation(), () -> roleRepository.findByIsActiveTrue().stream()
             .map(this::convertToResponseDto)
-            .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(response);
+            .collect(Collectors.toList()), request, response);
     }
     
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN') or hasRole('gerente')")
+    @RequiresAuthority(roles = {"MANAGER", "ADMIN", "gerente"})
     public ResponseEntity<RoleResponseDto> getRoleById(@PathVariable Long id) {
-        return roleRepository.findById(id)
-            .filter(role -> role.getIsActive())
+        return roleRepository.findByIdAndIsActiveTrue(id)
             .map(role -> ResponseEntity.ok(convertToResponseDto(role)))
             .orElse(ResponseEntity.notFound().build());
     }
     
     @PostMapping
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN') or hasRole('gerente')")
+    @RequiresAuthority(roles = {"MANAGER", "ADMIN", "gerente"})
     public ResponseEntity<RoleResponseDto> createRole(@Valid @RequestBody RoleRequestDto roleRequest) {
         // Check if role name already exists
         if (roleRepository.existsByName(roleRequest.getName())) {
@@ -80,11 +100,14 @@ public class RoleController {
         }
         
         Role savedRole = roleRepository.save(role);
+        authorityRegistry.refresh();
+        responseCache.invalidate(ROLES_RESPONSE);
+        invalidationBus.publish(InvalidationEvent.ROLE, savedRole.getId(), null);
         return ResponseEntity.status(HttpStatus.CREATED).body(convertToResponseDto(savedRole));
     }
     
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN') or hasRole('gerente')")
+    @RequiresAuthority(roles = {"MANAGER", "ADMIN", "gerente"})
     public ResponseEntity<RoleResponseDto> updateRole(@PathVariable Long id, 
                                                       @Valid @RequestBody RoleRequestDto roleRequest) {
         return roleRepository.findById(id)
@@ -105,19 +128,30 @@ public class RoleController {
                 }
                 
                 Role savedRole = roleRepository.save(role);
+                // cached users carry their roles and permissions; issued tokens carry the role names
+                userDetailsService.evictAll();
+                authorityRegistry.refresh();
+                responseCache.invalidate(ROLES_RESPONSE);
+                authzVersionRegistry.bumpRole(savedRole.getId());
+                invalidationBus.publish(InvalidationEvent.ROLE, savedRole.getId(), null);
                 return ResponseEntity.ok(convertToResponseDto(savedRole));
             })
             .orElse(ResponseEntity.notFound().build());
     }
     
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN') or hasRole('gerente')")
+    @RequiresAuthority(roles = {"MANAGER", "ADMIN", "gerente"})
     public ResponseEntity<Void> deleteRole(@PathVariable Long id) {
         return roleRepository.findById(id)
             .filter(role -> role.getIsActive())
             .map(role -> {
                 role.setIsActive(false);
                 roleRepository.save(role);
+                userDetailsService.evictAll();
+                authorityRegistry.refresh();
+                responseCache.invalidate(ROLES_RESPONSE);
+                authzVersionRegistry.bumpRole(role.getId());
+                invalidationBus.publish(InvalidationEvent.ROLE, role.getId(), null);
                 return ResponseEntity.noContent().<Void>build();
             })
             .orElse(ResponseEntity.notFound().build());
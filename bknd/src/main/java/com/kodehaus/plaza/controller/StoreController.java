@@ -1,27 +1,32 @@
 package com.kodehaus.plaza.controller;
 
+import com.kodehaus.plaza.dto.ExternalStoreOwnerRequestDto;
+import com.kodehaus.plaza.dto.ExternalStoreRequestDto;
+import com.kodehaus.plaza.dto.StoreOwnerRequestDto;
 import com.kodehaus.plaza.dto.StoreRequestDto;
 import com.kodehaus.plaza.dto.StoreResponseDto;
-import com.kodehaus.plaza.dto.StoreOwnerRequestDto;
 import com.kodehaus.plaza.dto.UserResponseDto;
+import com.kodehaus.plaza.entity.Role;
 import com.kodehaus.plaza.entity.Store;
 import com.kodehaus.plaza.entity.User;
-import com.kodehaus.plaza.entity.Role;
+import com.kodehaus.plaza.repository.RoleRepository;
 import com.kodehaus.plaza.repository.StoreRepository;
 import com.kodehaus.plaza.repository.UserRepository;
-import com.kodehaus.plaza.repository.RoleRepository;
+import com.kodehaus.plaza.security.RequiresAuthority;
+import com.kodehaus.plaza.service.CustomUserDetailsService;
+import com.kodehaus.plaza.service.InvalidationEvent;
+import com.kodehaus.plaza.service.KeysetPagination;
+import com.kodehaus.plaza.service.ResourceVersions;
 import com.kodehaus.plaza.service.StoreManagementService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -38,31 +43,54 @@ public class StoreController {
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final StoreManagementService storeManagementService;
+    private final CustomUserDetailsService userDetailsService;
+    private final KeysetPagination keysetPagination;
+    private final ResourceVersions resourceVersions;
     
     public StoreController(StoreRepository storeRepository,
                           UserRepository userRepository, RoleRepository roleRepository,
-                          PasswordEncoder passwordEncoder, StoreManagementService storeManagementService) {
+                          PasswordEncoder passwordEncoder, StoreManagementService storeManagementService,
+                          CustomUserDetailsService userDetailsService, KeysetPagination keysetPagination,
+                          ResourceVersions resourceVersions) {
         this.storeRepository = storeRepository;
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
         this.storeManagementService = storeManagementService;
+        this.userDetailsService = userDetailsService;
+        this.keysetPagination = keysetPagination;
+        this.resourceVersions = resourceVersions;
     }
     
     /**
      * Get all stores for the authenticated user's plaza
      */
     @GetMapping
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN') or hasRole('gerente') or hasRole('STORE_OWNER')")
-    public ResponseEntity<List<StoreResponseDto>> getAllStores(Authentication authentication) {
-        User currentUser = (User) authentication.getPrincipal();
-        List<Store> stores = storeRepository.findByPlazaIdAndIsActiveTrue(currentUser.getPlaza().getId());
-        
-        List<StoreResponseDto> response = stores.stream()
-            .map(this::convertToResponseDto)
-            .collect(Collectors.toList());
+    @RequiresAuthority(roles = {"MANAGER", "ADMIN", "gerente", "STORE_OWNER"})
+    public ResponseEntity<List<StoreResponseDto>> getAllStores(Authentication authentication,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer limit,
+                                                               WebRequest webRequest) {
+        Long plazaId = userDetailsService.getPlazaId(authentication);
+        ResourceVersions.Version version = resourceVersions.current(InvalidationEvent.STORE, plazaId);
+        if (webRequest.checkNotModified(version.etag("list:" + cursor + ":" + limit), version.lastModified())) {
+            return null;
+        }
+        List<StoreResponseDto> stores;
+        if (cursor == null) {
+            stores = storeRepository.findPageByPlazaId(plazaId, keysetPagination.limit(limit, cursor));
+        } else {
+            try {
+                String[] after = KeysetPagination.decode(cursor, 2);
+                stores = storeRepository.findPageByPlazaIdAfter(plazaId, after[0], Long.valueOf(after[1]),
+                    keysetPagination.limit(limit, cursor));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
         
-        return ResponseEntity.ok(response);
+        return keysetPagination.page(stores, limit, cursor,
+            store -> KeysetPagination.encode(store.getName(), store.getId()));
     }
     
     
@@ -70,12 +98,12 @@ public class StoreController {
      * Get store by ID
      */
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN') or hasRole('gerente')")
+    @RequiresAuthority(roles = {"MANAGER", "ADMIN", "gerente"})
     public ResponseEntity<StoreResponseDto> getStoreById(@PathVariable Long id, Authentication authentication) {
-        User currentUser = (User) authentication.getPrincipal();
+        Long plazaId = userDetailsService.getPlazaId(authentication);
         
-        return storeRepository.findByIdAndPlazaIdAndIsActiveTrue(id, currentUser.getPlaza().getId())
-            .map(store -> ResponseEntity.ok(convertToResponseDto(store)))
+        return storeRepository.findDtoByIdAndPlazaId(id, plazaId)
+            .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
     
@@ -83,10 +111,10 @@ public class StoreController {
      * Create a new store
      */
     @PostMapping
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN') or hasRole('gerente')")
+    @RequiresAuthority(roles = {"MANAGER", "ADMIN", "gerente"})
     public ResponseEntity<StoreResponseDto> createStore(@Valid @RequestBody StoreRequestDto storeRequest,
                                                        Authentication authentication) {
-        User currentUser = (User) authentication.getPrincipal();
+        User currentUser = userDetailsService.loadCurrentUser(authentication);
         
         // Check if store name already exists in the plaza
         if (storeRepository.existsByNameAndPlazaId(storeRequest.getName(), currentUser.getPlaza().getId())) {
@@ -104,29 +132,17 @@ public class StoreController {
         store.setIsActive(true);
         
         Store savedStore = storeRepository.save(store);
+        resourceVersions.changed(InvalidationEvent.STORE, savedStore.getId(), savedStore.getPlaza().getId());
         
-        // Call external store management service (non-blocking)
-        try {
-            Map<String, Object> storeData = new HashMap<>();
-            storeData.put("nombre", savedStore.getName());
-            storeData.put("categoria", savedStore.getDescription());
-            storeData.put("numeroLocal", savedStore.getOwnerName());
-            storeData.put("estado", "Activo");
-            storeData.put("externalId", savedStore.getId());
-            
-            ResponseEntity<Map<String, Object>> externalResponse = storeManagementService.createStore(storeData);
-            
-            // If external service returns an external ID, update the store
-            if (externalResponse != null && externalResponse.getStatusCode().is2xxSuccessful() && externalResponse.getBody() != null) {
-                return ResponseEntity.status(HttpStatus.CREATED).body(convertToResponseDto(savedStore));
-            } else {
-                System.out.println("External store management service returned non-2xx response or no body");
-            }
-        } catch (Exception e) {
-            System.err.println("Error calling store management service: " + e.getMessage());
-            System.err.println("Store created locally, but external service call failed. This is not critical.");
-            // Continue even if external service call fails - store is already saved locally
-        }
+        // Call external store management service; a failure is logged there and is not critical,
+        // the store is already saved locally
+        ExternalStoreRequestDto externalStore = new ExternalStoreRequestDto();
+        externalStore.setNombre(savedStore.getName());
+        externalStore.setCategoria(savedStore.getDescription());
+        externalStore.setNumeroLocal(savedStore.getOwnerName());
+        externalStore.setEstado("Activo");
+        externalStore.setExternalId(savedStore.getId());
+        storeManagementService.createStore(externalStore);
         
         return ResponseEntity.status(HttpStatus.CREATED).body(convertToResponseDto(savedStore));
     }
@@ -135,17 +151,17 @@ public class StoreController {
      * Update store
      */
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN') or hasRole('gerente')")
+    @RequiresAuthority(roles = {"MANAGER", "ADMIN", "gerente"})
     public ResponseEntity<StoreResponseDto> updateStore(@PathVariable Long id,
                                                        @Valid @RequestBody StoreRequestDto storeRequest,
                                                        Authentication authentication) {
-        User currentUser = (User) authentication.getPrincipal();
+        Long plazaId = userDetailsService.getPlazaId(authentication);
         
-        return storeRepository.findByIdAndPlazaIdAndIsActiveTrue(id, currentUser.getPlaza().getId())
+        return storeRepository.findByIdAndPlazaIdAndIsActiveTrue(id, plazaId)
             .map(store -> {
                 // Check if name already exists (excluding current store)
                 if (storeRepository.existsByNameAndPlazaIdAndIdNot(storeRequest.getName(), 
-                    currentUser.getPlaza().getId(), id)) {
+                    plazaId, id)) {
                     return ResponseEntity.status(HttpStatus.CONFLICT).<StoreResponseDto>build();
                 }
                 
@@ -156,6 +172,7 @@ public class StoreController {
                 store.setEmail(storeRequest.getEmail());
                 
                 Store savedStore = storeRepository.save(store);
+                resourceVersions.changed(InvalidationEvent.STORE, id, plazaId);
                 return ResponseEntity.ok(convertToResponseDto(savedStore));
             })
             .orElse(ResponseEntity.notFound().build());
@@ -165,14 +182,15 @@ public class StoreController {
      * Delete store (soft delete)
      */
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN') or hasRole('gerente')")
+    @RequiresAuthority(roles = {"MANAGER", "ADMIN", "gerente"})
     public ResponseEntity<Void> deleteStore(@PathVariable Long id, Authentication authentication) {
-        User currentUser = (User) authentication.getPrincipal();
+        Long plazaId = userDetailsService.getPlazaId(authentication);
         
-        return storeRepository.findByIdAndPlazaIdAndIsActiveTrue(id, currentUser.getPlaza().getId())
+        return storeRepository.findByIdAndPlazaIdAndIsActiveTrue(id, plazaId)
             .map(store -> {
                 store.setIsActive(false);
                 storeRepository.save(store);
+                resourceVersions.changed(InvalidationEvent.STORE, id, plazaId);
                 return ResponseEntity.noContent().<Void>build();
             })
             .orElse(ResponseEntity.notFound().build());
@@ -182,11 +200,11 @@ public class StoreController {
      * Create store owner profile
      */
     @PostMapping("/{storeId}/owner")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN') or hasRole('gerente')")
+    @RequiresAuthority(roles = {"MANAGER", "ADMIN", "gerente"})
     public ResponseEntity<UserResponseDto> createStoreOwner(@PathVariable Long storeId,
                                                            @Valid @RequestBody StoreOwnerRequestDto ownerRequest,
                                                            Authentication authentication) {
-        User currentUser = (User) authentication.getPrincipal();
+        User currentUser = userDetailsService.loadCurrentUser(authentication);
         
         // Verify store exists and belongs to the plaza
         Store store = storeRepository.findByIdAndPlazaIdAndIsActiveTrue(storeId, currentUser.getPlaza().getId())
@@ -228,31 +246,16 @@ public class StoreController {
         }
         
         User savedOwner = userRepository.save(owner);
+        userDetailsService.evictUser(savedOwner.getId(), savedOwner.getUsername());
         
-        // Call external store management service to create owner profile (non-blocking)
-        try {
-            if (currentUser.getPlaza().getId() != null) {
-                Map<String, Object> ownerData = new HashMap<>();
-                ownerData.put("nombreUsuario", savedOwner.getUsername());
-                ownerData.put("contrasena", owner.getPassword());
-                ownerData.put("cedula", savedOwner.getFirstName());
-                ownerData.put("idLocal", savedOwner.getStore().getId());
-                
-                
-                ResponseEntity<Map<String, Object>> externalResponse = storeManagementService.createStoreOwnerProfile(ownerData);
-                
-                if (externalResponse != null && externalResponse.getStatusCode().is2xxSuccessful()) {
-                    System.out.println("Store owner profile created in external service successfully");
-                } else {
-                    System.out.println("External store management service returned non-2xx response for owner profile");
-                }
-            } else {
-                System.out.println("Skipping external service call: store externalId or plaza externalId is null");
-            }
-        } catch (Exception e) {
-            System.err.println("Error calling store management service for owner profile: " + e.getMessage());
-            System.err.println("Store owner created locally, but external service call failed. This is not critical.");
-            // Continue even if external service call fails - store owner is already saved locally
+        // Call external store management service to create owner profile; the owner is already saved locally
+        if (currentUser.getPlaza().getId() != null) {
+            ExternalStoreOwnerRequestDto externalOwner = new ExternalStoreOwnerRequestDto();
+            externalOwner.setNombreUsuario(savedOwner.getUsername());
+            externalOwner.setContrasena(owner.getPassword());
+            externalOwner.setCedula(savedOwner.getFirstName());
+            externalOwner.setIdLocal(savedOwner.getStore().getId());
+            storeManagementService.createStoreOwnerProfile(externalOwner);
         }
         
         return ResponseEntity.status(HttpStatus.CREATED).body(convertToUserResponseDto(savedOwner));
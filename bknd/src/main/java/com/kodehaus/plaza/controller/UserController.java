@@ -3,22 +3,28 @@ package com.kodehaus.plaza.controller;
 import com.kodehaus.plaza.dto.RoleResponseDto;
 import com.kodehaus.plaza.dto.UserRequestDto;
 import com.kodehaus.plaza.dto.UserResponseDto;
+import com.kodehaus.plaza.dto.UserRoleRow;
 import com.kodehaus.plaza.entity.Role;
 import com.kodehaus.plaza.entity.User;
 import com.kodehaus.plaza.repository.PlazaRepository;
 import com.kodehaus.plaza.repository.RoleRepository;
 import com.kodehaus.plaza.repository.UserRepository;
+import com.kodehaus.plaza.security.RequiresAuthority;
+import com.kodehaus.plaza.service.AuthzVersionRegistry;
 import com.kodehaus.plaza.service.CustomUserDetailsService;
+import com.kodehaus.plaza.service.KeysetPagination;
 import jakarta.validation.Valid;
 // Lombok annotations removed for compatibility
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -47,46 +53,57 @@ public class UserController {
     private final PlazaRepository plazaRepository;
     private final PasswordEncoder passwordEncoder;
     private final CustomUserDetailsService userDetailsService;
+    private final AuthzVersionRegistry authzVersionRegistry;
+    private final KeysetPagination keysetPagination;
     
     public UserController(UserRepository userRepository, RoleRepository roleRepository,
                         PlazaRepository plazaRepository, PasswordEncoder passwordEncoder,
-                        CustomUserDetailsService userDetailsService) {
+                        CustomUserDetailsService userDetailsService, AuthzVersionRegistry authzVersionRegistry, KeysetPagination keysetPagination) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.plazaRepository = plazaRepository;
         this.passwordEncoder = passwordEncoder;
         this.userDetailsService = userDetailsService;
+        this.authzVersionRegistry = authzVersionRegistry;
+        this.keysetPagination = keysetPagination;
     }
     
     @GetMapping
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN') or hasRole('gerente')")
-    public ResponseEntity<List<UserResponseDto>> getAllUsers(Authentication authentication) {
-        User currentUser = (User) authentication.getPrincipal();
-        List<User> users = userRepository.findByPlazaIdAndIsActiveTrue(currentUser.getPlaza().getId());
-        
-        List<UserResponseDto> response = users.stream()
-            .map(this::convertToResponseDto)
-            .collect(Collectors.toList());
+    @RequiresAuthority(roles = {"MANAGER", "ADMIN", "gerente"})
+    public ResponseEntity<List<UserResponseDto>> getAllUsers(Authentication authentication,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer limit) {
+        Long plazaId = userDetailsService.getPlazaId(authentication);
+        List<UserResponseDto> users;
+        if (cursor == null) {
+            users = userRepository.findPageByPlazaId(plazaId, keysetPagination.limit(limit, cursor));
+        } else {
+            try {
+                Long afterId = Long.valueOf(KeysetPagination.decode(cursor, 1)[0]);
+                users = userRepository.findPageByPlazaIdAfter(plazaId, afterId, keysetPagination.limit(limit, cursor));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
         
-        return ResponseEntity.ok(response);
+        return keysetPagination.page(withRoles(users), limit, cursor,
+            user -> KeysetPagination.encode(user.getId()));
     }
     
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN') or hasRole('gerente')")
+    @RequiresAuthority(roles = {"MANAGER", "ADMIN", "gerente"})
     public ResponseEntity<UserResponseDto> getUserById(@PathVariable Long id, Authentication authentication) {
-        User currentUser = (User) authentication.getPrincipal();
+        Long plazaId = userDetailsService.getPlazaId(authentication);
         
-        return userRepository.findByIdAndPlazaIdAndIsActiveTrue(id, currentUser.getPlaza().getId())
-            .map(user -> ResponseEntity.ok(convertToResponseDto(user)))
+        return userRepository.findDtoByIdAndPlazaId(id, plazaId)
+            .map(user -> ResponseEntity.ok(withRoles(List.of(user)).get(0)))
             .orElse(ResponseEntity.notFound().build());
     }
     
     @PostMapping
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN') or hasRole('gerente')")
+    @RequiresAuthority(roles = {"MANAGER", "ADMIN", "gerente"})
     public ResponseEntity<UserResponseDto> createUser(@Valid @RequestBody UserRequestDto userRequest, 
                                                      Authentication authentication) {
-        User currentUser = (User) authentication.getPrincipal();
-        
         // Check if username already exists
         if (userRepository.existsByUsername(userRequest.getUsername())) {
             return ResponseEntity.badRequest().build();
@@ -119,6 +136,7 @@ public class UserController {
         }
         
         User savedUser = userRepository.save(user);
+        userDetailsService.evictUser(savedUser.getId(), savedUser.getUsername());
         return ResponseEntity.status(HttpStatus.CREATED).body(convertToResponseDto(savedUser));
     }
 
@@ -182,19 +200,20 @@ public class UserController {
         }
 
         User saved = userRepository.save(user);
+        userDetailsService.evictUser(saved.getId(), saved.getUsername());
 
         // Return created user info (do not expose password)
         return ResponseEntity.status(org.springframework.http.HttpStatus.CREATED).body(convertToResponseDto(saved));
     }
     
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN') or hasRole('gerente')")
+    @RequiresAuthority(roles = {"MANAGER", "ADMIN", "gerente"})
     public ResponseEntity<UserResponseDto> updateUser(@PathVariable Long id, 
                                                       @Valid @RequestBody UserRequestDto userRequest,
                                                       Authentication authentication) {
-        User currentUser = (User) authentication.getPrincipal();
+        Long plazaId = userDetailsService.getPlazaId(authentication);
         
-        return userRepository.findByIdAndPlazaIdAndIsActiveTrue(id, currentUser.getPlaza().getId())
+        return userRepository.findByIdAndPlazaIdAndIsActiveTrue(id, plazaId)
             .map(user -> {
                 // Check if username already exists (excluding current user)
                 if (userRepository.existsByUsernameAndIdNot(userRequest.getUsername(), id)) {
@@ -207,6 +226,7 @@ public class UserController {
                 }
                 
                 // Update user fields
+                String previousUsername = user.getUsername();
                 user.setUsername(userRequest.getUsername());
                 user.setEmail(userRequest.getEmail());
                 if (userRequest.getPassword() != null && !userRequest.getPassword().isEmpty()) {
@@ -221,27 +241,51 @@ public class UserController {
                     Set<Role> roles = roleRepository.findByIdInAndIsActiveTrue(userRequest.getRoleIds());
                     user.setRoles(roles);
                 }
+                user.bumpAuthzVersion();
                 
                 User savedUser = userRepository.save(user);
+                userDetailsService.evictUser(savedUser.getId(), previousUsername);
+                authzVersionRegistry.record(savedUser.getId(), savedUser.getAuthzVersion());
                 return ResponseEntity.ok(convertToResponseDto(savedUser));
             })
             .orElse(ResponseEntity.notFound().build());
     }
     
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN') or hasRole('gerente')")
+    @RequiresAuthority(roles = {"MANAGER", "ADMIN", "gerente"})
     public ResponseEntity<Void> deleteUser(@PathVariable Long id, Authentication authentication) {
-        User currentUser = (User) authentication.getPrincipal();
+        Long plazaId = userDetailsService.getPlazaId(authentication);
         
-        return userRepository.findByIdAndPlazaIdAndIsActiveTrue(id, currentUser.getPlaza().getId())
+        return userRepository.findByIdAndPlazaIdAndIsActiveTrue(id, plazaId)
             .map(user -> {
                 user.setIsActive(false);
+                user.bumpAuthzVersion();
                 userRepository.save(user);
+                userDetailsService.evictUser(user.getId(), user.getUsername());
+                authzVersionRegistry.record(user.getId(), user.getAuthzVersion());
                 return ResponseEntity.noContent().<Void>build();
             })
             .orElse(ResponseEntity.notFound().build());
     }
     
+    /**
+     * Fill in the roles of projected users with one query for the whole list
+     */
+    private List<UserResponseDto> withRoles(List<UserResponseDto> users) {
+        if (users.isEmpty()) {
+            return users;
+        }
+        Map<Long, UserResponseDto> byId = new HashMap<>();
+        for (UserResponseDto user : users) {
+            user.setRoles(new HashSet<>());
+            byId.put(user.getId(), user);
+        }
+        for (UserRoleRow row : userRepository.findRoleRowsByUserIds(byId.keySet())) {
+            byId.get(row.userId()).getRoles().add(row.toRoleResponseDto());
+        }
+        return users;
+    }
+    
     private UserResponseDto convertToResponseDto(User user) {
         UserResponseDto dto = new UserResponseDto();
         dto.setId(user.getId());
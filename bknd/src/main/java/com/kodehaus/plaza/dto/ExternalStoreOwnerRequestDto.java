@@ -0,0 +1,23 @@
+package com.kodehaus.plaza.dto;
+
+/**
+ * Store owner account sent to the store management service (POST /api/Auth/register/admin)
+ */
+public class ExternalStoreOwnerRequestDto {
+    private String nombreUsuario;
+    private String contrasena;
+    private String cedula;
+    private Long idLocal;
+
+    public String getNombreUsuario() { return nombreUsuario; }
+    public void setNombreUsuario(String nombreUsuario) { this.nombreUsuario = nombreUsuario; }
+
+    public String getContrasena() { return contrasena; }
+    public void setContrasena(String contrasena) { this.contrasena = contrasena; }
+
+    public String getCedula() { return cedula; }
+    public void setCedula(String cedula) { this.cedula = cedula; }
+
+    public Long getIdLocal() { return idLocal; }
+    public void setIdLocal(Long idLocal) { this.idLocal = idLocal; }
+}
@@ -0,0 +1,27 @@
+package com.kodehaus.plaza.dto;
+
+/**
+ * Store sent to the store management service (POST /api/Locales)
+ */
+public class ExternalStoreRequestDto {
+    private String nombre;
+    private String categoria;
+    private String numeroLocal;
+    private String estado;
+    private Long externalId;
+
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+
+    public String getCategoria() { return categoria; }
+    public void setCategoria(String categoria) { this.categoria = categoria; }
+
+    public String getNumeroLocal() { return numeroLocal; }
+    public void setNumeroLocal(String numeroLocal) { this.numeroLocal = numeroLocal; }
+
+    public String getEstado() { return estado; }
+    public void setEstado(String estado) { this.estado = estado; }
+
+    public Long getExternalId() { return externalId; }
+    public void setExternalId(Long externalId) { this.externalId = externalId; }
+}
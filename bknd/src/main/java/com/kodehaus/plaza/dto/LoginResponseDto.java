@@ -9,6 +9,7 @@ import java.util.Set;
  */
 public class LoginResponseDto {
     private String accessToken;
+    private String refreshToken;
     private String tokenType = "Bearer";
     private Long id;
     private String username;
@@ -44,6 +45,9 @@ public class LoginResponseDto {
     public String getAccessToken() { return accessToken; }
     public void setAccessToken(String accessToken) { this.accessToken = accessToken; }
     
+    public String getRefreshToken() { return refreshToken; }
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+    
     public String getTokenType() { return tokenType; }
     public void setTokenType(String tokenType) { this.tokenType = tokenType; }
     
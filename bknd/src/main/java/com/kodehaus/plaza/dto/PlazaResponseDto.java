@@ -0,0 +1,80 @@
+package com.kodehaus.plaza.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for plaza response
+ */
+public class PlazaResponseDto {
+    private Long id;
+    private String externalId;
+    private String name;
+    private String description;
+    private String address;
+    private String phoneNumber;
+    private String email;
+    private String openingHours;
+    private String closingHours;
+    private Boolean isActive;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    
+    public PlazaResponseDto() {}
+    
+    /**
+     * Used by the JPQL constructor projections in PlazaRepository
+     */
+    public PlazaResponseDto(Long id, String externalId, String name, String description, String address,
+                            String phoneNumber, String email, String openingHours, String closingHours,
+                            Boolean isActive, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.externalId = externalId;
+        this.name = name;
+        this.description = description;
+        this.address = address;
+        this.phoneNumber = phoneNumber;
+        this.email = email;
+        this.openingHours = openingHours;
+        this.closingHours = closingHours;
+        this.isActive = isActive;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+    
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getExternalId() { return externalId; }
+    public void setExternalId(String externalId) { this.externalId = externalId; }
+    
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    
+    public String getAddress() { return address; }
+    public void setAddress(String address) { this.address = address; }
+    
+    public String getPhoneNumber() { return phoneNumber; }
+    public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
+    
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+    
+    public String getOpeningHours() { return openingHours; }
+    public void setOpeningHours(String openingHours) { this.openingHours = openingHours; }
+    
+    public String getClosingHours() { return closingHours; }
+    public void setClosingHours(String closingHours) { this.closingHours = closingHours; }
+    
+    public Boolean getIsActive() { return isActive; }
+    public void setIsActive(Boolean isActive) { this.isActive = isActive; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,24 @@
+package com.kodehaus.plaza.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a bulk price/availability update.
+ * updated holds only the products whose price or availability actually changed, with their new version.
+ * When conflicts is not empty nothing was changed.
+ */
+public class ProductBulkUpdateResultDto {
+    private List<ProductResponseDto> updated = new ArrayList<>();
+    private List<Long> conflicts = new ArrayList<>();
+    private List<Long> notFound = new ArrayList<>();
+
+    public List<ProductResponseDto> getUpdated() { return updated; }
+    public void setUpdated(List<ProductResponseDto> updated) { this.updated = updated; }
+
+    public List<Long> getConflicts() { return conflicts; }
+    public void setConflicts(List<Long> conflicts) { this.conflicts = conflicts; }
+
+    public List<Long> getNotFound() { return notFound; }
+    public void setNotFound(List<Long> notFound) { this.notFound = notFound; }
+}
@@ -0,0 +1,35 @@
+package com.kodehaus.plaza.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of a bulk price/availability update. Null price or isAvailable leaves that column as it is;
+ * a version makes the whole batch fail with 409 if the product changed since it was read.
+ */
+public class ProductPriceUpdateDto {
+    private Long id;
+    private BigDecimal price;
+    private Boolean isAvailable;
+    private Long version;
+
+    public ProductPriceUpdateDto() {}
+
+    public ProductPriceUpdateDto(Long id, BigDecimal price, Boolean isAvailable, Long version) {
+        this.id = id;
+        this.price = price;
+        this.isAvailable = isAvailable;
+        this.version = version;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+
+    public Boolean getIsAvailable() { return isAvailable; }
+    public void setIsAvailable(Boolean isAvailable) { this.isAvailable = isAvailable; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
@@ -18,9 +18,34 @@ public class ProductResponseDto {
     private Boolean isAvailable;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
     private Long plazaId;
     private String plazaName;
     
+    // Constructors
+    public ProductResponseDto() {}
+    
+    /**
+     * Used by the JPQL constructor projections in ProductRepository
+     */
+    public ProductResponseDto(Long id, String name, String description, String category, String unit,
+                              BigDecimal price, Boolean isActive, Boolean isAvailable, LocalDateTime createdAt,
+                              LocalDateTime updatedAt, Long version, Long plazaId, String plazaName) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.category = category;
+        this.unit = unit;
+        this.price = price;
+        this.isActive = isActive;
+        this.isAvailable = isAvailable;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.version = version;
+        this.plazaId = plazaId;
+        this.plazaName = plazaName;
+    }
+    
     // Getters and Setters
     public Long getId() {
         return id;
@@ -110,6 +135,14 @@ public class ProductResponseDto {
         this.plazaId = plazaId;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public String getPlazaName() {
         return plazaName;
     }
@@ -0,0 +1,21 @@
+package com.kodehaus.plaza.dto;
+
+// Lombok annotations removed for compatibility
+
+/**
+ * DTO for refresh and logout requests
+ */
+public class RefreshTokenRequestDto {
+    private String refreshToken;
+    
+    // Constructors
+    public RefreshTokenRequestDto() {}
+    
+    public RefreshTokenRequestDto(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+    
+    // Getters and Setters
+    public String getRefreshToken() { return refreshToken; }
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+}
@@ -20,6 +20,29 @@ public class StoreResponseDto {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
+    // Constructors
+    public StoreResponseDto() {}
+    
+    /**
+     * Used by the JPQL constructor projections in StoreRepository
+     */
+    public StoreResponseDto(Long id, String externalId, String name, String description, String ownerName,
+                            String phoneNumber, String email, Boolean isActive, Long plazaId, String plazaName,
+                            LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.externalId = externalId;
+        this.name = name;
+        this.description = description;
+        this.ownerName = ownerName;
+        this.phoneNumber = phoneNumber;
+        this.email = email;
+        this.isActive = isActive;
+        this.plazaId = plazaId;
+        this.plazaName = plazaName;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+    
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     
@@ -46,6 +46,16 @@ public class UserResponseDto {
         this.externalId = externalId;
     }
     
+    /**
+     * Used by the JPQL constructor projections in UserRepository; roles are filled in separately
+     */
+    public UserResponseDto(Long id, String username, String email, String firstName, String lastName,
+                          String phoneNumber, Boolean isActive, LocalDateTime createdAt, LocalDateTime updatedAt,
+                          Long plazaId, String plazaName, String externalId) {
+        this(id, username, email, firstName, lastName, phoneNumber, isActive, createdAt, updatedAt,
+             plazaId, plazaName, null, firstName + " " + lastName, externalId);
+    }
+    
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -0,0 +1,21 @@
+package com.kodehaus.plaza.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One role of one user, as projected by UserRepository.findRoleRowsByUserIds
+ */
+public record UserRoleRow(Long userId, Long id, String name, String description, Boolean isActive,
+                          LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+    public RoleResponseDto toRoleResponseDto() {
+        RoleResponseDto dto = new RoleResponseDto();
+        dto.setId(id);
+        dto.setName(name);
+        dto.setDescription(description);
+        dto.setIsActive(isActive);
+        dto.setCreatedAt(createdAt);
+        dto.setUpdatedAt(updatedAt);
+        return dto;
+    }
+}
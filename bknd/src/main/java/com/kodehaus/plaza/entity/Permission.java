@@ -3,6 +3,8 @@ package com.kodehaus.plaza.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 // Lombok annotations removed for compatibility
 
 import java.time.LocalDateTime;
@@ -13,6 +15,8 @@ import java.util.Set;
  */
 @Entity
 @Table(name = "permissions")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Permission {
     
     @Id
@@ -35,6 +39,10 @@ public class Permission {
     @Size(max = 50, message = "Action must not exceed 50 characters")
     private String action; // e.g., "CREATE", "READ", "UPDATE", "DELETE"
     
+    // Stable position of this permission in AuthorityMask bitsets; assigned once, never reused
+    @Column(name = "bit_index", unique = true)
+    private Integer bitIndex;
+    
     @Column(name = "is_active")
     private Boolean isActive = true;
     
@@ -86,6 +94,9 @@ public class Permission {
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
     
+    public Integer getBitIndex() { return bitIndex; }
+    public void setBitIndex(Integer bitIndex) { this.bitIndex = bitIndex; }
+    
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
     
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 // Lombok annotations removed for compatibility
 
 import java.time.LocalDateTime;
@@ -15,6 +17,8 @@ import java.util.UUID;
  */
 @Entity
 @Table(name = "plazas")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Plaza {
     
     @Id
@@ -15,8 +15,10 @@ import java.time.LocalDateTime;
 @Table(name = "products")
 public class Product {
     
+    // pooled sequence instead of IDENTITY so bulk imports can batch their inserts (see V4__product_id_sequence)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_id_seq")
+    @SequenceGenerator(name = "products_id_seq", sequenceName = "products_id_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Product name is required")
@@ -53,6 +55,11 @@ public class Product {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // optimistic locking; the bulk price update in ProductRepositoryCustomImpl bumps it in SQL
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     // Relationship with Plaza
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "plaza_id", nullable = false)
@@ -154,6 +161,14 @@ public class Product {
         this.updatedAt = updatedAt;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public Plaza getPlaza() {
         return plaza;
     }
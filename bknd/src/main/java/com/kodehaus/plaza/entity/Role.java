@@ -1,8 +1,11 @@
 package com.kodehaus.plaza.entity;
 
+import com.kodehaus.plaza.security.AuthorityMask;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 // Lombok annotations removed for compatibility
 
 import java.time.LocalDateTime;
@@ -13,8 +16,16 @@ import java.util.Set;
  */
 @Entity
 @Table(name = "roles")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NamedEntityGraph(name = Role.WITH_PERMISSIONS, attributeNodes = @NamedAttributeNode("permissions"))
 public class Role {
     
+    public static final String WITH_PERMISSIONS = "Role.withPermissions";
+    
+    /** Plaza manager role; holds every permission */
+    public static final String GERENTE = "gerente";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -37,7 +48,8 @@ public class Role {
     private LocalDateTime updatedAt;
     
     // Relationship with Permissions
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
         name = "role_permissions",
         joinColumns = @JoinColumn(name = "role_id"),
@@ -49,6 +61,10 @@ public class Role {
     @ManyToMany(mappedBy = "roles", fetch = FetchType.LAZY)
     private Set<User> users;
     
+    // Effective permissions as a bitset, computed on first use
+    @Transient
+    private AuthorityMask permissionMask;
+    
     // Constructors
     public Role() {}
     
@@ -80,7 +96,7 @@ public class Role {
     public void setId(Long id) { this.id = id; }
     
     public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
+    public void setName(String name) { this.name = name; this.permissionMask = null; }
     
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
@@ -95,7 +111,27 @@ public class Role {
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     
     public Set<Permission> getPermissions() { return permissions; }
-    public void setPermissions(Set<Permission> permissions) { this.permissions = permissions; }
+    public void setPermissions(Set<Permission> permissions) { this.permissions = permissions; this.permissionMask = null; }
+    
+    /**
+     * Bitset of this role's active permissions. The gerente role implies every permission.
+     * Permissions without a bit index yet (see AuthorityRegistry) are not included.
+     */
+    public AuthorityMask getPermissionMask() {
+        AuthorityMask mask = permissionMask;
+        if (mask == null) {
+            if (GERENTE.equalsIgnoreCase(name)) {
+                mask = AuthorityMask.ALL;
+            } else {
+                mask = AuthorityMask.of(permissions == null ? new int[0] : permissions.stream()
+                        .filter(p -> p.getBitIndex() != null && !Boolean.FALSE.equals(p.getIsActive()))
+                        .mapToInt(Permission::getBitIndex)
+                        .toArray());
+            }
+            permissionMask = mask;
+        }
+        return mask;
+    }
     
     public Set<User> getUsers() { return users; }
     public void setUsers(Set<User> users) { this.users = users; }
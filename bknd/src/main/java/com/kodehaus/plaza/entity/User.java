@@ -1,5 +1,6 @@
 package com.kodehaus.plaza.entity;
 
+import com.kodehaus.plaza.security.AuthorityMask;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -11,6 +12,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -19,8 +21,19 @@ import java.util.Set;
  */
 @Entity
 @Table(name = "users")
+@NamedEntityGraph(
+    name = User.WITH_AUTHORITIES,
+    attributeNodes = {
+        @NamedAttributeNode("plaza"),
+        @NamedAttributeNode(value = "roles", subgraph = "roles")
+    },
+    subgraphs = @NamedSubgraph(name = "roles", attributeNodes = @NamedAttributeNode("permissions"))
+)
 public class User implements UserDetails {
     
+    /** Plaza, roles and their permissions: everything a cached or detached principal reads */
+    public static final String WITH_AUTHORITIES = "User.withAuthorities";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -67,13 +80,20 @@ public class User implements UserDetails {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Bumped whenever roles, status or credentials change; tokens carry the value they were issued with
+    @Column(name = "authz_version")
+    private Long authzVersion = 0L;
+    
+    @Column(name = "authz_changed_at")
+    private LocalDateTime authzChangedAt;
+    
     // Relationship with Plaza
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "plaza_id", nullable = false)
     private Plaza plaza;
     
     // Relationship with Roles
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "user_roles",
         joinColumns = @JoinColumn(name = "user_id"),
@@ -81,6 +101,13 @@ public class User implements UserDetails {
     )
     private Set<Role> roles;
     
+    // Derived from roles on first use; reset by setRoles
+    @Transient
+    private List<GrantedAuthority> authorities;
+    
+    @Transient
+    private AuthorityMask permissionMask;
+    
     // Relationship with Store (optional - for store owners)
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "store_id")
@@ -120,9 +147,33 @@ public class User implements UserDetails {
     // UserDetails implementation
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return roles.stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getName()))
-                .toList();
+        List<GrantedAuthority> result = authorities;
+        if (result == null) {
+            result = roles.stream()
+                    .<GrantedAuthority>map(role -> new SimpleGrantedAuthority("ROLE_" + role.getName()))
+                    .toList();
+            authorities = result;
+        }
+        return result;
+    }
+    
+    /**
+     * Union of the permission bitsets of this user's active roles
+     */
+    public AuthorityMask getPermissionMask() {
+        AuthorityMask result = permissionMask;
+        if (result == null) {
+            result = AuthorityMask.EMPTY;
+            if (roles != null) {
+                for (Role role : roles) {
+                    if (!Boolean.FALSE.equals(role.getIsActive())) {
+                        result = result.or(role.getPermissionMask());
+                    }
+                }
+            }
+            permissionMask = result;
+        }
+        return result;
     }
     
     @Override
@@ -186,11 +237,29 @@ public class User implements UserDetails {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     
+    public Long getAuthzVersion() { return authzVersion; }
+    public void setAuthzVersion(Long authzVersion) { this.authzVersion = authzVersion; }
+    
+    public LocalDateTime getAuthzChangedAt() { return authzChangedAt; }
+    public void setAuthzChangedAt(LocalDateTime authzChangedAt) { this.authzChangedAt = authzChangedAt; }
+    
+    /**
+     * Invalidate every token issued before this change
+     */
+    public void bumpAuthzVersion() {
+        authzVersion = (authzVersion == null ? 0L : authzVersion) + 1;
+        authzChangedAt = LocalDateTime.now();
+    }
+    
     public Plaza getPlaza() { return plaza; }
     public void setPlaza(Plaza plaza) { this.plaza = plaza; }
     
     public Set<Role> getRoles() { return roles; }
-    public void setRoles(Set<Role> roles) { this.roles = roles; }
+    public void setRoles(Set<Role> roles) {
+        this.roles = roles;
+        this.authorities = null;
+        this.permissionMask = null;
+    }
     
     public com.kodehaus.plaza.entity.Store getStore() { return store; }
     public void setStore(com.kodehaus.plaza.entity.Store store) { this.store = store; }
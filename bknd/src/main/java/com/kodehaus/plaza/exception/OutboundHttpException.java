@@ -0,0 +1,27 @@
+package com.kodehaus.plaza.exception;
+
+/**
+ * A call to an external service failed: no answer within the deadlines, a transport error,
+ * an error status (status > 0) or a body that could not be read
+ */
+public class OutboundHttpException extends RuntimeException {
+    private final String destination;
+    private final int status;
+    
+    public OutboundHttpException(String destination, String message, int status, Throwable cause) {
+        super(message, cause);
+        this.destination = destination;
+        this.status = status;
+    }
+    
+    public String getDestination() {
+        return destination;
+    }
+    
+    /**
+     * HTTP status returned by the service, 0 when there was no response
+     */
+    public int getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,17 @@
+package com.kodehaus.plaza.exception;
+
+/**
+ * Thrown when a bounded resource is saturated; the request may be retried after retryAfterSeconds
+ */
+public class TooManyRequestsException extends RuntimeException {
+    private final long retryAfterSeconds;
+    
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
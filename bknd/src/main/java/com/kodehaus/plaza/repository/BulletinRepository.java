@@ -1,12 +1,15 @@
 package com.kodehaus.plaza.repository;
 
+import com.kodehaus.plaza.dto.BulletinResponseDto;
 import com.kodehaus.plaza.entity.Bulletin;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +19,14 @@ import java.util.Optional;
 @Repository
 public interface BulletinRepository extends JpaRepository<Bulletin, Long> {
     
+    /**
+     * Constructor projection used by the read endpoints: rows go straight into DTOs, no managed entities
+     */
+    String RESPONSE_DTO = "SELECT new com.kodehaus.plaza.dto.BulletinResponseDto(b.id, b.title, b.content, " +
+            "b.publicationDate, b.isActive, b.createdAt, b.updatedAt, pl.id, pl.name, " +
+            "u.id, u.username, CONCAT(u.firstName, ' ', u.lastName)) " +
+            "FROM Bulletin b JOIN b.plaza pl JOIN b.createdBy u ";
+    
     /**
      * Find bulletins by plaza
      */
@@ -62,4 +73,41 @@ public interface BulletinRepository extends JpaRepository<Bulletin, Long> {
      * Find bulletin by ID and plaza ID
      */
     Optional<Bulletin> findByIdAndPlazaIdAndIsActiveTrue(Long id, Long plazaId);
+    
+    /**
+     * First page of active bulletins, newest first: publication date, creation time, id (keyset pagination)
+     */
+    @Query(RESPONSE_DTO + "WHERE pl.id = :plazaId AND b.isActive = true " +
+           "ORDER BY b.publicationDate DESC, b.createdAt DESC, b.id DESC")
+    List<BulletinResponseDto> findPageByPlazaId(@Param("plazaId") Long plazaId, Limit limit);
+    
+    /**
+     * Next page of active bulletins after the given (publicationDate, createdAt, id)
+     */
+    @Query(RESPONSE_DTO + "WHERE pl.id = :plazaId AND b.isActive = true " +
+           "AND (b.publicationDate, b.createdAt, b.id) < (:publicationDate, :createdAt, :id) " +
+           "ORDER BY b.publicationDate DESC, b.createdAt DESC, b.id DESC")
+    List<BulletinResponseDto> findPageByPlazaIdAfter(@Param("plazaId") Long plazaId,
+                                                     @Param("publicationDate") LocalDate publicationDate,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") Long id, Limit limit);
+    
+    /**
+     * Today's active bulletins of a plaza, as response DTOs
+     */
+    @Query(RESPONSE_DTO + "WHERE pl.id = :plazaId AND b.publicationDate = CURRENT_DATE AND b.isActive = true")
+    List<BulletinResponseDto> findTodaysDtosByPlazaId(@Param("plazaId") Long plazaId);
+    
+    /**
+     * Bulletins of a plaza published on the given date, as response DTOs
+     */
+    @Query(RESPONSE_DTO + "WHERE pl.id = :plazaId AND b.publicationDate = :publicationDate")
+    List<BulletinResponseDto> findDtosByPlazaIdAndPublicationDate(@Param("plazaId") Long plazaId,
+                                                                  @Param("publicationDate") LocalDate publicationDate);
+    
+    /**
+     * Active bulletin of a plaza, as a response DTO
+     */
+    @Query(RESPONSE_DTO + "WHERE b.id = :id AND pl.id = :plazaId AND b.isActive = true")
+    Optional<BulletinResponseDto> findDtoByIdAndPlazaId(@Param("id") Long id, @Param("plazaId") Long plazaId);
 }
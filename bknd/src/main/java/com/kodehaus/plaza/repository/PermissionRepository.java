@@ -1,8 +1,11 @@
 package com.kodehaus.plaza.repository;
 
 import com.kodehaus.plaza.entity.Permission;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -19,6 +22,7 @@ public interface PermissionRepository extends JpaRepository<Permission, Long> {
     /**
      * Find permission by name
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Permission> findByName(String name);
     
     /**
@@ -29,6 +33,7 @@ public interface PermissionRepository extends JpaRepository<Permission, Long> {
     /**
      * Find all active permissions
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Permission> findByIsActiveTrue();
     
     /**
@@ -1,8 +1,13 @@
 package com.kodehaus.plaza.repository;
 
+import com.kodehaus.plaza.dto.PlazaResponseDto;
 import com.kodehaus.plaza.entity.Plaza;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -16,9 +21,17 @@ import java.util.UUID;
 @Repository
 public interface PlazaRepository extends JpaRepository<Plaza, Long> {
     
+    /**
+     * Constructor projection used by the read endpoints: rows go straight into DTOs, no managed entities
+     */
+    String RESPONSE_DTO = "SELECT new com.kodehaus.plaza.dto.PlazaResponseDto(p.id, p.externalId, p.name, " +
+            "p.description, p.address, p.phoneNumber, p.email, p.openingHours, p.closingHours, p.isActive, " +
+            "p.createdAt, p.updatedAt) FROM Plaza p ";
+    
     /**
      * Find plaza by name
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Plaza> findByName(String name);
     
     /**
@@ -26,6 +39,30 @@ public interface PlazaRepository extends JpaRepository<Plaza, Long> {
      */
     List<Plaza> findByIsActiveTrue();
     
+    /**
+     * Page of active plazas ordered by id (keyset pagination)
+     */
+    @Query(RESPONSE_DTO + "WHERE p.isActive = true ORDER BY p.id")
+    List<PlazaResponseDto> findActivePage(Limit limit);
+    
+    /**
+     * Next page of active plazas after the given id
+     */
+    @Query(RESPONSE_DTO + "WHERE p.isActive = true AND p.id > :id ORDER BY p.id")
+    List<PlazaResponseDto> findActivePageAfter(@Param("id") Long id, Limit limit);
+    
+    /**
+     * Active plaza by id, as a response DTO
+     */
+    @Query(RESPONSE_DTO + "WHERE p.id = :id AND p.isActive = true")
+    Optional<PlazaResponseDto> findActiveDtoById(@Param("id") Long id);
+    
+    /**
+     * Plazas by name containing (case insensitive), as response DTOs
+     */
+    @Query(RESPONSE_DTO + "WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))")
+    List<PlazaResponseDto> findDtosByNameContainingIgnoreCase(@Param("name") String name);
+    
     /**
      * Find plazas by name containing (case insensitive)
      */
@@ -45,12 +82,14 @@ public interface PlazaRepository extends JpaRepository<Plaza, Long> {
     /**
      * Check if plaza exists by ID and is active
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT COUNT(p) > 0 FROM Plaza p WHERE p.id = :id AND p.isActive = true")
     boolean existsByIdAndIsActiveTrue(@Param("id") Long id);
 
     /**
      * Find plaza by external id (provided by external system)
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Plaza> findByExternalId(String externalId);
 
     /**
@@ -1,6 +1,8 @@
 package com.kodehaus.plaza.repository;
 
+import com.kodehaus.plaza.dto.ProductResponseDto;
 import com.kodehaus.plaza.entity.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,7 +15,14 @@ import java.util.Optional;
  * Repository interface for Product entity
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+    
+    /**
+     * Constructor projection used by the read endpoints: rows go straight into DTOs, no managed entities
+     */
+    String RESPONSE_DTO = "SELECT new com.kodehaus.plaza.dto.ProductResponseDto(p.id, p.name, p.description, " +
+            "p.category, p.unit, p.price, p.isActive, p.isAvailable, p.createdAt, p.updatedAt, p.version, pl.id, pl.name) " +
+            "FROM Product p JOIN p.plaza pl ";
     
     /**
      * Find products by plaza
@@ -62,4 +71,36 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     @Query("SELECT p FROM Product p WHERE p.plaza.id = :plazaId AND p.isActive = true ORDER BY p.category, p.name")
     List<Product> findByPlazaIdOrderByCategoryAndName(@Param("plazaId") Long plazaId);
+    
+    /**
+     * First page of active products, ordered by category, name and id (keyset pagination)
+     */
+    @Query(RESPONSE_DTO + "WHERE pl.id = :plazaId AND p.isActive = true ORDER BY p.category, p.name, p.id")
+    List<ProductResponseDto> findPageByPlazaId(@Param("plazaId") Long plazaId, Limit limit);
+    
+    /**
+     * Next page of active products after the given (category, name, id)
+     */
+    @Query(RESPONSE_DTO + "WHERE pl.id = :plazaId AND p.isActive = true " +
+           "AND (p.category, p.name, p.id) > (:category, :name, :id) ORDER BY p.category, p.name, p.id")
+    List<ProductResponseDto> findPageByPlazaIdAfter(@Param("plazaId") Long plazaId, @Param("category") String category,
+                                                    @Param("name") String name, @Param("id") Long id, Limit limit);
+    
+    /**
+     * Active products of a plaza, as response DTOs (loads a ProductCatalog snapshot)
+     */
+    @Query(RESPONSE_DTO + "WHERE pl.id = :plazaId AND p.isActive = true")
+    List<ProductResponseDto> findActiveDtosByPlazaId(@Param("plazaId") Long plazaId);
+    
+    /**
+     * Available products of a plaza, as response DTOs
+     */
+    @Query(RESPONSE_DTO + "WHERE pl.id = :plazaId AND p.isActive = true AND p.isAvailable = true")
+    List<ProductResponseDto> findAvailableDtosByPlazaId(@Param("plazaId") Long plazaId);
+    
+    /**
+     * Active product of a plaza, as a response DTO
+     */
+    @Query(RESPONSE_DTO + "WHERE p.id = :id AND pl.id = :plazaId AND p.isActive = true")
+    Optional<ProductResponseDto> findDtoByIdAndPlazaId(@Param("id") Long id, @Param("plazaId") Long plazaId);
 }
@@ -0,0 +1,25 @@
+package com.kodehaus.plaza.repository;
+
+import com.kodehaus.plaza.dto.ProductBulkUpdateResultDto;
+import com.kodehaus.plaza.dto.ProductPriceUpdateDto;
+import com.kodehaus.plaza.dto.ProductResponseDto;
+
+import java.util.List;
+
+/**
+ * Product queries that need plain SQL (Postgres operators, set-based updates), implemented in ProductRepositoryCustomImpl
+ */
+public interface ProductRepositoryCustom {
+    
+    /**
+     * Apply price/availability changes to active products of the plaza in one transaction,
+     * with one locking read and one UPDATE for the whole batch
+     */
+    ProductBulkUpdateResultDto updatePricesAndAvailability(Long plazaId, List<ProductPriceUpdateDto> updates);
+    
+    /**
+     * Search active products of the plaza by name, ignoring accents and case.
+     * Prefix matches come first, then substring and fuzzy word matches by trigram word similarity.
+     */
+    List<ProductResponseDto> searchByName(Long plazaId, String query, int limit);
+}
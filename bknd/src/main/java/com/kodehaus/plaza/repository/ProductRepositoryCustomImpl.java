@@ -0,0 +1,141 @@
+package com.kodehaus.plaza.repository;
+
+import com.kodehaus.plaza.dto.ProductBulkUpdateResultDto;
+import com.kodehaus.plaza.dto.ProductPriceUpdateDto;
+import com.kodehaus.plaza.dto.ProductResponseDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Product queries in plain SQL.
+ *
+ * Search compares product_search_key(name) (lowercased, accents removed, see V6__product_search) with the
+ * same key of the query, so the trigram index on that expression serves it. The query is bound as a
+ * parameter of product_search_key rather than normalized here, so both sides always fold the same way.
+ *
+ * Bulk price/availability update: the batch travels as parallel arrays expanded with unnest,
+ * so every batch size runs the same two prepared statements:
+ * the rows are locked (in id order, so concurrent batches cannot deadlock) and their versions compared,
+ * then a single UPDATE ... FROM unnest(...) writes only the rows whose values differ and returns them.
+ */
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private static final String COLUMNS =
+            "p.id, p.name, p.description, p.category, p.unit, p.price, p.is_active, p.is_available, " +
+            "p.created_at, p.updated_at, p.version, pl.id, pl.name";
+
+    // parameters: plaza id, LIKE pattern, query, LIKE pattern, query, limit
+    private static final String SEARCH_SQL =
+            "SELECT " + COLUMNS + " FROM products p JOIN plazas pl ON pl.id = p.plaza_id " +
+            "WHERE p.plaza_id = ? AND p.is_active " +
+            "AND (product_search_key(p.name) LIKE '%' || product_search_key(?) || '%' " +
+            "OR product_search_key(?) <% product_search_key(p.name)) " +
+            "ORDER BY product_search_key(p.name) LIKE product_search_key(?) || '%' DESC, " +
+            "word_similarity(product_search_key(?), product_search_key(p.name)) DESC, p.name, p.id " +
+            "LIMIT ?";
+
+    private static final String LOCK_SQL =
+            "SELECT p.id, p.version FROM products p " +
+            "WHERE p.id = ANY(?) AND p.plaza_id = ? AND p.is_active ORDER BY p.id FOR UPDATE";
+
+    private static final String UPDATE_SQL =
+            "UPDATE products p SET " +
+            "price = COALESCE(v.price, p.price), " +
+            "is_available = COALESCE(v.is_available, p.is_available), " +
+            "version = p.version + 1, " +
+            "updated_at = ? " +
+            "FROM unnest(?, ?, ?) AS v(id, price, is_available), plazas pl " +
+            "WHERE p.id = v.id AND p.plaza_id = ? AND p.is_active AND pl.id = p.plaza_id " +
+            "AND (p.price IS DISTINCT FROM COALESCE(v.price, p.price) " +
+            "OR p.is_available IS DISTINCT FROM COALESCE(v.is_available, p.is_available)) " +
+            "RETURNING " + COLUMNS;
+
+    private static final RowMapper<ProductResponseDto> RESPONSE_DTO = (rs, row) -> new ProductResponseDto(
+            rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+            rs.getBigDecimal(6), rs.getObject(7, Boolean.class), rs.getObject(8, Boolean.class),
+            toLocalDateTime(rs.getTimestamp(9)), toLocalDateTime(rs.getTimestamp(10)), rs.getLong(11),
+            rs.getLong(12), rs.getString(13));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public ProductBulkUpdateResultDto updatePricesAndAvailability(Long plazaId, List<ProductPriceUpdateDto> updates) {
+        ProductBulkUpdateResultDto result = new ProductBulkUpdateResultDto();
+        if (updates.isEmpty()) {
+            return result;
+        }
+        Long[] ids = new Long[updates.size()];
+        BigDecimal[] prices = new BigDecimal[updates.size()];
+        Boolean[] availability = new Boolean[updates.size()];
+        for (int i = 0; i < updates.size(); i++) {
+            ids[i] = updates.get(i).getId();
+            prices[i] = updates.get(i).getPrice();
+            availability[i] = updates.get(i).getIsAvailable();
+        }
+
+        Map<Long, Long> versions = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(LOCK_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", ids));
+            ps.setLong(2, plazaId);
+            return ps;
+        }, rs -> {
+            versions.put(rs.getLong(1), rs.getLong(2));
+        });
+
+        for (ProductPriceUpdateDto update : updates) {
+            Long current = versions.get(update.getId());
+            if (current == null) {
+                result.getNotFound().add(update.getId());
+            } else if (update.getVersion() != null && !update.getVersion().equals(current)) {
+                result.getConflicts().add(update.getId());
+            }
+        }
+        if (!result.getConflicts().isEmpty()) {
+            // all or nothing: the caller re-reads the conflicting products and resends the batch
+            return result;
+        }
+
+        result.setUpdated(jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(UPDATE_SQL);
+            ps.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            ps.setArray(2, connection.createArrayOf("bigint", ids));
+            ps.setArray(3, connection.createArrayOf("numeric", prices));
+            ps.setArray(4, connection.createArrayOf("boolean", availability));
+            ps.setLong(5, plazaId);
+            return ps;
+        }, RESPONSE_DTO));
+        return result;
+    }
+
+    @Override
+    public List<ProductResponseDto> searchByName(Long plazaId, String query, int limit) {
+        String pattern = escapeLike(query);
+        return jdbcTemplate.query(SEARCH_SQL, RESPONSE_DTO, plazaId, pattern, query, pattern, query, limit);
+    }
+
+    /**
+     * Make LIKE wildcards in user input literal; folding accents and case leaves these characters alone
+     */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,45 @@
+package com.kodehaus.plaza.repository;
+
+import com.kodehaus.plaza.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for RefreshToken entity
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    
+    /**
+     * Find refresh token by the SHA-256 digest of its value
+     */
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+    
+    /**
+     * Find every token rotated from the same login
+     */
+    List<RefreshToken> findByFamilyId(String familyId);
+    
+    /**
+     * Mark a token used, only if it still is unused; 0 when another request consumed it first
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now WHERE t.id = :id AND t.revokedAt IS NULL")
+    int consume(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    /**
+     * Delete tokens that can no longer be used
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,8 +1,12 @@
 package com.kodehaus.plaza.repository;
 
 import com.kodehaus.plaza.entity.Role;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -19,13 +23,22 @@ public interface RoleRepository extends JpaRepository<Role, Long> {
     /**
      * Find role by name
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Role> findByName(String name);
     
     /**
      * Find all active roles
      */
+    @EntityGraph(Role.WITH_PERMISSIONS)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Role> findByIsActiveTrue();
     
+    /**
+     * Find active role by ID
+     */
+    @EntityGraph(Role.WITH_PERMISSIONS)
+    Optional<Role> findByIdAndIsActiveTrue(Long id);
+    
     /**
      * Check if role name exists
      */
@@ -1,7 +1,12 @@
 package com.kodehaus.plaza.repository;
 
+import com.kodehaus.plaza.dto.StoreResponseDto;
 import com.kodehaus.plaza.entity.Store;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,6 +18,13 @@ import java.util.Optional;
 @Repository
 public interface StoreRepository extends JpaRepository<Store, Long> {
     
+    /**
+     * Constructor projection used by the read endpoints: rows go straight into DTOs, no managed entities
+     */
+    String RESPONSE_DTO = "SELECT new com.kodehaus.plaza.dto.StoreResponseDto(s.id, s.externalId, s.name, " +
+            "s.description, s.ownerName, s.phoneNumber, s.email, s.isActive, pl.id, pl.name, s.createdAt, s.updatedAt) " +
+            "FROM Store s JOIN s.plaza pl ";
+    
     /**
      * Find all stores by plaza ID
      */
@@ -26,6 +38,7 @@ public interface StoreRepository extends JpaRepository<Store, Long> {
     /**
      * Find store by ID and plaza ID
      */
+    @EntityGraph(attributePaths = "plaza")
     Optional<Store> findByIdAndPlazaIdAndIsActiveTrue(Long id, Long plazaId);
     
     /**
@@ -42,5 +55,25 @@ public interface StoreRepository extends JpaRepository<Store, Long> {
      * Check if store exists by name and plaza excluding specific store
      */
     boolean existsByNameAndPlazaIdAndIdNot(String name, Long plazaId, Long id);
+    
+    /**
+     * First page of active stores, ordered by name and id (keyset pagination)
+     */
+    @Query(RESPONSE_DTO + "WHERE pl.id = :plazaId AND s.isActive = true ORDER BY s.name, s.id")
+    List<StoreResponseDto> findPageByPlazaId(@Param("plazaId") Long plazaId, Limit limit);
+    
+    /**
+     * Next page of active stores after the given (name, id)
+     */
+    @Query(RESPONSE_DTO + "WHERE pl.id = :plazaId AND s.isActive = true " +
+           "AND (s.name, s.id) > (:name, :id) ORDER BY s.name, s.id")
+    List<StoreResponseDto> findPageByPlazaIdAfter(@Param("plazaId") Long plazaId, @Param("name") String name,
+                                                  @Param("id") Long id, Limit limit);
+    
+    /**
+     * Active store of a plaza, as a response DTO
+     */
+    @Query(RESPONSE_DTO + "WHERE s.id = :id AND pl.id = :plazaId AND s.isActive = true")
+    Optional<StoreResponseDto> findDtoByIdAndPlazaId(@Param("id") Long id, @Param("plazaId") Long plazaId);
 }
 
@@ -1,11 +1,19 @@
 package com.kodehaus.plaza.repository;
 
+import com.kodehaus.plaza.dto.UserResponseDto;
+import com.kodehaus.plaza.dto.UserRoleRow;
 import com.kodehaus.plaza.entity.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,10 +23,18 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     
+    /**
+     * Constructor projection used by the read endpoints: rows go straight into DTOs, no managed entities.
+     * Roles are not part of it, see findRoleRowsByUserIds.
+     */
+    String RESPONSE_DTO = "SELECT new com.kodehaus.plaza.dto.UserResponseDto(u.id, u.username, u.email, " +
+            "u.firstName, u.lastName, u.phoneNumber, u.isActive, u.createdAt, u.updatedAt, pl.id, pl.name, u.externalId) " +
+            "FROM User u LEFT JOIN u.plaza pl ";
+    
     /**
      * Find user by username
      */
-    @Query("SELECT u FROM User u LEFT JOIN FETCH u.plaza WHERE u.username = :username")
+    @EntityGraph(User.WITH_AUTHORITIES)
     Optional<User> findByUsername(String username);
     
     /**
@@ -29,30 +45,66 @@ public interface UserRepository extends JpaRepository<User, Long> {
     /**
      * Find user by external id (provided by external system)
      */
+    @EntityGraph(attributePaths = {"plaza", "roles"})
     Optional<User> findByExternalId(String externalId);
     
     /**
      * Find all users by plaza
      */
+    @EntityGraph(attributePaths = {"plaza", "roles"})
     List<User> findByPlazaId(Long plazaId);
     
     /**
      * Find all active users by plaza
      */
+    @EntityGraph(attributePaths = {"plaza", "roles"})
     List<User> findByPlazaIdAndIsActiveTrue(Long plazaId);
     
+    /**
+     * Page of active users by plaza ordered by id (keyset pagination)
+     */
+    @Query(RESPONSE_DTO + "WHERE pl.id = :plazaId AND u.isActive = true ORDER BY u.id")
+    List<UserResponseDto> findPageByPlazaId(@Param("plazaId") Long plazaId, Limit limit);
+    
+    /**
+     * Next page of active users by plaza after the given id
+     */
+    @Query(RESPONSE_DTO + "WHERE pl.id = :plazaId AND u.isActive = true AND u.id > :id ORDER BY u.id")
+    List<UserResponseDto> findPageByPlazaIdAfter(@Param("plazaId") Long plazaId, @Param("id") Long id, Limit limit);
+    
+    /**
+     * Active user of a plaza, as a response DTO (without roles)
+     */
+    @Query(RESPONSE_DTO + "WHERE u.id = :id AND pl.id = :plazaId AND u.isActive = true")
+    Optional<UserResponseDto> findDtoByIdAndPlazaId(@Param("id") Long id, @Param("plazaId") Long plazaId);
+    
+    /**
+     * Roles of the given users, one row per (user, role), for filling in UserResponseDto.roles
+     */
+    @Query("SELECT new com.kodehaus.plaza.dto.UserRoleRow(u.id, r.id, r.name, r.description, r.isActive, " +
+           "r.createdAt, r.updatedAt) FROM User u JOIN u.roles r WHERE u.id IN :userIds")
+    List<UserRoleRow> findRoleRowsByUserIds(@Param("userIds") Collection<Long> userIds);
+    
     /**
      * Find users by role name
      */
     @Query("SELECT u FROM User u JOIN u.roles r WHERE r.name = :roleName")
+    @EntityGraph(attributePaths = {"plaza", "roles"})
     List<User> findByRoleName(@Param("roleName") String roleName);
     
     /**
      * Find users by plaza and role
      */
     @Query("SELECT u FROM User u JOIN u.roles r WHERE u.plaza.id = :plazaId AND r.name = :roleName")
+    @EntityGraph(attributePaths = {"plaza", "roles"})
     List<User> findByPlazaIdAndRoleName(@Param("plazaId") Long plazaId, @Param("roleName") String roleName);
     
+    /**
+     * Check if a plaza has a user with the role
+     */
+    @Query("SELECT COUNT(u) > 0 FROM User u JOIN u.roles r WHERE u.plaza.id = :plazaId AND r.name = :roleName")
+    boolean existsByPlazaIdAndRoleName(@Param("plazaId") Long plazaId, @Param("roleName") String roleName);
+    
     /**
      * Check if username exists
      */
@@ -76,6 +128,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     /**
      * Find user by ID and plaza ID
      */
+    @EntityGraph(attributePaths = {"plaza", "roles"})
     Optional<User> findByIdAndPlazaIdAndIsActiveTrue(Long id, Long plazaId);
     
     /**
@@ -100,6 +153,31 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.store.id = :storeId AND u.isActive = true")
     Optional<User> findStoreOwnerByStoreId(@Param("storeId") Long storeId);
 
-    @Query("SELECT u FROM User u LEFT JOIN FETCH u.plaza WHERE u.id = :id")
-    Optional<User> findByIdWithPlaza(@Param("id") Long id);
+    /**
+     * Find user by ID with plaza, roles and permissions loaded (for the principal cache)
+     */
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    @EntityGraph(User.WITH_AUTHORITIES)
+    Optional<User> findByIdWithAuthorities(@Param("id") Long id);
+    
+    /**
+     * Bump the authz version of every user holding the role
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.authzVersion = COALESCE(u.authzVersion, 0) + 1, u.authzChangedAt = :changedAt " +
+           "WHERE u.id IN (SELECT ur.id FROM User ur JOIN ur.roles r WHERE r.id = :roleId)")
+    int bumpAuthzVersionByRoleId(@Param("roleId") Long roleId, @Param("changedAt") LocalDateTime changedAt);
+    
+    /**
+     * [id, authzVersion] of users whose version was ever bumped
+     */
+    @Query("SELECT u.id, u.authzVersion FROM User u WHERE u.authzVersion > 0")
+    List<Object[]> findAuthzVersions();
+    
+    /**
+     * [id, authzVersion] of users whose version changed since the given time
+     */
+    @Query("SELECT u.id, u.authzVersion FROM User u WHERE u.authzChangedAt >= :since")
+    List<Object[]> findAuthzVersionsChangedSince(@Param("since") LocalDateTime since);
 }
@@ -0,0 +1,98 @@
+package com.kodehaus.plaza.security;
+
+import com.kodehaus.plaza.service.AuthorityRegistry;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Answers @RequiresAuthority with bitset tests against the principal's precomputed masks.
+ * The required masks are resolved once per method; JwtUserPrincipal already carries its masks,
+ * other principals (e.g. a User loaded for a Google token) are converted by AuthorityRegistry.
+ */
+@Component
+public class AuthorityAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private record Requirement(AuthorityMask roles, AuthorityMask permissions, long generation) {}
+
+    // resolved lazily: this manager is built with the method security infrastructure, before the repositories
+    private final ObjectProvider<AuthorityRegistry> registryProvider;
+    private final Map<Method, Requirement> requirements = new ConcurrentHashMap<>();
+
+    public AuthorityAuthorizationManager(ObjectProvider<AuthorityRegistry> registryProvider) {
+        this.registryProvider = registryProvider;
+    }
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        Authentication auth = authentication.get();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            return DENIED;
+        }
+        AuthorityRegistry registry = registryProvider.getObject();
+        Requirement requirement = requirementFor(invocation, registry);
+        if (requirement.permissions() == null) {
+            // names a permission that does not exist, nobody can hold it
+            return DENIED;
+        }
+
+        AuthorityMask roleMask = registry.roleMaskOf(auth);
+        AuthorityMask permissionMask = registry.permissionMaskOf(auth);
+
+        boolean rolesOk = requirement.roles().isEmpty() || roleMask.intersects(requirement.roles());
+        boolean permissionsOk = permissionMask.containsAll(requirement.permissions());
+        return rolesOk && permissionsOk ? GRANTED : DENIED;
+    }
+
+    /**
+     * @deprecated still abstract in AuthorizationManager; callers use authorize
+     */
+    @Deprecated
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return (AuthorizationDecision) authorize(authentication, invocation);
+    }
+
+    private Requirement requirementFor(MethodInvocation invocation, AuthorityRegistry registry) {
+        Method method = invocation.getMethod();
+        Requirement requirement = requirements.get(method);
+        // permission bits can only appear after a refresh, so unresolved requirements are retried then
+        if (requirement == null || (requirement.permissions() == null && requirement.generation() != registry.generation())) {
+            requirement = resolve(method, invocation.getThis(), registry);
+            requirements.put(method, requirement);
+        }
+        return requirement;
+    }
+
+    private Requirement resolve(Method method, Object target, AuthorityRegistry registry) {
+        Class<?> targetClass = target != null ? AopUtils.getTargetClass(target) : method.getDeclaringClass();
+        Method specific = AopUtils.getMostSpecificMethod(method, targetClass);
+        RequiresAuthority annotation = AnnotatedElementUtils.findMergedAnnotation(specific, RequiresAuthority.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, RequiresAuthority.class);
+        }
+        if (annotation == null) {
+            return new Requirement(AuthorityMask.EMPTY, AuthorityMask.EMPTY, registry.generation());
+        }
+        return new Requirement(
+                registry.roleMask(Arrays.asList(annotation.roles())),
+                registry.permissionsNamed(Arrays.asList(annotation.permissions())),
+                registry.generation());
+    }
+}
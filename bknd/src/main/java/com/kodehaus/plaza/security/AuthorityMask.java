@@ -0,0 +1,145 @@
+package com.kodehaus.plaza.security;
+
+import java.util.Arrays;
+
+/**
+ * Immutable bitset of permission (or role) bit positions.
+ * Authorization checks become a few word-wise AND operations instead of string comparisons.
+ */
+public final class AuthorityMask {
+
+    public static final AuthorityMask EMPTY = new AuthorityMask(new long[0], false);
+
+    /** Holds every bit, including ones assigned after it was created */
+    public static final AuthorityMask ALL = new AuthorityMask(new long[0], true);
+
+    private final long[] words;
+    private final boolean all;
+
+    private AuthorityMask(long[] words, boolean all) {
+        this.words = words;
+        this.all = all;
+    }
+
+    public static AuthorityMask of(int... bits) {
+        long[] words = new long[0];
+        for (int bit : bits) {
+            if (bit < 0) {
+                throw new IllegalArgumentException("Bit index must not be negative: " + bit);
+            }
+            int word = bit >>> 6;
+            if (word >= words.length) {
+                words = Arrays.copyOf(words, word + 1);
+            }
+            words[word] |= 1L << bit;
+        }
+        return new AuthorityMask(words, false);
+    }
+
+    public AuthorityMask or(AuthorityMask other) {
+        if (all || other.all) {
+            return ALL;
+        }
+        long[] longer = words.length >= other.words.length ? words : other.words;
+        long[] shorter = longer == words ? other.words : words;
+        long[] merged = Arrays.copyOf(longer, longer.length);
+        for (int i = 0; i < shorter.length; i++) {
+            merged[i] |= shorter[i];
+        }
+        return new AuthorityMask(merged, false);
+    }
+
+    /**
+     * True when every bit of required is set here
+     */
+    public boolean containsAll(AuthorityMask required) {
+        if (all) {
+            return true;
+        }
+        if (required.all) {
+            return false;
+        }
+        for (int i = 0; i < required.words.length; i++) {
+            long have = i < words.length ? words[i] : 0L;
+            if ((required.words[i] & ~have) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * True when at least one bit of other is set here
+     */
+    public boolean intersects(AuthorityMask other) {
+        if (all) {
+            return !other.isEmpty();
+        }
+        if (other.all) {
+            return !isEmpty();
+        }
+        int length = Math.min(words.length, other.words.length);
+        for (int i = 0; i < length; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isEmpty() {
+        if (all) {
+            return false;
+        }
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isAll() {
+        return all;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AuthorityMask other)) return false;
+        if (all || other.all) return all == other.all;
+        int length = Math.max(words.length, other.words.length);
+        for (int i = 0; i < length; i++) {
+            long a = i < words.length ? words[i] : 0L;
+            long b = i < other.words.length ? other.words[i] : 0L;
+            if (a != b) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        if (all) return -1;
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0) {
+            length--;
+        }
+        return Arrays.hashCode(Arrays.copyOf(words, length));
+    }
+
+    @Override
+    public String toString() {
+        if (all) return "AuthorityMask{ALL}";
+        StringBuilder bits = new StringBuilder();
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                int bit = Long.numberOfTrailingZeros(word);
+                if (bits.length() > 0) bits.append(',');
+                bits.append(i * 64 + bit);
+                word &= word - 1;
+            }
+        }
+        return "AuthorityMask{" + bits + '}';
+    }
+}
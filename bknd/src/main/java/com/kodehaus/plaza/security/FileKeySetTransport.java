@@ -0,0 +1,106 @@
+package com.kodehaus.plaza.security;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.Json;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Transport that answers every GET with the contents of a local key set file, with a max-age so the
+ * GooglePublicKeysManager re-reads it like the real certs endpoint. Used when google.oauth.certs-url is a file: URL.
+ */
+final class FileKeySetTransport extends HttpTransport {
+
+    private static final String CACHE_CONTROL = "public, max-age=3600";
+
+    private final Path keySet;
+
+    FileKeySetTransport(Path keySet) {
+        this.keySet = keySet;
+    }
+
+    @Override
+    public boolean supportsMethod(String method) {
+        return "GET".equals(method);
+    }
+
+    @Override
+    protected LowLevelHttpRequest buildRequest(String method, String url) {
+        return new LowLevelHttpRequest() {
+            @Override
+            public void addHeader(String name, String value) {
+                // nothing to send
+            }
+
+            @Override
+            public LowLevelHttpResponse execute() throws IOException {
+                return new KeySetResponse(Files.readAllBytes(keySet));
+            }
+        };
+    }
+
+    private static final class KeySetResponse extends LowLevelHttpResponse {
+
+        private final byte[] content;
+
+        KeySetResponse(byte[] content) {
+            this.content = content;
+        }
+
+        @Override
+        public InputStream getContent() {
+            return new ByteArrayInputStream(content);
+        }
+
+        @Override
+        public String getContentEncoding() {
+            return null;
+        }
+
+        @Override
+        public long getContentLength() {
+            return content.length;
+        }
+
+        @Override
+        public String getContentType() {
+            return Json.MEDIA_TYPE;
+        }
+
+        @Override
+        public String getStatusLine() {
+            return "HTTP/1.1 200 OK";
+        }
+
+        @Override
+        public int getStatusCode() {
+            return 200;
+        }
+
+        @Override
+        public String getReasonPhrase() {
+            return "OK";
+        }
+
+        @Override
+        public int getHeaderCount() {
+            return 1;
+        }
+
+        @Override
+        public String getHeaderName(int index) {
+            return "Cache-Control";
+        }
+
+        @Override
+        public String getHeaderValue(int index) {
+            return CACHE_CONTROL;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.kodehaus.plaza.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared Google ID token verifier.
+ * One transport and one public key set for the whole application; the key set is refreshed in the
+ * background before its Cache-Control max-age runs out, so request threads never wait on Google.
+ * google.oauth.certs-url may point to a file: URL holding the same JSON, for local runs and tests.
+ */
+@Component
+public class GoogleTokenVerifier {
+
+    private static final Logger log = LoggerFactory.getLogger(GoogleTokenVerifier.class);
+
+    // GooglePublicKeysManager refreshes inline when fewer than 5 minutes remain; refresh ahead of that
+    private static final long REFRESH_AHEAD_MS = TimeUnit.MINUTES.toMillis(10);
+    private static final long MIN_REFRESH_DELAY_MS = TimeUnit.MINUTES.toMillis(1);
+
+    @Value("${google.oauth.certs-url:https://www.googleapis.com/oauth2/v1/certs}")
+    private String certsUrl;
+
+    @Value("${google.oauth.negative-cache.max-size:10000}")
+    private long negativeCacheMaxSize;
+
+    @Value("${google.oauth.negative-cache.ttl:PT5M}")
+    private Duration negativeCacheTtl;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final JsonFactory jsonFactory = GsonFactory.getDefaultInstance();
+    private GooglePublicKeysManager publicKeys;
+    private GoogleIdTokenVerifier verifier;
+    private Cache<String, Boolean> rejectedTokens;
+    private ScheduledExecutorService refresher;
+
+    @PostConstruct
+    void init() {
+        HttpTransport transport = certsUrl.startsWith("file:")
+                ? new FileKeySetTransport(Path.of(URI.create(certsUrl)))
+                : new NetHttpTransport();
+        this.publicKeys = new GooglePublicKeysManager.Builder(transport, jsonFactory)
+                .setPublicCertsEncodedUrl(certsUrl)
+                .build();
+        this.verifier = new GoogleIdTokenVerifier.Builder(publicKeys).build();
+        this.rejectedTokens = Caffeine.newBuilder()
+                .maximumSize(negativeCacheMaxSize)
+                .expireAfterWrite(negativeCacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, rejectedTokens, "google.rejected-tokens");
+
+        this.refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "google-keys-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.execute(this::refreshKeys);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Verify a Google ID token and return its email, or null when the token is not a valid Google token.
+     * Only definitive rejections (not a JWT, not RS256, bad signature or claims) are remembered; a token that
+     * could not be checked because the key set failed to load is tried again on its next use.
+     */
+    public String verifyEmail(String token) {
+        String key = TokenDigests.sha256(token);
+        if (rejectedTokens.getIfPresent(key) != null) {
+            return null;
+        }
+        GoogleIdToken idToken;
+        try {
+            idToken = GoogleIdToken.parse(jsonFactory, token);
+        } catch (Exception e) {
+            log.debug("Not a Google ID token: {}", e.getMessage());
+            rejectedTokens.put(key, Boolean.TRUE);
+            return null;
+        }
+        try {
+            // Our own HS256 tokens (e.g. expired ones) never need Google's keys
+            if ("RS256".equals(idToken.getHeader().getAlgorithm()) && verifier.verify(idToken)) {
+                return idToken.getPayload().getEmail();
+            }
+        } catch (IOException | GeneralSecurityException e) {
+            log.warn("Could not verify Google token, public keys unavailable: {}", e.getMessage());
+            return null;
+        }
+        rejectedTokens.put(key, Boolean.TRUE);
+        return null;
+    }
+
+    private void refreshKeys() {
+        long delay = MIN_REFRESH_DELAY_MS;
+        try {
+            publicKeys.refresh();
+            long expiresIn = publicKeys.getExpirationTimeMilliseconds() - System.currentTimeMillis();
+            delay = Math.max(expiresIn - REFRESH_AHEAD_MS, MIN_REFRESH_DELAY_MS);
+            log.debug("Google public keys refreshed, next refresh in {} ms", delay);
+        } catch (Exception e) {
+            log.warn("Could not refresh Google public keys from {}: {}", certsUrl, e.getMessage());
+        }
+        if (!refresher.isShutdown()) {
+            refresher.schedule(this::refreshKeys, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+}
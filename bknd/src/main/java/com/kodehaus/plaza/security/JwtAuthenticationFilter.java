@@ -1,6 +1,8 @@
 package com.kodehaus.plaza.security;
 
+import com.kodehaus.plaza.service.AuthzVersionRegistry;
 import com.kodehaus.plaza.service.CustomUserDetailsService;
+import com.kodehaus.plaza.service.RevokedTokenRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,18 +10,16 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
 
 /**
  * JWT Authentication Filter
@@ -35,26 +35,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
     
-    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
     
-    // ✅ Rutas que NO necesitan autenticación JWT (con wildcards)
-    private static final List<String> PUBLIC_PATHS = Arrays.asList(
-        "/actuator/**",
-        "/api/auth/**",
-        "/api/plazas/externo",
-        "/api/managers/register",
-        "/h2-console/**",
-        "/error",
-        "/swagger-ui/**",
-        "/v3/api-docs/**",
-
-        // 🔥 Rutas Swagger (completas)
-        "/swagger/**",
-        "/swagger-ui.html",
-        "/v3/api-docs/**",
-        "/swagger-resources/**",
-        "/webjars/**"
-    );
+    @Autowired
+    private AuthzVersionRegistry authzVersionRegistry;
+    
+    @Autowired
+    private RevokedTokenRegistry revokedTokenRegistry;
+    
+    @Value("${jwt.claims-principal.enabled:true}")
+    private boolean claimsPrincipalEnabled;
+    
+    @Autowired
+    private RouteClassifier routeClassifier;
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
@@ -63,7 +57,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         try {
             // ✅ Si es una ruta pública, NO validar JWT
-            if (isPublicPath(path)) {
+            if (!routeClassifier.classify(request).readsJwt()) {
                 log.debug("🔓 Skipping JWT filter for public path: {}", path);
                 filterChain.doFilter(request, response);
                 return;
@@ -72,14 +66,33 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = getJwtFromRequest(request);
             
             if (StringUtils.hasText(jwt)) {
-                if (tokenProvider.validateToken(jwt)) {
-                    String username = tokenProvider.getUsernameFromToken(jwt);
-                    Long plazaId = tokenProvider.getPlazaIdFromToken(jwt);
-                    if (plazaId != null) {
-                        request.setAttribute("plazaId", plazaId); // Middleware hook: plaza del usuario desde el JWT
+                // Tokens seen recently skip signature verification and claim parsing
+                VerifiedTokenCache.Entry verified = verifiedTokenCache.get(jwt);
+                if (verified == null) {
+                    JwtClaims claims = tokenProvider.parseOrNull(jwt);
+                    if (claims != null) {
+                        verified = verifiedTokenCache.put(jwt, claims);
+                    }
+                }
+                if (verified != null && revokedTokenRegistry.isRevoked(verified.claims().tokenId())) {
+                    // logged out, or its refresh token family was revoked
+                    log.debug("⚠️ Rejecting revoked JWT of user {}", verified.claims().username());
+                } else if (verified != null
+                        && authzVersionRegistry.isStale(verified.claims().userId(), verified.claims().authzVersion())) {
+                    // roles or account changed after this token was issued
+                    log.debug("⚠️ Rejecting JWT issued before the last authz change of user {}", verified.claims().username());
+                } else if (verified != null) {
+                    String username = verified.claims().username();
+                    JwtUserPrincipal principal = verified.principal();
+                    if (principal.getPlazaId() != null) {
+                        request.setAttribute("plazaId", principal.getPlazaId()); // Middleware hook: plaza del usuario desde el JWT
                     }
                     
-                    UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
+                    // Claims-only mode: trust the verified token instead of reloading the user on every request.
+                    // Tokens without user/plaza claims still fall back to the database.
+                    UserDetails userDetails = claimsPrincipalEnabled && principal.hasPlazaClaims()
+                        ? principal
+                        : customUserDetailsService.loadUserByUsername(username);
                     UsernamePasswordAuthenticationToken authentication = 
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -115,12 +128,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
     
-    // ✅ Verificar si la ruta es pública (usando AntPathMatcher para wildcards)
-    private boolean isPublicPath(String path) {
-        return PUBLIC_PATHS.stream()
-            .anyMatch(pattern -> pathMatcher.match(pattern, path));
-    }
-    
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
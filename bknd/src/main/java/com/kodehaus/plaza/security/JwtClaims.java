@@ -0,0 +1,48 @@
+package com.kodehaus.plaza.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Typed view of the claims written by JwtTokenProvider.generateToken.
+ * Produced by a single signature verification so callers never re-parse the token per claim.
+ */
+public record JwtClaims(String tokenId, String username, Long userId, Long plazaId, String plazaName, UUID plazaUuid,
+                        List<String> roles, long authzVersion, Date expiration) {
+
+    static JwtClaims from(Claims claims) {
+        List<String> roles = Collections.emptyList();
+        Object rawRoles = claims.get("roles");
+        if (rawRoles instanceof Collection<?> collection) {
+            roles = collection.stream().map(String::valueOf).toList();
+        }
+        Long authzVersion = toLong(claims.get("authzVersion"));
+        return new JwtClaims(
+                claims.getId(),
+                claims.getSubject(),
+                toLong(claims.get("userId")),
+                toLong(claims.get("plazaId")),
+                claims.get("plazaName", String.class),
+                toUuid(claims.get("plazaUuid", String.class)),
+                roles,
+                // tokens issued before authz versions existed count as version 0
+                authzVersion != null ? authzVersion : 0L,
+                claims.getExpiration());
+    }
+
+    private static Long toLong(Object val) {
+        if (val instanceof Number) return ((Number) val).longValue();
+        if (val instanceof String) try { return Long.parseLong((String) val); } catch (Exception e) { return null; }
+        return null;
+    }
+
+    private static UUID toUuid(String s) {
+        if (s == null) return null;
+        try { return UUID.fromString(s); } catch (Exception e) { return null; }
+    }
+}
@@ -2,18 +2,18 @@ package com.kodehaus.plaza.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
-import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
-import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.gson.GsonFactory;
 import java.util.Collections;
 // Lombok annotations removed for compatibility
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import com.kodehaus.plaza.entity.User;
+import com.kodehaus.plaza.service.AuthzVersionRegistry;
 import java.util.List;
-import java.util.stream.Collectors;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
@@ -23,42 +23,72 @@ import java.util.Date;
 @Component
 public class JwtTokenProvider {
     
+    private static final Logger log = LoggerFactory.getLogger(JwtTokenProvider.class);
+    
     @Value("${jwt.secret}")
     private String jwtSecret;
     
     @Value("${jwt.expiration}")
     private int jwtExpirationInMs;
     
+    @Autowired
+    private GoogleTokenVerifier googleTokenVerifier;
+    
+    @Autowired
+    private AuthzVersionRegistry authzVersionRegistry;
+    
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+    
+    /**
+     * Build the signing key and the (immutable, thread-safe) parser once
+     */
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+    
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        return signingKey;
     }
     
     /**
      * Generate JWT token from authentication
      */
     public String generateToken(Authentication authentication) {
+        return generateToken(authentication, newTokenId());
+    }
+    
+    /**
+     * Generate JWT token with the given id (jti), e.g. to link it to a refresh token
+     */
+    public String generateToken(Authentication authentication, String tokenId) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-        // try to cast to our User entity to include plaza information
+        // our User entity or its cached snapshot carry the plaza information
         Long plazaId = null;
         String plazaName = null;
         java.util.UUID plazaUuid = null;
         List<String> roles = Collections.emptyList();
         Long userId = null;
-        if (userPrincipal instanceof User) {
-            User u = (User) userPrincipal;
+        long authzVersion = 0L;
+        UserSnapshot u = userPrincipal instanceof User entity ? UserSnapshot.of(entity)
+                : userPrincipal instanceof UserSnapshot snapshot ? snapshot : null;
+        if (u != null) {
             userId = u.getId();
-            if (u.getPlaza() != null) {
-                plazaId = u.getPlaza().getId();
-                plazaName = u.getPlaza().getName();
-                plazaUuid = u.getPlaza().getUuid();
-            }
-            if (u.getRoles() != null && !u.getRoles().isEmpty()) {
-                roles = u.getRoles().stream().map(r -> r.getName()).collect(Collectors.toList());
-            }
+            // the loaded user may be older than the version this node already knows about
+            authzVersion = Math.max(u.getAuthzVersion(), authzVersionRegistry.currentVersion(userId));
+            plazaId = u.getPlazaId();
+            plazaName = u.getPlazaName();
+            plazaUuid = u.getPlazaUuid();
+            roles = u.getRoles();
         }
         Date expiryDate = new Date(System.currentTimeMillis() + jwtExpirationInMs);
         
         JwtBuilder builder = Jwts.builder()
+                .id(tokenId)
                 .subject(userPrincipal.getUsername())
                 .issuedAt(new Date())
                 .expiration(expiryDate)
@@ -66,6 +96,7 @@ public class JwtTokenProvider {
 
         builder.claim("roles", roles);
         if (userId != null) builder.claim("userId", userId);
+        if (userId != null) builder.claim("authzVersion", authzVersion);
         if (plazaId != null) builder.claim("plazaId", plazaId);
         if (plazaName != null) builder.claim("plazaName", plazaName);
         if (plazaUuid != null) builder.claim("plazaUuid", plazaUuid.toString());
@@ -80,6 +111,7 @@ public class JwtTokenProvider {
         Date expiryDate = new Date(System.currentTimeMillis() + jwtExpirationInMs);
         
         return Jwts.builder()
+                .id(newTokenId())
                 .subject(username)
                 .issuedAt(new Date())
                 .expiration(expiryDate)
@@ -87,87 +119,69 @@ public class JwtTokenProvider {
                 .compact();
     }
     
+    /**
+     * Random token id for the jti claim; revocation works on this id
+     */
+    public String newTokenId() {
+        return java.util.UUID.randomUUID().toString();
+    }
+    
+    /**
+     * Verify the token once and return its typed claims.
+     * Throws JwtException (including ExpiredJwtException) or IllegalArgumentException for invalid tokens.
+     */
+    public JwtClaims parse(String token) {
+        return JwtClaims.from(jwtParser.parseSignedClaims(token).getPayload());
+    }
+    
+    /**
+     * Same as parse, but returns null when the token is not valid
+     */
+    public JwtClaims parseOrNull(String authToken) {
+        try {
+            return parse(authToken);
+        } catch (ExpiredJwtException ex) {
+            log.debug("Expired JWT token");
+        } catch (JwtException ex) {
+            // signature, key, malformed and unsupported token errors
+            log.debug("Invalid JWT token: {}", ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            log.debug("JWT claims string is empty");
+        }
+        return null;
+    }
+    
     /**
      * Get username from JWT token
      */
     public String getUsernameFromToken(String token) {
-    Claims claims = Jwts.parser()
-        .verifyWith(getSigningKey())
-        .build()
-        .parseSignedClaims(token)
-        .getPayload();
-        
-    return claims.getSubject();
+        return parse(token).username();
     }
 
     public Long getPlazaIdFromToken(String token) {
-    Claims claims = Jwts.parser()
-        .verifyWith(getSigningKey())
-        .build()
-        .parseSignedClaims(token)
-        .getPayload();
-
-    Object val = claims.get("plazaId");
-    if (val instanceof Number) return ((Number) val).longValue();
-    if (val instanceof String) try { return Long.parseLong((String) val); } catch (Exception e) { return null; }
-    return null;
+        return parse(token).plazaId();
     }
 
     public String getPlazaNameFromToken(String token) {
-    Claims claims = Jwts.parser()
-        .verifyWith(getSigningKey())
-        .build()
-        .parseSignedClaims(token)
-        .getPayload();
-    return claims.get("plazaName", String.class);
+        return parse(token).plazaName();
     }
 
     public java.util.UUID getPlazaUuidFromToken(String token) {
-    Claims claims = Jwts.parser()
-        .verifyWith(getSigningKey())
-        .build()
-        .parseSignedClaims(token)
-        .getPayload();
-    String s = claims.get("plazaUuid", String.class);
-    if (s == null) return null;
-    try { return java.util.UUID.fromString(s); } catch (Exception e) { return null; }
+        return parse(token).plazaUuid();
     }
     
     /**
      * Validate JWT token
      */
     public boolean validateToken(String authToken) {
-        try {
-            Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(authToken);
-            return true;
-        } catch (SecurityException ex) {
-            System.out.println("Invalid JWT signature");
-        } catch (MalformedJwtException ex) {
-            System.out.println("Invalid JWT token");
-        } catch (ExpiredJwtException ex) {
-            System.out.println("Expired JWT token");
-        } catch (UnsupportedJwtException ex) {
-            System.out.println("Unsupported JWT token");
-        } catch (IllegalArgumentException ex) {
-            System.out.println("JWT claims string is empty");
-        }
-        return false;
+        return parseOrNull(authToken) != null;
     }
-    
+
     /**
      * Get expiration date from token
      */
     public Date getExpirationDateFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        
-        return claims.getExpiration();
+        return parse(token).expiration();
     }
     
     /**
@@ -182,16 +196,6 @@ public class JwtTokenProvider {
      * Verify Google ID Token and return email
      */
     public String getEmailFromGoogleToken(String token) {
-        try {
-            GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier.Builder(new NetHttpTransport(), new GsonFactory())
-                .build();
-            GoogleIdToken idToken = verifier.verify(token);
-            if (idToken != null) {
-                return idToken.getPayload().getEmail();
-            }
-        } catch (Exception e) {
-            // Token invalid or verification failed
-        }
-        return null;
+        return googleTokenVerifier.verifyEmail(token);
     }
 }
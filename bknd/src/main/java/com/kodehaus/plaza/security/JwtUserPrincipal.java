@@ -0,0 +1,87 @@
+package com.kodehaus.plaza.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable principal built straight from the claims written by JwtTokenProvider.generateToken.
+ * Used instead of the User entity so authenticated requests do not reload the user from the database.
+ */
+public final class JwtUserPrincipal implements UserDetails {
+
+    private final Long userId;
+    private final String username;
+    private final Long plazaId;
+    private final String plazaName;
+    private final UUID plazaUuid;
+    private final List<String> roles;
+    private final List<GrantedAuthority> authorities;
+    private final AuthorityMask roleMask;
+    private final AuthorityMask permissionMask;
+
+    public JwtUserPrincipal(Long userId, String username, Long plazaId, String plazaName, UUID plazaUuid,
+                            List<String> roles, AuthorityMask roleMask, AuthorityMask permissionMask) {
+        this.userId = userId;
+        this.username = username;
+        this.plazaId = plazaId;
+        this.plazaName = plazaName;
+        this.plazaUuid = plazaUuid;
+        this.roles = roles == null ? Collections.emptyList() : List.copyOf(roles);
+        this.authorities = this.roles.stream()
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                .toList();
+        this.roleMask = roleMask;
+        this.permissionMask = permissionMask;
+    }
+
+    /**
+     * Build a principal from already verified token claims, with its role and permission bitsets
+     */
+    public static JwtUserPrincipal from(JwtClaims claims, AuthorityMask roleMask, AuthorityMask permissionMask) {
+        return new JwtUserPrincipal(claims.userId(), claims.username(), claims.plazaId(), claims.plazaName(),
+                claims.plazaUuid(), claims.roles(), roleMask, permissionMask);
+    }
+
+    /**
+     * Tokens issued by generateTokenFromUsername carry no user/plaza claims
+     */
+    public boolean hasPlazaClaims() {
+        return userId != null && plazaId != null;
+    }
+
+    // UserDetails implementation
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() { return authorities; }
+
+    @Override
+    public String getPassword() { return null; }
+
+    @Override
+    public String getUsername() { return username; }
+
+    // Getters
+    public Long getUserId() { return userId; }
+
+    public Long getPlazaId() { return plazaId; }
+
+    public String getPlazaName() { return plazaName; }
+
+    public UUID getPlazaUuid() { return plazaUuid; }
+
+    public List<String> getRoles() { return roles; }
+
+    public AuthorityMask getRoleMask() { return roleMask; }
+
+    public AuthorityMask getPermissionMask() { return permissionMask; }
+
+    @Override
+    public String toString() {
+        return "JwtUserPrincipal{userId=" + userId + ", username='" + username + "', plazaId=" + plazaId + '}';
+    }
+}
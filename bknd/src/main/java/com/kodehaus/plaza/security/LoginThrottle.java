@@ -0,0 +1,155 @@
+package com.kodehaus.plaza.security;
+
+import com.kodehaus.plaza.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory login attempt limiter, checked before any user lookup or password hashing.
+ *
+ * Attempts are counted per username and per client IP with an approximate sliding window:
+ * the previous fixed window's count weighted by how much of it still overlaps, plus the current one.
+ * Keys are spread over lock stripes, each a small LRU map, so memory is bounded by
+ * login-throttle.max-keys and the least recently seen keys are evicted first. Usernames and addresses
+ * live in separate stripes and are used as keys as given (usernames normalized only when needed),
+ * so a check builds no key strings.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final int STRIPES = 64;
+
+    private static final class Window {
+        long index;
+        int previous;
+        int current;
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, Window> {
+        private final int maxEntries;
+
+        Stripe(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Window> eldest) {
+            return size() > maxEntries;
+        }
+    }
+
+    private final long windowMs;
+    private final int maxPerUsername;
+    private final int maxPerIp;
+    private final LongSupplier clock;
+    private final Stripe[] usernameStripes = new Stripe[STRIPES];
+    private final Stripe[] ipStripes = new Stripe[STRIPES];
+    private final Counter blockedByUsername;
+    private final Counter blockedByIp;
+
+    @Autowired
+    public LoginThrottle(@Value("${login-throttle.window:PT1M}") Duration window,
+                         @Value("${login-throttle.max-per-username:10}") int maxPerUsername,
+                         @Value("${login-throttle.max-per-ip:50}") int maxPerIp,
+                         @Value("${login-throttle.max-keys:100000}") int maxKeys,
+                         MeterRegistry meterRegistry) {
+        this(window, maxPerUsername, maxPerIp, maxKeys, meterRegistry, System::currentTimeMillis);
+    }
+
+    LoginThrottle(Duration window, int maxPerUsername, int maxPerIp, int maxKeys,
+                  MeterRegistry meterRegistry, LongSupplier clock) {
+        this.windowMs = window.toMillis();
+        this.maxPerUsername = maxPerUsername;
+        this.maxPerIp = maxPerIp;
+        this.clock = clock;
+        int perStripe = Math.max(1, maxKeys / (2 * STRIPES));
+        for (int i = 0; i < STRIPES; i++) {
+            usernameStripes[i] = new Stripe(perStripe);
+            ipStripes[i] = new Stripe(perStripe);
+        }
+        this.blockedByUsername = Counter.builder("auth.login.throttled").tag("key", "username")
+                .description("Login attempts rejected by the throttle")
+                .register(meterRegistry);
+        this.blockedByIp = Counter.builder("auth.login.throttled").tag("key", "ip")
+                .description("Login attempts rejected by the throttle")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Count an attempt for this username and client IP, or throw TooManyRequestsException when either is over its limit.
+     * Rejected attempts are not counted, so a blocked client is let back in as the window slides.
+     */
+    public void checkAttempt(String username, String clientIp) {
+        long now = clock.getAsLong();
+        if (clientIp != null && !tryAcquire(ipStripes, clientIp, maxPerIp, now)) {
+            blockedByIp.increment();
+            throw new TooManyRequestsException("Too many login attempts, retry later", retryAfterSeconds(now));
+        }
+        if (username != null && !tryAcquire(usernameStripes, usernameKey(username), maxPerUsername, now)) {
+            blockedByUsername.increment();
+            throw new TooManyRequestsException("Too many login attempts, retry later", retryAfterSeconds(now));
+        }
+    }
+
+    /**
+     * Forget the username's attempts after a successful login
+     */
+    public void reset(String username) {
+        if (username == null) {
+            return;
+        }
+        String key = usernameKey(username);
+        Stripe stripe = stripeFor(usernameStripes, key);
+        synchronized (stripe) {
+            stripe.remove(key);
+        }
+    }
+
+    private boolean tryAcquire(Stripe[] stripes, String key, int limit, long now) {
+        long index = now / windowMs;
+        double elapsed = (double) (now % windowMs) / windowMs;
+        Stripe stripe = stripeFor(stripes, key);
+        synchronized (stripe) {
+            Window window = stripe.get(key);
+            if (window == null) {
+                window = new Window();
+                window.index = index;
+                stripe.put(key, window);
+            } else if (window.index != index) {
+                window.previous = window.index == index - 1 ? window.current : 0;
+                window.current = 0;
+                window.index = index;
+            }
+            if (window.previous * (1 - elapsed) + window.current >= limit) {
+                return false;
+            }
+            window.current++;
+            return true;
+        }
+    }
+
+    private long retryAfterSeconds(long now) {
+        long remainingMs = windowMs - now % windowMs;
+        return Math.max(1, (remainingMs + 999) / 1000);
+    }
+
+    private static Stripe stripeFor(Stripe[] stripes, String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    // trim and toLowerCase return the same instance when there is nothing to change
+    private static String usernameKey(String username) {
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,24 @@
+package com.kodehaus.plaza.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Bitset-based replacement for role/permission @PreAuthorize expressions.
+ * The caller needs any one of roles (like hasAnyRole) and all of permissions; empty means no requirement.
+ * Checked by AuthorityAuthorizationManager; gerente holds every permission but no extra roles.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequiresAuthority {
+
+    /** Role names without the ROLE_ prefix; any one of them is enough */
+    String[] roles() default {};
+
+    /** Permission names; all of them are required */
+    String[] permissions() default {};
+}
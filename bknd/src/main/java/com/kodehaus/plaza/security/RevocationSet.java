@@ -0,0 +1,80 @@
+package com.kodehaus.plaza.security;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Revoked token ids (jti) held in memory.
+ *
+ * A Bloom filter answers the common case, a token that was never revoked, without touching the map;
+ * only filter hits are confirmed against the exact set. Entries are kept until the token itself expires,
+ * so memory tracks the number of live revocations, not the number of tokens issued.
+ * purgeExpired() drops expired entries and rebuilds the filter to shed their bits.
+ */
+public final class RevocationSet {
+
+    private final int expectedInsertions;
+    private final double falsePositiveRate;
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private final LongAdder falsePositives = new LongAdder();
+    private volatile BloomFilter filter;
+
+    public RevocationSet(int expectedInsertions, double falsePositiveRate) {
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    /**
+     * Revoke a token id until expiresAt
+     */
+    public void add(String tokenId, Instant expiresAt) {
+        revoked.merge(tokenId, expiresAt, (a, b) -> a.isAfter(b) ? a : b);
+        filter.put(tokenId);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        if (revoked.containsKey(tokenId)) {
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    /**
+     * Forget revocations of tokens that expired before now; returns how many were removed
+     */
+    public synchronized int purgeExpired(Instant now) {
+        int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+        int removed = before - revoked.size();
+        if (removed > 0) {
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedInsertions, revoked.size()), falsePositiveRate);
+            revoked.keySet().forEach(rebuilt::put);
+            filter = rebuilt;
+            // ids added while rebuilding went into the old filter only
+            revoked.keySet().forEach(rebuilt::put);
+        }
+        return removed;
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    /**
+     * Filter hits that the exact set did not confirm
+     */
+    public long falsePositives() {
+        return falsePositives.sum();
+    }
+
+    long filterBits() {
+        return filter.bitCount();
+    }
+}
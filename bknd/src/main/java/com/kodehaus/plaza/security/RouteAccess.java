@@ -0,0 +1,33 @@
+package com.kodehaus.plaza.security;
+
+/**
+ * How a route is protected, as decided by RouteClassifier
+ */
+public enum RouteAccess {
+
+    /** No authentication; the JWT filter does not look at the request */
+    PUBLIC,
+
+    /** No authentication required, but a bearer token is still read when present */
+    OPTIONAL,
+
+    /** Called by external systems; guarded by ExternalApiKeyFilter instead of a JWT */
+    API_KEY,
+
+    /** Requires a valid JWT */
+    AUTHENTICATED;
+
+    /**
+     * True when Spring Security should let the request through without an authenticated user
+     */
+    public boolean isPermitted() {
+        return this != AUTHENTICATED;
+    }
+
+    /**
+     * True when JwtAuthenticationFilter should read the bearer token
+     */
+    public boolean readsJwt() {
+        return this == OPTIONAL || this == AUTHENTICATED;
+    }
+}
@@ -0,0 +1,142 @@
+package com.kodehaus.plaza.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Route table shared by SecurityConfig and JwtAuthenticationFilter.
+ * Patterns are compiled once into a segment trie; a lookup walks the URI in place (no split, no
+ * substring) and the most specific pattern wins. Anything not listed requires authentication.
+ *
+ * Supported patterns: exact paths ("/error") and prefixes ("/api/auth/**", which also matches "/api/auth").
+ */
+@Component
+public class RouteClassifier {
+
+    private final Node root = new Node("");
+
+    public RouteClassifier() {
+        // públicos
+        register("/api/auth/**", RouteAccess.PUBLIC);
+        register("/actuator/**", RouteAccess.PUBLIC);
+        register("/error", RouteAccess.PUBLIC);
+
+        // Swagger / SpringDoc
+        register("/v3/api-docs/**", RouteAccess.PUBLIC);
+        register("/swagger-ui/**", RouteAccess.PUBLIC);
+        register("/swagger-ui.html", RouteAccess.PUBLIC);
+        register("/swagger-resources/**", RouteAccess.PUBLIC);
+        register("/webjars/**", RouteAccess.PUBLIC);
+
+        // Open, but the response depends on who is asking
+        register("/api/auth/me", RouteAccess.OPTIONAL);
+        register("/api/modulos/**", RouteAccess.OPTIONAL);
+        // called by external systems, but ExternalApiKeyFilter is off: keep reading the JWT until it is enabled
+        register("/api/users/externo", RouteAccess.OPTIONAL);
+
+        // Called by external systems
+        register("/api/plazas/externo", RouteAccess.API_KEY);
+        register("/api/managers/register", RouteAccess.API_KEY);
+
+        // el resto requiere autenticación JWT
+        register("/**", RouteAccess.AUTHENTICATED);
+    }
+
+    /**
+     * Classify a request by its path inside the application (context path excluded)
+     */
+    public RouteAccess classify(HttpServletRequest request) {
+        return classify(request.getRequestURI(), request.getContextPath().length());
+    }
+
+    public RouteAccess classify(String path) {
+        return classify(path, 0);
+    }
+
+    /**
+     * Request matcher for Spring Security: every route that does not require an authenticated user
+     */
+    public RequestMatcher permitAllMatcher() {
+        return request -> classify(request).isPermitted();
+    }
+
+    private RouteAccess classify(String path, int from) {
+        Node node = root;
+        RouteAccess result = root.subtree;
+        int length = path.length();
+        int start = from;
+        while (node != null) {
+            // skip separators (empty segments are ignored, like AntPathMatcher does)
+            while (start < length && path.charAt(start) == '/') {
+                start++;
+            }
+            if (start >= length) {
+                // end of path: an exact pattern beats any prefix seen on the way
+                return node.exact != null ? node.exact : (node.subtree != null ? node.subtree : result);
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            node = node.child(path, start, end - start);
+            if (node != null && node.subtree != null) {
+                result = node.subtree;
+            }
+            start = end;
+        }
+        return result;
+    }
+
+    private void register(String pattern, RouteAccess access) {
+        boolean prefix = pattern.endsWith("/**");
+        String path = prefix ? pattern.substring(0, pattern.length() - 3) : pattern;
+        Node node = root;
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                node = node.childOrCreate(segment);
+            }
+        }
+        if (prefix) {
+            node.subtree = access;
+        } else {
+            node.exact = access;
+        }
+    }
+
+    private static final class Node {
+
+        private final String segment;
+        private Node[] children = new Node[0];
+        // access for this exact path
+        private RouteAccess exact;
+        // access for this path and everything below it
+        private RouteAccess subtree;
+
+        private Node(String segment) {
+            this.segment = segment;
+        }
+
+        private Node child(String path, int offset, int length) {
+            for (Node child : children) {
+                if (child.segment.length() == length && path.regionMatches(offset, child.segment, 0, length)) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        private Node childOrCreate(String name) {
+            Node existing = child(name, 0, name.length());
+            if (existing != null) {
+                return existing;
+            }
+            Node created = new Node(name);
+            children = Arrays.copyOf(children, children.length + 1);
+            children[children.length - 1] = created;
+            return created;
+        }
+    }
+}
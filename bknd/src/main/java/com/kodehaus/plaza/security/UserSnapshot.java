@@ -0,0 +1,84 @@
+package com.kodehaus.plaza.security;
+
+import com.kodehaus.plaza.entity.Role;
+import com.kodehaus.plaza.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable copy of what authentication needs from a User: identity, password hash, plaza, roles and
+ * the authorization version. CustomUserDetailsService caches and shares these across request threads
+ * instead of the entity; code that needs the managed User loads it with loadCurrentUser.
+ */
+public final class UserSnapshot implements UserDetails {
+
+    private final Long id;
+    private final String username;
+    private final String password;
+    private final boolean enabled;
+    private final Long plazaId;
+    private final String plazaName;
+    private final UUID plazaUuid;
+    private final List<String> roles;
+    private final List<GrantedAuthority> authorities;
+    private final AuthorityMask permissionMask;
+    private final long authzVersion;
+
+    private UserSnapshot(User user) {
+        this.id = user.getId();
+        this.username = user.getUsername();
+        this.password = user.getPassword();
+        this.enabled = user.isEnabled();
+        this.plazaId = user.getPlaza() != null ? user.getPlaza().getId() : null;
+        this.plazaName = user.getPlaza() != null ? user.getPlaza().getName() : null;
+        this.plazaUuid = user.getPlaza() != null ? user.getPlaza().getUuid() : null;
+        this.roles = user.getRoles() != null ? user.getRoles().stream().map(Role::getName).toList() : List.of();
+        this.authorities = List.copyOf(user.getAuthorities());
+        this.permissionMask = user.getPermissionMask();
+        this.authzVersion = user.getAuthzVersion() != null ? user.getAuthzVersion() : 0L;
+    }
+
+    /**
+     * Snapshot of a user loaded with its plaza, roles and permissions (User.WITH_AUTHORITIES)
+     */
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(user);
+    }
+
+    // UserDetails implementation
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() { return authorities; }
+
+    @Override
+    public String getPassword() { return password; }
+
+    @Override
+    public String getUsername() { return username; }
+
+    @Override
+    public boolean isEnabled() { return enabled; }
+
+    // Getters
+    public Long getId() { return id; }
+
+    public Long getPlazaId() { return plazaId; }
+
+    public String getPlazaName() { return plazaName; }
+
+    public UUID getPlazaUuid() { return plazaUuid; }
+
+    public List<String> getRoles() { return roles; }
+
+    public AuthorityMask getPermissionMask() { return permissionMask; }
+
+    public long getAuthzVersion() { return authzVersion; }
+
+    @Override
+    public String toString() {
+        return "UserSnapshot{id=" + id + ", username='" + username + "', plazaId=" + plazaId + '}';
+    }
+}
@@ -0,0 +1,110 @@
+package com.kodehaus.plaza.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.kodehaus.plaza.service.AuthorityRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Bounded cache of already verified bearer tokens, keyed by the SHA-256 digest of the token.
+ * Each entry lives at most jwt.token-cache.ttl and never past the token's own exp claim.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    /**
+     * A verified token: its claims plus the principal built from them.
+     * generation is the AuthorityRegistry generation the principal's bitsets were computed against.
+     */
+    public record Entry(JwtClaims claims, JwtUserPrincipal principal, long generation) {}
+
+    @Value("${jwt.token-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${jwt.token-cache.ttl:PT5M}")
+    private Duration ttl;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AuthorityRegistry authorityRegistry;
+
+    private Cache<String, Entry> cache;
+
+    @PostConstruct
+    void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry value, long currentTime) {
+                        return lifetimeNanos(value);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry value, long currentTime, long currentDuration) {
+                        return lifetimeNanos(value);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-tokens");
+    }
+
+    /**
+     * Cached entry for this token, or null when it has not been verified yet (or has expired)
+     */
+    public Entry get(String token) {
+        Entry entry = cache.getIfPresent(TokenDigests.sha256(token));
+        // roles or permissions changed since the principal was built
+        if (entry != null && entry.generation() != authorityRegistry.generation()) {
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Remember a token that JwtTokenProvider has just verified
+     */
+    public Entry put(String token, JwtClaims claims) {
+        long generation = authorityRegistry.generation();
+        JwtUserPrincipal principal = JwtUserPrincipal.from(claims,
+                authorityRegistry.roleMask(claims.roles()), authorityRegistry.permissionMask(claims.roles()));
+        Entry entry = new Entry(claims, principal, generation);
+        cache.put(TokenDigests.sha256(token), entry);
+        return entry;
+    }
+
+    public void invalidate(String token) {
+        cache.invalidate(TokenDigests.sha256(token));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private long lifetimeNanos(Entry entry) {
+        long lifetime = ttl.toNanos();
+        Date expiration = entry.claims().expiration();
+        if (expiration != null) {
+            long untilExpiry = Duration.ofMillis(expiration.getTime() - System.currentTimeMillis()).toNanos();
+            lifetime = Math.min(lifetime, untilExpiry);
+        }
+        return Math.max(lifetime, 0);
+    }
+}
@@ -0,0 +1,196 @@
+package com.kodehaus.plaza.service;
+
+import com.kodehaus.plaza.entity.Permission;
+import com.kodehaus.plaza.entity.Role;
+import com.kodehaus.plaza.entity.User;
+import com.kodehaus.plaza.repository.PermissionRepository;
+import com.kodehaus.plaza.repository.RoleRepository;
+import com.kodehaus.plaza.security.AuthorityMask;
+import com.kodehaus.plaza.security.JwtUserPrincipal;
+import com.kodehaus.plaza.security.UserSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Maps role and permission names to AuthorityMask bit positions.
+ *
+ * Permission bits are persisted in permissions.bit_index and never change once assigned.
+ * Role bits only live in memory: they are handed out on first use and stay fixed for the life of the node.
+ * Role names are matched case-insensitively (as PlazaController's role checks always were): "gerente" and
+ * "GERENTE" share a bit and a permission mask.
+ * The per-role permission masks are reloaded by refresh() (at startup and whenever roles change);
+ * generation() tells callers holding derived masks that they are stale.
+ */
+@Service
+public class AuthorityRegistry {
+    private static final Logger log = LoggerFactory.getLogger(AuthorityRegistry.class);
+
+    private final PermissionRepository permissionRepository;
+    private final RoleRepository roleRepository;
+
+    private final Map<String, Integer> roleBits = new ConcurrentHashMap<>();
+    private final AtomicInteger nextRoleBit = new AtomicInteger();
+
+    private volatile Map<String, Integer> permissionBits = Map.of();
+    private volatile Map<String, AuthorityMask> rolePermissions = Map.of();
+    private volatile long generation;
+    // role writes refresh on request threads; a monitor held across the queries would pin a virtual thread
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    public AuthorityRegistry(PermissionRepository permissionRepository, RoleRepository roleRepository) {
+        this.permissionRepository = permissionRepository;
+        this.roleRepository = roleRepository;
+    }
+
+    /**
+     * Assign bit positions to new permissions and reload every role's permission mask
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            List<Permission> permissions = permissionRepository.findAll(Sort.by("id"));
+            int next = permissions.stream()
+                    .map(Permission::getBitIndex)
+                    .filter(bit -> bit != null)
+                    .mapToInt(Integer::intValue)
+                    .max()
+                    .orElse(-1) + 1;
+            Map<String, Integer> bits = new HashMap<>();
+            for (Permission permission : permissions) {
+                if (permission.getBitIndex() == null) {
+                    permission.setBitIndex(next++);
+                    permissionRepository.save(permission);
+                    log.info("Assigned bit {} to permission {}", permission.getBitIndex(), permission.getName());
+                }
+                bits.put(permission.getName(), permission.getBitIndex());
+            }
+
+            Map<String, AuthorityMask> masks = new HashMap<>();
+            for (Role role : roleRepository.findByIsActiveTrue()) {
+                masks.merge(normalize(role.getName()), role.getPermissionMask(), AuthorityMask::or);
+            }
+
+            this.permissionBits = Map.copyOf(bits);
+            this.rolePermissions = Map.copyOf(masks);
+            this.generation++;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Incremented on every refresh(); masks derived before the current value are outdated
+     */
+    public long generation() {
+        return generation;
+    }
+
+    /**
+     * Bitset of the given role names. Unknown names still get a bit, so requirements stay comparable.
+     */
+    public AuthorityMask roleMask(Collection<String> roleNames) {
+        int[] bits = new int[roleNames.size()];
+        int i = 0;
+        for (String roleName : roleNames) {
+            bits[i++] = roleBit(roleName);
+        }
+        return AuthorityMask.of(bits);
+    }
+
+    /**
+     * Effective permissions of a principal holding these (active) roles, gerente flattened to ALL
+     */
+    public AuthorityMask permissionMask(Collection<String> roleNames) {
+        AuthorityMask mask = AuthorityMask.EMPTY;
+        Map<String, AuthorityMask> current = rolePermissions;
+        for (String roleName : roleNames) {
+            if (Role.GERENTE.equalsIgnoreCase(roleName)) {
+                return AuthorityMask.ALL;
+            }
+            AuthorityMask roleMask = current.get(normalize(roleName));
+            if (roleMask != null) {
+                mask = mask.or(roleMask);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Bitset of the named permissions, or null when one of them has no bit (unknown permission)
+     */
+    public AuthorityMask permissionsNamed(Collection<String> permissionNames) {
+        Map<String, Integer> current = permissionBits;
+        int[] bits = new int[permissionNames.size()];
+        int i = 0;
+        for (String permissionName : permissionNames) {
+            Integer bit = current.get(permissionName);
+            if (bit == null) {
+                return null;
+            }
+            bits[i++] = bit;
+        }
+        return AuthorityMask.of(bits);
+    }
+
+    /**
+     * Role bitset of an authenticated principal; JwtUserPrincipal carries it precomputed
+     */
+    public AuthorityMask roleMaskOf(Authentication authentication) {
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof JwtUserPrincipal jwtPrincipal && jwtPrincipal.getRoleMask() != null) {
+            return jwtPrincipal.getRoleMask();
+        }
+        return roleMask(roleNamesOf(authentication));
+    }
+
+    /**
+     * Permission bitset of an authenticated principal
+     */
+    public AuthorityMask permissionMaskOf(Authentication authentication) {
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof JwtUserPrincipal jwtPrincipal && jwtPrincipal.getPermissionMask() != null) {
+            return jwtPrincipal.getPermissionMask();
+        }
+        if (principal instanceof UserSnapshot snapshot) {
+            return snapshot.getPermissionMask();
+        }
+        if (principal instanceof User user) {
+            return user.getPermissionMask();
+        }
+        return permissionMask(roleNamesOf(authentication));
+    }
+
+    private static List<String> roleNamesOf(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(authority -> authority != null && authority.startsWith("ROLE_"))
+                .map(authority -> authority.substring(5))
+                .toList();
+    }
+
+    private int roleBit(String roleName) {
+        return roleBits.computeIfAbsent(normalize(roleName), name -> nextRoleBit.getAndIncrement());
+    }
+
+    private static String normalize(String roleName) {
+        return roleName.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,111 @@
+package com.kodehaus.plaza.service;
+
+import com.kodehaus.plaza.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory copy of users.authz_version, so a token issued before a role or account change
+ * is rejected with one map lookup instead of a database read.
+ *
+ * Loaded in full at startup, then polled for rows whose authz_changed_at moved. Each poll looks back
+ * authz.versions.overlap past the previous one to cover slow commits and clock skew between nodes.
+ * Users never bumped are not in the map and count as version 0.
+ */
+@Service
+public class AuthzVersionRegistry {
+    private static final Logger log = LoggerFactory.getLogger(AuthzVersionRegistry.class);
+
+    private final UserRepository userRepository;
+    private final Duration overlap;
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    private volatile LocalDateTime lastPoll;
+    // not synchronized: bumpRole() polls on request threads, which may be virtual and must not pin while querying
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public AuthzVersionRegistry(UserRepository userRepository,
+                                @Value("${authz.versions.overlap:PT1M}") Duration overlap) {
+        this.userRepository = userRepository;
+        this.overlap = overlap;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        lock.lock();
+        try {
+            LocalDateTime started = LocalDateTime.now();
+            merge(userRepository.findAuthzVersions());
+            lastPoll = started;
+            log.info("Loaded {} authz versions", versions.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Pick up versions bumped on this or any other node since the last poll
+     */
+    @Scheduled(fixedDelayString = "${authz.versions.refresh-interval-ms:5000}")
+    public void refresh() {
+        lock.lock();
+        try {
+            LocalDateTime since = lastPoll;
+            if (since == null) {
+                // initial load has not run yet
+                return;
+            }
+            LocalDateTime started = LocalDateTime.now();
+            merge(userRepository.findAuthzVersionsChangedSince(since.minus(overlap)));
+            lastPoll = started;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Invalidate the tokens of every user holding the role
+     */
+    public void bumpRole(Long roleId) {
+        int users = userRepository.bumpAuthzVersionByRoleId(roleId, LocalDateTime.now());
+        log.debug("Bumped authz version of {} users holding role {}", users, roleId);
+        refresh();
+    }
+
+    /**
+     * Record a version bumped by this node, so it applies here before the next poll
+     */
+    public void record(Long userId, Long version) {
+        if (userId != null && version != null) {
+            versions.merge(userId, version, Math::max);
+        }
+    }
+
+    public long currentVersion(Long userId) {
+        return userId == null ? 0L : versions.getOrDefault(userId, 0L);
+    }
+
+    /**
+     * True when the token was issued before the user's latest authz change
+     */
+    public boolean isStale(Long userId, long tokenVersion) {
+        return userId != null && tokenVersion < versions.getOrDefault(userId, 0L);
+    }
+
+    private void merge(List<Object[]> rows) {
+        for (Object[] row : rows) {
+            record((Long) row[0], (Long) row[1]);
+        }
+    }
+}
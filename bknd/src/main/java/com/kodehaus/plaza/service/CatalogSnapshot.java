@@ -0,0 +1,200 @@
+package com.kodehaus.plaza.service;
+
+import com.kodehaus.plaza.dto.ProductResponseDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable view of a plaza's active products, sorted by (category, name, id), with the available products
+ * and the category list precomputed. Changes produce a new snapshot (copy-on-write); readers keep using
+ * the one they hold. The DTOs are shared by every reader and must be treated as read-only.
+ *
+ * Order is by String.compareTo, so keyset cursors are compared the same way they were produced. A row without
+ * category or name (adopted from the old ddl-auto schema) sorts first for the missing key; its cursor carries ""
+ * there, which after() reads back as null since stored names and categories are never blank.
+ */
+public final class CatalogSnapshot {
+
+    static final Comparator<ProductResponseDto> ORDER = Comparator
+            .comparing(ProductResponseDto::getCategory, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(ProductResponseDto::getName, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(ProductResponseDto::getId, Comparator.nullsFirst(Comparator.<Long>naturalOrder()));
+
+    // rough heap cost: the DTO with its boxed fields, BigDecimal and timestamps; strings are added per char
+    private static final long PRODUCT_BYTES = 320;
+    private static final long STRING_BYTES = 40;
+
+    private static final AtomicLong SERIALS = new AtomicLong();
+
+    private final long serial = SERIALS.incrementAndGet();
+    private final long loadedAt;
+    private final List<ProductResponseDto> products;
+    private final List<ProductResponseDto> available;
+    private final List<String> categories;
+    private final long estimatedBytes;
+
+    private CatalogSnapshot(ProductResponseDto[] sorted, long loadedAt) {
+        this.loadedAt = loadedAt;
+        this.products = Collections.unmodifiableList(Arrays.asList(sorted));
+        List<ProductResponseDto> availableProducts = new ArrayList<>();
+        Set<String> categoryNames = new TreeSet<>();
+        long bytes = 0;
+        for (ProductResponseDto product : sorted) {
+            if (Boolean.TRUE.equals(product.getIsAvailable())) {
+                availableProducts.add(product);
+            }
+            if (product.getCategory() != null) {
+                categoryNames.add(product.getCategory());
+            }
+            bytes += estimateBytes(product);
+        }
+        this.available = List.copyOf(availableProducts);
+        this.categories = List.copyOf(categoryNames);
+        this.estimatedBytes = bytes + 8L * (sorted.length + availableProducts.size());
+    }
+
+    /**
+     * Snapshot of the given active products, in any order
+     */
+    public static CatalogSnapshot of(Collection<ProductResponseDto> products) {
+        ProductResponseDto[] sorted = products.toArray(new ProductResponseDto[0]);
+        Arrays.sort(sorted, ORDER);
+        return new CatalogSnapshot(sorted, System.nanoTime());
+    }
+
+    /**
+     * New snapshot with the changed products replaced, added, or (when no longer active) removed. A row older
+     * (lower version) than the one already held is ignored, so a write that commits first but arrives last
+     * cannot overwrite a newer one.
+     */
+    public CatalogSnapshot with(Collection<ProductResponseDto> changed) {
+        Map<Long, ProductResponseDto> latest = new HashMap<>();
+        for (ProductResponseDto product : changed) {
+            latest.merge(product.getId(), product, CatalogSnapshot::newer);
+        }
+        for (ProductResponseDto product : products) {
+            ProductResponseDto incoming = latest.get(product.getId());
+            if (incoming != null && newer(product, incoming) == product) {
+                latest.remove(product.getId());
+            }
+        }
+        Set<Long> changedIds = latest.keySet();
+        List<ProductResponseDto> incoming = new ArrayList<>(latest.size());
+        for (ProductResponseDto product : latest.values()) {
+            if (Boolean.TRUE.equals(product.getIsActive())) {
+                incoming.add(product);
+            }
+        }
+        incoming.sort(ORDER);
+
+        // merge the untouched products (already sorted) with the sorted incoming ones
+        ProductResponseDto[] merged = new ProductResponseDto[products.size() + incoming.size()];
+        int size = 0;
+        int next = 0;
+        for (ProductResponseDto product : products) {
+            if (changedIds.contains(product.getId())) {
+                continue;
+            }
+            while (next < incoming.size() && ORDER.compare(incoming.get(next), product) < 0) {
+                merged[size++] = incoming.get(next++);
+            }
+            merged[size++] = product;
+        }
+        while (next < incoming.size()) {
+            merged[size++] = incoming.get(next++);
+        }
+        return new CatalogSnapshot(Arrays.copyOf(merged, size), loadedAt);
+    }
+
+    /**
+     * New snapshot without the product
+     */
+    public CatalogSnapshot without(Long productId) {
+        return new CatalogSnapshot(products.stream()
+                .filter(product -> !product.getId().equals(productId))
+                .toArray(ProductResponseDto[]::new), loadedAt);
+    }
+
+    /**
+     * Up to count products from the start of the sort order
+     */
+    public List<ProductResponseDto> first(int count) {
+        return products.subList(0, Math.min(count, products.size()));
+    }
+
+    /**
+     * Up to count products sorting after the keyset cursor (category, name, id)
+     */
+    public List<ProductResponseDto> after(String category, String name, Long id, int count) {
+        ProductResponseDto key = new ProductResponseDto();
+        key.setCategory(category == null || category.isEmpty() ? null : category);
+        key.setName(name == null || name.isEmpty() ? null : name);
+        key.setId(id);
+        int index = Collections.binarySearch(products, key, ORDER);
+        int from = index >= 0 ? index + 1 : -index - 1;
+        return products.subList(from, Math.min(from + count, products.size()));
+    }
+
+    public List<ProductResponseDto> products() {
+        return products;
+    }
+
+    public List<ProductResponseDto> available() {
+        return available;
+    }
+
+    public List<String> categories() {
+        return categories;
+    }
+
+    /**
+     * Increasing number unique to this snapshot, so caches derived from it can tell when it was replaced
+     */
+    public long serial() {
+        return serial;
+    }
+
+    /**
+     * System.nanoTime() of the database load this snapshot derives from; updates applied since keep it
+     */
+    public long loadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * Approximate heap held by this snapshot, for the per-plaza memory accounting
+     */
+    public long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * The later of two rows of the same product: the one with the higher version, or b when either is unknown
+     */
+    private static ProductResponseDto newer(ProductResponseDto a, ProductResponseDto b) {
+        return a.getVersion() != null && b.getVersion() != null && a.getVersion() > b.getVersion() ? a : b;
+    }
+
+    private static long estimateBytes(ProductResponseDto product) {
+        return PRODUCT_BYTES
+                + stringBytes(product.getName())
+                + stringBytes(product.getDescription())
+                + stringBytes(product.getCategory())
+                + stringBytes(product.getUnit())
+                + stringBytes(product.getPlazaName());
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : STRING_BYTES + value.length();
+    }
+}
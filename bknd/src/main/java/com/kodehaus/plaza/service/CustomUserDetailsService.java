@@ -1,9 +1,18 @@
 package com.kodehaus.plaza.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.kodehaus.plaza.entity.User;
 import com.kodehaus.plaza.repository.UserRepository;
+import com.kodehaus.plaza.security.JwtUserPrincipal;
+import com.kodehaus.plaza.security.UserSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
 // Lombok annotations removed for compatibility
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -11,38 +20,179 @@ import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+
 /**
  * Custom UserDetailsService implementation
+ *
+ * Users are cached on this node by username and by id (users.cache.max-size / users.cache.ttl), as immutable
+ * UserSnapshots shared by all request threads; loadCurrentUser gives a request its own managed User.
+ * Anything that changes a user must call evictUser, which also tells the other instances through the
+ * InvalidationBus; role or permission changes call evictAll (the ROLE event reaches the other instances).
+ * As UserDetailsPasswordService it receives the re-hashed password of users still stored with an
+ * outdated encoding (e.g. legacy plaintext) after each successful login.
  */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     private static final Logger log = LoggerFactory.getLogger(CustomUserDetailsService.class);
 
     private final UserRepository userRepository;
+    private final InvalidationBus invalidationBus;
+    private final Cache<String, UserSnapshot> usersByUsername;
+    private final Cache<Long, UserSnapshot> usersById;
     
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, InvalidationBus invalidationBus,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${users.cache.max-size:10000}") long maxSize,
+                                    @Value("${users.cache.ttl:PT10M}") Duration ttl) {
         this.userRepository = userRepository;
+        this.invalidationBus = invalidationBus;
+        this.usersByUsername = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.usersById = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByUsername, "users.by-username");
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "users.by-id");
     }
     
     @Override
     @Transactional
-    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+    public UserSnapshot loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserSnapshot cached = usersByUsername.getIfPresent(username);
+        if (cached != null) {
+            return cached;
+        }
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
         
-        log.warn("User loaded: {}", user);
-        if (user.getPlaza() != null) {
-            log.warn("Plaza ID: {}", user.getPlaza().getId());
-            log.warn("Plaza externalId: {}", user.getPlaza().getExternalId());
-        }   
-        return user;
+        if (log.isDebugEnabled()) {
+            log.debug("User loaded: {} (plaza {})", user.getUsername(),
+                    user.getPlaza() != null ? user.getPlaza().getId() : null);
+        }
+        return cache(user);
     }
     
     @Transactional
-    public UserDetails loadUserById(Long id) {
-        User user = userRepository.findByIdWithPlaza(id)
+    public UserSnapshot loadUserById(Long id) {
+        UserSnapshot cached = usersById.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+        User user = userRepository.findByIdWithAuthorities(id)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
         
-        return user;
+        return cache(user);
+    }
+    
+    /**
+     * Persist a password re-encoded by the authentication provider
+     */
+    @Override
+    @Transactional
+    public UserSnapshot updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        User saved = userRepository.save(user);
+        evictUser(saved.getId(), saved.getUsername());
+        log.debug("Upgraded password encoding of user {}", saved.getUsername());
+        return UserSnapshot.of(saved);
+    }
+    
+    /**
+     * Drop a user from the cache of every instance after it was created, updated or deactivated.
+     * Pass the username the user had before the change when it may have been renamed.
+     */
+    public void evictUser(Long id, String username) {
+        UserSnapshot cached = id != null ? usersById.getIfPresent(id) : null;
+        Long plazaId = cached != null ? cached.getPlazaId() : null;
+        evictLocally(id);
+        if (username != null) {
+            usersByUsername.invalidate(username);
+        }
+        if (id != null) {
+            invalidationBus.publish(InvalidationEvent.USER, id, plazaId);
+        }
+    }
+    
+    /**
+     * Drop a user from this instance's cache only (the change was announced by another instance)
+     */
+    public void evictLocally(Long id) {
+        if (id == null) {
+            return;
+        }
+        UserSnapshot cached = usersById.getIfPresent(id);
+        if (cached != null) {
+            usersByUsername.invalidate(cached.getUsername());
+        }
+        usersById.invalidate(id);
+    }
+    
+    /**
+     * Drop the cached users of a plaza, whose cached plaza name may be outdated
+     */
+    public void evictPlaza(Long plazaId) {
+        usersById.asMap().values().removeIf(user -> plazaId.equals(user.getPlazaId()));
+        usersByUsername.asMap().values().removeIf(user -> plazaId.equals(user.getPlazaId()));
+    }
+    
+    /**
+     * Drop every cached user, e.g. after a role or its permissions changed
+     */
+    public void evictAll() {
+        usersByUsername.invalidateAll();
+        usersById.invalidateAll();
+    }
+    
+    private UserSnapshot cache(User user) {
+        UserSnapshot snapshot = UserSnapshot.of(user);
+        usersByUsername.put(snapshot.getUsername(), snapshot);
+        if (snapshot.getId() != null) {
+            usersById.put(snapshot.getId(), snapshot);
+        }
+        return snapshot;
+    }
+    
+    /**
+     * Resolve the plaza of the authenticated principal.
+     * Claims-based principals answer directly from the token, without a database round trip.
+     */
+    public Long getPlazaId(Authentication authentication) {
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof JwtUserPrincipal jwtPrincipal && jwtPrincipal.getPlazaId() != null) {
+            return jwtPrincipal.getPlazaId();
+        }
+        if (principal instanceof UserSnapshot snapshot) {
+            return snapshot.getPlazaId();
+        }
+        return loadUserByUsername(authentication.getName()).getPlazaId();
+    }
+    
+    /**
+     * Load the User entity behind the authenticated principal, managed by the current request's persistence
+     * context (never shared with other requests), with its plaza and roles
+     */
+    @Transactional
+    public User loadCurrentUser(Authentication authentication) {
+        Object principal = authentication.getPrincipal();
+        Long id;
+        if (principal instanceof JwtUserPrincipal jwtPrincipal && jwtPrincipal.getUserId() != null) {
+            id = jwtPrincipal.getUserId();
+        } else if (principal instanceof UserSnapshot snapshot) {
+            id = snapshot.getId();
+        } else if (principal instanceof User user) {
+            id = user.getId();
+        } else {
+            id = loadUserByUsername(authentication.getName()).getId();
+        }
+        return userRepository.findByIdWithAuthorities(id)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
     }
 }
@@ -0,0 +1,75 @@
+package com.kodehaus.plaza.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Tells every instance that an entity changed, so each can drop what its local caches hold for it.
+ * Local caches subscribe per entity type; the instance that made the change updates its own caches directly
+ * and does not receive its own events (except over LoopbackInvalidationBus).
+ */
+public abstract class InvalidationBus {
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, List<Consumer<InvalidationEvent>>> listeners = new ConcurrentHashMap<>();
+
+    public void subscribe(String entityType, Consumer<InvalidationEvent> listener) {
+        listeners.computeIfAbsent(entityType, type -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Announce a change; inside a transaction it is sent after commit, and dropped on rollback
+     */
+    public void publish(String entityType, Long id, Long plazaId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(new InvalidationEvent(entityType, id, plazaId, nodeId, System.currentTimeMillis()));
+                }
+            });
+        } else {
+            send(new InvalidationEvent(entityType, id, plazaId, nodeId, System.currentTimeMillis()));
+        }
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    protected abstract void send(InvalidationEvent event);
+
+    protected void dispatch(InvalidationEvent event) {
+        List<Consumer<InvalidationEvent>> subscribed = listeners.get(event.entityType());
+        if (subscribed == null) {
+            return;
+        }
+        for (Consumer<InvalidationEvent> listener : subscribed) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                log.warn("Cache invalidation listener failed for {}: {}", event, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Invalidate everything of every subscribed type, for when events may have been missed
+     */
+    protected void dispatchAll() {
+        long now = System.currentTimeMillis();
+        for (String entityType : listeners.keySet()) {
+            dispatch(new InvalidationEvent(entityType, null, null, nodeId, now));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.kodehaus.plaza.service;
+
+/**
+ * A change to a cached entity, sent to every instance by InvalidationBus.
+ * A null id means every entity of the type (e.g. after notifications may have been missed).
+ */
+public record InvalidationEvent(String entityType, Long id, Long plazaId, String origin, long sentAt) {
+
+    public static final String USER = "user";
+    public static final String ROLE = "role";
+    public static final String PLAZA = "plaza";
+    public static final String PRODUCT = "product";
+    public static final String STORE = "store";
+    public static final String BULLETIN = "bulletin";
+
+    private static final String SEPARATOR = ":";
+
+    /**
+     * Wire format for NOTIFY: type:id:plazaId:origin:sentAt, empty for null
+     */
+    public String toPayload() {
+        return entityType + SEPARATOR + (id != null ? id : "") + SEPARATOR + (plazaId != null ? plazaId : "")
+                + SEPARATOR + origin + SEPARATOR + sentAt;
+    }
+
+    /**
+     * Parse a payload produced by toPayload(); IllegalArgumentException when it is malformed
+     */
+    public static InvalidationEvent fromPayload(String payload) {
+        String[] parts = payload.split(SEPARATOR, -1);
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("Invalid invalidation payload: " + payload);
+        }
+        return new InvalidationEvent(parts[0], parseId(parts[1]), parseId(parts[2]), parts[3], Long.parseLong(parts[4]));
+    }
+
+    private static Long parseId(String value) {
+        return value.isEmpty() ? null : Long.valueOf(value);
+    }
+}
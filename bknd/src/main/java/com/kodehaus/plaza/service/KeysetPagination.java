@@ -0,0 +1,114 @@
+package com.kodehaus.plaza.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset (cursor) pagination for list endpoints.
+ *
+ * A page is fetched with one row more than requested to know whether another page follows; in that case
+ * the sort key of the last returned row is handed back, encoded, in the X-Next-Cursor header. The body stays
+ * a plain JSON array. Paging is opt-in: a request with neither limit nor cursor gets the whole list, as before
+ * pagination existed, so clients that do not follow X-Next-Cursor keep seeing every row. A request with a
+ * cursor but no limit gets pagination.default-size rows.
+ */
+@Service
+public class KeysetPagination {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final char SEPARATOR = '\u0000';
+
+    private final int defaultSize;
+    private final int maxSize;
+
+    public KeysetPagination(@Value("${pagination.default-size:500}") int defaultSize,
+                            @Value("${pagination.max-size:500}") int maxSize) {
+        this.defaultSize = defaultSize;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Rows to return for the requested limit: default when absent, capped at pagination.max-size
+     */
+    public int pageSize(Integer requested) {
+        int size = requested != null ? requested : defaultSize;
+        return Math.max(1, Math.min(size, maxSize));
+    }
+
+    /**
+     * Whether the request asked for paging at all
+     */
+    public static boolean paged(Integer requested, String cursor) {
+        return requested != null || cursor != null;
+    }
+
+    /**
+     * Rows to fetch for a page: one extra row to detect whether there is a next page, every row when unpaged
+     */
+    public int fetchSize(Integer requested, String cursor) {
+        return paged(requested, cursor) ? pageSize(requested) + 1 : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Query limit for fetchSize()
+     */
+    public Limit limit(Integer requested, String cursor) {
+        return paged(requested, cursor) ? Limit.of(fetchSize(requested, cursor)) : Limit.unlimited();
+    }
+
+    /**
+     * Trim the rows fetched with limit() to the page size, map them, and set X-Next-Cursor when more rows remain;
+     * unpaged requests get all rows
+     */
+    public <T, D> ResponseEntity<List<D>> page(List<T> rows, Integer requested, String cursor,
+                                               Function<T, String> cursorOf, Function<T, D> mapper) {
+        int size = pageSize(requested);
+        if (!paged(requested, cursor) || rows.size() <= size) {
+            return ResponseEntity.ok(rows.stream().map(mapper).toList());
+        }
+        List<T> page = rows.subList(0, size);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, cursorOf.apply(page.get(size - 1)))
+                .body(page.stream().map(mapper).toList());
+    }
+
+    /**
+     * page() for rows that are already response DTOs (constructor projections)
+     */
+    public <D> ResponseEntity<List<D>> page(List<D> rows, Integer requested, String cursor,
+                                            Function<D, String> cursorOf) {
+        return page(rows, requested, cursor, cursorOf, Function.identity());
+    }
+
+    /**
+     * Opaque cursor for the given sort key values; a null key is written as ""
+     */
+    public static String encode(Object... keys) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) raw.append(SEPARATOR);
+            if (keys[i] != null) raw.append(keys[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sort key values of a cursor produced by encode; IllegalArgumentException when it is malformed
+     */
+    public static String[] decode(String cursor, int keyCount) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] keys = raw.split(String.valueOf(SEPARATOR), -1);
+        if (keys.length != keyCount) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,78 @@
+package com.kodehaus.plaza.service;
+
+import com.kodehaus.plaza.entity.Plaza;
+import com.kodehaus.plaza.entity.Role;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Applies changes made on other instances to this instance's caches: cached principals,
+ * the role/permission masks of AuthorityRegistry, the Hibernate second-level cache, the catalog snapshots
+ * and the list versions behind the ETags
+ */
+@Service
+public class LocalCacheInvalidator {
+
+    private static final String ROLE_PERMISSIONS = Role.class.getName() + ".permissions";
+
+    private final CustomUserDetailsService userDetailsService;
+    private final AuthorityRegistry authorityRegistry;
+    private final ProductCatalog productCatalog;
+    private final ResourceVersions resourceVersions;
+    private final Cache secondLevelCache;
+
+    public LocalCacheInvalidator(InvalidationBus invalidationBus, CustomUserDetailsService userDetailsService,
+                                 AuthorityRegistry authorityRegistry, ProductCatalog productCatalog,
+                                 ResourceVersions resourceVersions, EntityManagerFactory entityManagerFactory) {
+        this.userDetailsService = userDetailsService;
+        this.authorityRegistry = authorityRegistry;
+        this.productCatalog = productCatalog;
+        this.resourceVersions = resourceVersions;
+        this.secondLevelCache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        invalidationBus.subscribe(InvalidationEvent.USER, this::onUserChanged);
+        invalidationBus.subscribe(InvalidationEvent.ROLE, this::onRoleChanged);
+        invalidationBus.subscribe(InvalidationEvent.PLAZA, this::onPlazaChanged);
+        invalidationBus.subscribe(InvalidationEvent.PRODUCT, event -> productCatalog.evictLocally(event.plazaId()));
+        invalidationBus.subscribe(InvalidationEvent.STORE,
+                event -> resourceVersions.evictLocally(InvalidationEvent.STORE, event.plazaId()));
+        invalidationBus.subscribe(InvalidationEvent.BULLETIN,
+                event -> resourceVersions.evictLocally(InvalidationEvent.BULLETIN, event.plazaId()));
+    }
+
+    private void onUserChanged(InvalidationEvent event) {
+        if (event.id() == null) {
+            userDetailsService.evictAll();
+        } else {
+            userDetailsService.evictLocally(event.id());
+        }
+    }
+
+    private void onRoleChanged(InvalidationEvent event) {
+        if (event.id() == null) {
+            secondLevelCache.evictEntityData(Role.class);
+            secondLevelCache.evictCollectionData(ROLE_PERMISSIONS);
+        } else {
+            secondLevelCache.evictEntityData(Role.class, event.id());
+            secondLevelCache.evictCollectionData(ROLE_PERMISSIONS, event.id());
+        }
+        secondLevelCache.evictQueryRegions();
+        userDetailsService.evictAll();
+        authorityRegistry.refresh();
+    }
+
+    private void onPlazaChanged(InvalidationEvent event) {
+        if (event.id() == null) {
+            secondLevelCache.evictEntityData(Plaza.class);
+            userDetailsService.evictAll();
+        } else {
+            secondLevelCache.evictEntityData(Plaza.class, event.id());
+            userDetailsService.evictPlaza(event.id());
+        }
+        // snapshot rows and list ETags carry the plaza name
+        productCatalog.evictLocally(event.id());
+        resourceVersions.evictPlaza(event.id());
+        secondLevelCache.evictQueryRegions();
+    }
+}
@@ -0,0 +1,13 @@
+package com.kodehaus.plaza.service;
+
+/**
+ * In-JVM InvalidationBus: events are dispatched synchronously to this instance's listeners,
+ * including the ones of the publishing instance. For tests and single-instance runs.
+ */
+public class LoopbackInvalidationBus extends InvalidationBus {
+
+    @Override
+    protected void send(InvalidationEvent event) {
+        dispatch(event);
+    }
+}
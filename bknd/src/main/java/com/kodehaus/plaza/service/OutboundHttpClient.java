@@ -0,0 +1,165 @@
+package com.kodehaus.plaza.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kodehaus.plaza.exception.OutboundHttpException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Shared client for calls to external services, on one JDK HttpClient: connections are pooled and kept alive
+ * per host, HTTP/2 is used where the server offers it, and certificates are checked against the JVM trust store.
+ *
+ * Each call has three deadlines: outbound-http.connect-timeout to open a connection, outbound-http.read-timeout
+ * for the response headers and outbound-http.total-timeout for the whole call, body and waiting for a slot
+ * included. At most outbound-http.max-concurrent-per-host calls run against one host; more wait for a slot.
+ * Bodies are JSON, read into the given type. Every call is timed in http.client.outbound, tagged with the
+ * destination, method, outcome and status; failures throw OutboundHttpException.
+ */
+@Service
+public class OutboundHttpClient {
+
+    public static final String METRIC = "http.client.outbound";
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Duration readTimeout;
+    private final Duration totalTimeout;
+    private final int maxConcurrentPerHost;
+    private final Map<String, Semaphore> hostSlots = new ConcurrentHashMap<>();
+
+    public OutboundHttpClient(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                              @Value("${outbound-http.connect-timeout:PT5S}") Duration connectTimeout,
+                              @Value("${outbound-http.read-timeout:PT10S}") Duration readTimeout,
+                              @Value("${outbound-http.total-timeout:PT15S}") Duration totalTimeout,
+                              @Value("${outbound-http.max-concurrent-per-host:20}") int maxConcurrentPerHost,
+                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.readTimeout = readTimeout;
+        this.totalTimeout = totalTimeout;
+        this.maxConcurrentPerHost = maxConcurrentPerHost;
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL);
+        if (virtualThreads) {
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        this.client = builder.build();
+    }
+
+    /**
+     * GET a JSON body
+     */
+    public <T> T get(String destination, URI uri, Map<String, String> headers, TypeReference<T> responseType) {
+        return exchange(destination, request(uri, headers).GET().build(), responseType);
+    }
+
+    /**
+     * POST body as JSON; responseType null discards the response body
+     */
+    public <T> T post(String destination, URI uri, Map<String, String> headers, Object body,
+                      TypeReference<T> responseType) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new OutboundHttpException(destination, "Could not serialize request to " + destination, 0, e);
+        }
+        return exchange(destination, request(uri, headers)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json))
+                .build(), responseType);
+    }
+
+    private HttpRequest.Builder request(URI uri, Map<String, String> headers) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(readTimeout)
+                .header("Accept", "application/json");
+        headers.forEach(builder::header);
+        return builder;
+    }
+
+    private <T> T exchange(String destination, HttpRequest request, TypeReference<T> responseType) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "IO_ERROR";
+        int status = 0;
+        long deadline = System.nanoTime() + totalTimeout.toNanos();
+        Semaphore slots = hostSlots.computeIfAbsent(request.uri().getAuthority(),
+                host -> new Semaphore(maxConcurrentPerHost, true));
+        try {
+            if (!slots.tryAcquire(totalTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                outcome = "REJECTED";
+                throw new OutboundHttpException(destination, "No free connection slot for " + destination, 0, null);
+            }
+            HttpResponse<byte[]> response;
+            try {
+                CompletableFuture<HttpResponse<byte[]>> call = client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+                try {
+                    response = call.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    call.cancel(true);
+                    outcome = "TIMEOUT";
+                    throw new OutboundHttpException(destination, destination + " did not answer within " + totalTimeout, 0, e);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof HttpTimeoutException) {
+                        outcome = "TIMEOUT";
+                    }
+                    throw new OutboundHttpException(destination, "Call to " + destination + " failed: " + e.getCause(), 0,
+                            e.getCause());
+                }
+            } finally {
+                slots.release();
+            }
+
+            status = response.statusCode();
+            if (status >= 400) {
+                outcome = status >= 500 ? "SERVER_ERROR" : "CLIENT_ERROR";
+                throw new OutboundHttpException(destination, destination + " answered " + status, status, null);
+            }
+            if (responseType == null || response.body().length == 0) {
+                outcome = "SUCCESS";
+                return null;
+            }
+            try {
+                T body = objectMapper.readValue(response.body(), responseType);
+                outcome = "SUCCESS";
+                return body;
+            } catch (IOException e) {
+                outcome = "INVALID_RESPONSE";
+                throw new OutboundHttpException(destination, "Unreadable response from " + destination, status, e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OutboundHttpException(destination, "Interrupted calling " + destination, 0, e);
+        } finally {
+            sample.stop(Timer.builder(METRIC)
+                    .description("Calls to external services")
+                    .tag("destination", destination)
+                    .tag("method", request.method())
+                    .tag("outcome", outcome)
+                    .tag("status", status > 0 ? String.valueOf(status) : "NONE")
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.kodehaus.plaza.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * InvalidationBus over Postgres NOTIFY/LISTEN.
+ *
+ * Events are sent with pg_notify through the regular pool. Each instance listens on its own connection,
+ * opened with DriverManager outside the Hikari pool so it never holds a pooled connection, and polled by
+ * one daemon thread. A dropped connection is reopened with exponential backoff; since notifications sent
+ * meanwhile are lost, every subscribed type is invalidated in full after a reconnect.
+ *
+ * cache.invalidation.propagation records the delay between sending an event and receiving it on another
+ * instance (it includes the clock skew between the two).
+ */
+public class PostgresInvalidationBus extends InvalidationBus implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(PostgresInvalidationBus.class);
+
+    static final String CHANNEL = "cache_invalidation";
+
+    private static final Duration MIN_BACKOFF = Duration.ofMillis(500);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int pollTimeoutMillis;
+    private final Duration maxBackoff;
+
+    private final Timer propagation;
+    private final Counter sent;
+    private final Counter sendFailures;
+    private final Counter received;
+    private final Counter reconnects;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread listener;
+
+    public PostgresInvalidationBus(JdbcTemplate jdbcTemplate, String url, String username, String password,
+                                   Duration pollTimeout, Duration maxBackoff, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.pollTimeoutMillis = (int) pollTimeout.toMillis();
+        this.maxBackoff = maxBackoff;
+        this.propagation = Timer.builder("cache.invalidation.propagation")
+                .description("Delay between sending an invalidation and receiving it on another instance")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.sent = meterRegistry.counter("cache.invalidation.events", "direction", "sent");
+        this.received = meterRegistry.counter("cache.invalidation.events", "direction", "received");
+        this.sendFailures = meterRegistry.counter("cache.invalidation.send-failures");
+        this.reconnects = meterRegistry.counter("cache.invalidation.reconnects");
+    }
+
+    @Override
+    protected void send(InvalidationEvent event) {
+        try {
+            jdbcTemplate.execute("SELECT pg_notify(?, ?)", (PreparedStatementCallback<Boolean>) ps -> {
+                ps.setString(1, CHANNEL);
+                ps.setString(2, event.toPayload());
+                return ps.execute();
+            });
+            sent.increment();
+        } catch (DataAccessException e) {
+            // the change is committed; other instances catch up when their entries expire
+            sendFailures.increment();
+            log.warn("Could not send cache invalidation {}: {}", event, e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        closeQuietly(connection);
+        if (listener != null) {
+            listener.interrupt();
+            listener = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        Duration backoff = MIN_BACKOFF;
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection conn = DriverManager.getConnection(url, username, password)) {
+                connection = conn;
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (connectedBefore) {
+                    reconnects.increment();
+                    log.info("Cache invalidation listener reconnected, invalidating all subscribed caches");
+                    dispatchAll();
+                }
+                connectedBefore = true;
+                backoff = MIN_BACKOFF;
+                PGConnection pgConnection = conn.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMillis);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("Cache invalidation listener lost its connection, retrying in {}: {}", backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                backoff = backoff.multipliedBy(2).compareTo(maxBackoff) > 0 ? maxBackoff : backoff.multipliedBy(2);
+            } finally {
+                connection = null;
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        InvalidationEvent event;
+        try {
+            event = InvalidationEvent.fromPayload(payload);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring cache invalidation: {}", e.getMessage());
+            return;
+        }
+        if (nodeId().equals(event.origin())) {
+            // this instance already updated its own caches
+            return;
+        }
+        received.increment();
+        propagation.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - event.sentAt())));
+        dispatch(event);
+    }
+
+    private static void closeQuietly(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException ignored) {
+                // closing to unblock the listener thread
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.kodehaus.plaza.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.kodehaus.plaza.dto.ProductResponseDto;
+import com.kodehaus.plaza.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Per-plaza CatalogSnapshot of the active products, serving the product list, availability and category reads
+ * without touching the database.
+ *
+ * A snapshot is loaded on first access and kept until evicted: at most catalog.snapshots.max-plazas are resident,
+ * least recently used first, and none outlives catalog.snapshots.ttl after its database load (updates applied
+ * since do not extend it), which bounds how long a missed PRODUCT event goes unseen. The product write endpoints hand over the committed rows and the snapshot is
+ * replaced with an updated copy; updates wait for a load of the same plaza in progress, so none is lost.
+ * Other instances receive a PRODUCT event and drop their snapshot of the plaza, to be reloaded on next read.
+ * The ETag version of the list is always evicted after the snapshot changed or was reloaded, so a new ETag
+ * never comes with an old body.
+ */
+@Service
+public class ProductCatalog {
+    private static final Logger log = LoggerFactory.getLogger(ProductCatalog.class);
+
+    private final ProductRepository productRepository;
+    private final InvalidationBus invalidationBus;
+    private final ResourceVersions resourceVersions;
+    private final Cache<Long, CatalogSnapshot> snapshots;
+
+    public ProductCatalog(ProductRepository productRepository, InvalidationBus invalidationBus,
+                          ResourceVersions resourceVersions, MeterRegistry meterRegistry,
+                          @Value("${catalog.snapshots.max-plazas:100}") long maxPlazas,
+                          @Value("${catalog.snapshots.ttl:PT1M}") Duration ttl) {
+        this.productRepository = productRepository;
+        this.invalidationBus = invalidationBus;
+        this.resourceVersions = resourceVersions;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxPlazas)
+                .expireAfter(new Expiry<Long, CatalogSnapshot>() {
+                    @Override
+                    public long expireAfterCreate(Long plazaId, CatalogSnapshot snapshot, long currentTime) {
+                        return Math.max(0, ttl.toNanos() - (currentTime - snapshot.loadedAt()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long plazaId, CatalogSnapshot snapshot, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(plazaId, snapshot, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long plazaId, CatalogSnapshot snapshot, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "catalog.snapshots");
+        Gauge.builder("catalog.snapshots.bytes", this, catalog -> catalog.residentBytes().values().stream()
+                        .mapToLong(Long::longValue).sum())
+                .description("Estimated heap held by the resident catalog snapshots")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Current snapshot of the plaza, loaded on first access
+     */
+    public CatalogSnapshot snapshot(Long plazaId) {
+        return snapshots.get(plazaId, this::load);
+    }
+
+    /**
+     * Apply products created or changed (and committed) on this instance
+     */
+    public void updated(Long plazaId, Collection<ProductResponseDto> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        snapshots.asMap().computeIfPresent(plazaId, (id, snapshot) -> snapshot.with(products));
+        resourceVersions.evictLocally(InvalidationEvent.PRODUCT, plazaId);
+        invalidationBus.publish(InvalidationEvent.PRODUCT, products.size() == 1 ? products.iterator().next().getId() : null,
+                plazaId);
+    }
+
+    public void updated(Long plazaId, ProductResponseDto product) {
+        updated(plazaId, List.of(product));
+    }
+
+    /**
+     * Apply a product deactivated on this instance
+     */
+    public void removed(Long plazaId, Long productId) {
+        snapshots.asMap().computeIfPresent(plazaId, (id, snapshot) -> snapshot.without(productId));
+        resourceVersions.evictLocally(InvalidationEvent.PRODUCT, plazaId);
+        invalidationBus.publish(InvalidationEvent.PRODUCT, productId, plazaId);
+    }
+
+    /**
+     * Drop the plaza's snapshot on every instance, for changes too large to apply row by row (bulk import)
+     */
+    public void invalidate(Long plazaId) {
+        evictLocally(plazaId);
+        invalidationBus.publish(InvalidationEvent.PRODUCT, null, plazaId);
+    }
+
+    /**
+     * Drop the plaza's snapshot (and its ETag version, evicted after it) on this instance only;
+     * null drops every plaza
+     */
+    public void evictLocally(Long plazaId) {
+        if (plazaId == null) {
+            snapshots.invalidateAll();
+        } else {
+            snapshots.invalidate(plazaId);
+        }
+        resourceVersions.evictLocally(InvalidationEvent.PRODUCT, plazaId);
+    }
+
+    /**
+     * Estimated heap per resident plaza snapshot
+     */
+    public Map<Long, Long> residentBytes() {
+        return snapshots.asMap().entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().estimatedBytes()));
+    }
+
+    private CatalogSnapshot load(Long plazaId) {
+        long started = System.nanoTime();
+        CatalogSnapshot snapshot = CatalogSnapshot.of(productRepository.findActiveDtosByPlazaId(plazaId));
+        log.info("Loaded catalog snapshot of plaza {}: {} products, ~{} KB in {} ms", plazaId,
+                snapshot.products().size(), snapshot.estimatedBytes() / 1024, (System.nanoTime() - started) / 1_000_000);
+        // a version computed before this load may describe older data than the snapshot now holds
+        resourceVersions.evictLocally(InvalidationEvent.PRODUCT, plazaId);
+        return snapshot;
+    }
+}
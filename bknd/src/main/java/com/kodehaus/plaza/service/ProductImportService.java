@@ -0,0 +1,287 @@
+package com.kodehaus.plaza.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kodehaus.plaza.dto.ProductImportResultDto;
+import com.kodehaus.plaza.dto.ProductRequestDto;
+import com.kodehaus.plaza.entity.Plaza;
+import com.kodehaus.plaza.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk product import from a JSON array or a CSV file with a header line.
+ *
+ * The upload is read and validated one row at a time. Valid rows are inserted in chunks of
+ * products.import.chunk-size, one transaction per chunk, which Hibernate sends as JDBC batches
+ * (ids come from the pooled products_id_seq, so no round trip per row). A chunk that fails in the
+ * database is retried row by row, so one bad row is reported instead of aborting the import.
+ */
+@Service
+public class ProductImportService {
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    /** CSV header names (case-insensitive) mapped to ProductRequestDto properties */
+    private static final Map<String, String> CSV_COLUMNS = Map.of(
+            "name", "name",
+            "description", "description",
+            "category", "category",
+            "unit", "unit",
+            "price", "price",
+            "isavailable", "isAvailable",
+            "is_available", "isAvailable");
+
+    private record Row(int number, ProductRequestDto request) {}
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxRows;
+    private final int maxErrors;
+
+    public ProductImportService(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                Validator validator, ObjectMapper objectMapper,
+                                @Value("${products.import.chunk-size:1000}") int chunkSize,
+                                @Value("${products.import.max-rows:100000}") int maxRows,
+                                @Value("${products.import.max-errors:1000}") int maxErrors) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxRows = maxRows;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Import a JSON array of product objects (same fields as POST /api/products)
+     */
+    public ProductImportResultDto importJson(InputStream body, Long plazaId) throws IOException {
+        Import run = new Import(plazaId);
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of products");
+            }
+            int number = 0;
+            try {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    number++;
+                    JsonNode node = parser.readValueAsTree();
+                    if (!run.accept(number)) {
+                        break;
+                    }
+                    try {
+                        run.add(number, objectMapper.treeToValue(node, ProductRequestDto.class));
+                    } catch (JsonProcessingException e) {
+                        run.reject(number, "Invalid value: " + e.getOriginalMessage());
+                    }
+                }
+            } catch (JsonParseException e) {
+                // the rows before it are kept; nothing after it can be read
+                run.reject(number + 1, "Malformed JSON, the remaining rows were not read: " + e.getOriginalMessage());
+            }
+        }
+        return run.finish();
+    }
+
+    /**
+     * Import a CSV file whose first line names the columns: name, description, category, unit, price, isAvailable
+     */
+    public ProductImportResultDto importCsv(InputStream body, Long plazaId) throws IOException {
+        CsvRowReader reader = new CsvRowReader(new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)));
+        List<String> header = reader.next();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV header line is missing");
+        }
+        String[] properties = new String[header.size()];
+        for (int i = 0; i < header.size(); i++) {
+            properties[i] = CSV_COLUMNS.get(header.get(i).strip().toLowerCase(Locale.ROOT));
+        }
+        if (!Arrays.asList(properties).containsAll(List.of("name", "category", "price"))) {
+            throw new IllegalArgumentException("CSV header must name the name, category and price columns");
+        }
+
+        Import run = new Import(plazaId);
+        int number = 0;
+        try {
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                number++;
+                if (!run.accept(number)) {
+                    break;
+                }
+                try {
+                    run.add(number, fromCsv(properties, record));
+                } catch (IllegalArgumentException e) {
+                    run.reject(number, e.getMessage());
+                }
+            }
+        } catch (IllegalStateException e) {
+            run.reject(number + 1, "Malformed CSV, the remaining rows were not read: " + e.getMessage());
+        }
+        return run.finish();
+    }
+
+    private static ProductRequestDto fromCsv(String[] properties, List<String> record) {
+        if (record.size() > properties.length) {
+            throw new IllegalArgumentException("Expected at most " + properties.length + " columns, got " + record.size());
+        }
+        ProductRequestDto request = new ProductRequestDto();
+        for (int i = 0; i < record.size(); i++) {
+            String property = properties[i];
+            String value = record.get(i).strip();
+            if (property == null || value.isEmpty()) {
+                continue;
+            }
+            switch (property) {
+                case "name" -> request.setName(value);
+                case "description" -> request.setDescription(value);
+                case "category" -> request.setCategory(value);
+                case "unit" -> request.setUnit(value);
+                case "price" -> {
+                    try {
+                        request.setPrice(new BigDecimal(value));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid price: " + value);
+                    }
+                }
+                case "isAvailable" -> request.setIsAvailable(Boolean.parseBoolean(value));
+                default -> { }
+            }
+        }
+        return request;
+    }
+
+    private Product toProduct(ProductRequestDto request, Plaza plaza) {
+        Product product = new Product();
+        product.setName(request.getName());
+        product.setDescription(request.getDescription());
+        product.setCategory(request.getCategory());
+        product.setUnit(request.getUnit() != null ? request.getUnit() : "kg");
+        product.setPrice(request.getPrice());
+        product.setIsAvailable(request.getIsAvailable() != null ? request.getIsAvailable() : Boolean.TRUE);
+        product.setPlaza(plaza);
+        return product;
+    }
+
+    /**
+     * State of one import request
+     */
+    private class Import {
+        private final Long plazaId;
+        private final long started = System.nanoTime();
+        private final ProductImportResultDto result = new ProductImportResultDto();
+        private final List<Row> pending = new ArrayList<>();
+
+        Import(Long plazaId) {
+            this.plazaId = plazaId;
+        }
+
+        /**
+         * False once products.import.max-rows is exceeded; the rest of the upload is not read
+         */
+        boolean accept(int number) {
+            if (number > maxRows) {
+                reject(number, "Import is limited to " + maxRows + " rows, the remaining rows were not read");
+                return false;
+            }
+            result.setReceived(number);
+            return true;
+        }
+
+        void add(int number, ProductRequestDto request) {
+            Set<ConstraintViolation<ProductRequestDto>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                reject(number, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted(Comparator.naturalOrder())
+                        .reduce((a, b) -> a + "; " + b)
+                        .orElse("Invalid row"));
+                return;
+            }
+            pending.add(new Row(number, request));
+            if (pending.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(int number, String message) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < maxErrors) {
+                result.getErrors().add(new ProductImportResultDto.RowError(number, message));
+            }
+        }
+
+        ProductImportResultDto finish() {
+            flush();
+            result.getErrors().sort(Comparator.comparingInt(ProductImportResultDto.RowError::getRow));
+            result.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+            log.info("Imported {} of {} products into plaza {} in {} ms", result.getImported(),
+                    result.getReceived(), plazaId, result.getElapsedMillis());
+            return result;
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                insert(pending);
+                result.setImported(result.getImported() + pending.size());
+            } catch (DataAccessException | PersistenceException | TransactionException e) {
+                log.debug("Product import chunk failed, retrying row by row: {}", e.getMessage());
+                for (Row row : pending) {
+                    try {
+                        insert(List.of(row));
+                        result.setImported(result.getImported() + 1);
+                    } catch (DataAccessException | PersistenceException | TransactionException rowFailure) {
+                        reject(row.number(), "Could not be stored: " + NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                    }
+                }
+            }
+            pending.clear();
+        }
+
+        private void insert(List<Row> rows) {
+            transactionTemplate.executeWithoutResult(status -> {
+                Plaza plaza = entityManager.getReference(Plaza.class, plazaId);
+                for (Row row : rows) {
+                    entityManager.persist(toProduct(row.request(), plaza));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+    }
+}
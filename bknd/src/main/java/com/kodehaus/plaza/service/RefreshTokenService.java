@@ -0,0 +1,130 @@
+package com.kodehaus.plaza.service;
+
+import com.kodehaus.plaza.entity.RefreshToken;
+import com.kodehaus.plaza.entity.User;
+import com.kodehaus.plaza.repository.RefreshTokenRepository;
+import com.kodehaus.plaza.security.TokenDigests;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues and rotates opaque refresh tokens.
+ *
+ * Each refresh token is single use: rotate() revokes it and the caller issues a successor in the same family.
+ * Presenting a token that was already rotated means it leaked, so the whole family is revoked,
+ * together with the access tokens issued alongside it.
+ */
+@Service
+public class RefreshTokenService {
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RevokedTokenRegistry revokedTokenRegistry;
+    private final long refreshExpirationMs;
+    private final long accessExpirationMs;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, RevokedTokenRegistry revokedTokenRegistry,
+                               @Value("${jwt.refresh-expiration:1209600000}") long refreshExpirationMs,
+                               @Value("${jwt.expiration}") long accessExpirationMs) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.revokedTokenRegistry = revokedTokenRegistry;
+        this.refreshExpirationMs = refreshExpirationMs;
+        this.accessExpirationMs = accessExpirationMs;
+    }
+
+    /**
+     * Start a new family (login); returns the raw token, which is never stored
+     */
+    @Transactional
+    public String issue(User user, String accessTokenId) {
+        return issue(user, UUID.randomUUID().toString(), accessTokenId);
+    }
+
+    /**
+     * Issue the successor of a rotated token
+     */
+    @Transactional
+    public String issue(User user, String familyId, String accessTokenId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String raw = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(TokenDigests.sha256(raw));
+        token.setUser(user);
+        token.setFamilyId(familyId);
+        token.setAccessTokenId(accessTokenId);
+        token.setExpiresAt(LocalDateTime.now().plusNanos(refreshExpirationMs * 1_000_000L));
+        refreshTokenRepository.save(token);
+        return raw;
+    }
+
+    /**
+     * Consume a refresh token. Empty when it is unknown, expired or already used;
+     * reuse of a rotated token also revokes its whole family.
+     */
+    @Transactional
+    public Optional<RefreshToken> rotate(String raw) {
+        RefreshToken token = refreshTokenRepository.findByTokenHash(TokenDigests.sha256(raw)).orElse(null);
+        if (token == null) {
+            return Optional.empty();
+        }
+        if (token.isExpired() && !token.isRevoked()) {
+            return Optional.empty();
+        }
+        // conditional update: of two requests presenting the same token only one changes the row
+        if (token.isRevoked() || refreshTokenRepository.consume(token.getId(), LocalDateTime.now()) != 1) {
+            log.warn("Refresh token reuse detected, revoking family {}", token.getFamilyId());
+            revokeFamily(token.getFamilyId());
+            return Optional.empty();
+        }
+        return Optional.of(token);
+    }
+
+    /**
+     * Logout: revoke the family of this refresh token, if it is known
+     */
+    @Transactional
+    public void revoke(String raw) {
+        refreshTokenRepository.findByTokenHash(TokenDigests.sha256(raw))
+                .ifPresent(token -> revokeFamily(token.getFamilyId()));
+    }
+
+    /**
+     * Delete refresh tokens past their expiry; reuse of those can no longer be detected, nor does it matter
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        log.debug("Purged {} expired refresh tokens", deleted);
+    }
+
+    private void revokeFamily(String familyId) {
+        LocalDateTime now = LocalDateTime.now();
+        for (RefreshToken token : refreshTokenRepository.findByFamilyId(familyId)) {
+            if (!token.isRevoked()) {
+                token.setRevokedAt(now);
+                refreshTokenRepository.save(token);
+            }
+            if (token.getAccessTokenId() != null && token.getCreatedAt() != null) {
+                // the access token was issued with the refresh token; revoke() ignores it once expired
+                LocalDateTime accessExpiry = token.getCreatedAt().plusNanos(accessExpirationMs * 1_000_000L);
+                revokedTokenRegistry.revoke(token.getAccessTokenId(),
+                        Date.from(accessExpiry.atZone(ZoneId.systemDefault()).toInstant()));
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.kodehaus.plaza.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Per-plaza version of the product, store and bulletin lists, used as strong ETag and Last-Modified
+ * so polling clients get 304 without the list being loaded or serialized.
+ *
+ * The version is derived from the database (row count, max(updated_at), the plaza's updated_at and the
+ * database date), so every instance hands out the same ETag for the same data. It is cached per plaza and
+ * evicted by the write endpoints on this instance and by InvalidationBus events from the others;
+ * resource.versions.ttl bounds how long a missed event (or the date change for "today" lists) goes unseen.
+ */
+@Service
+public class ResourceVersions {
+
+    /**
+     * ETag (quoted) and Last-Modified (epoch millis) of a plaza's list
+     */
+    public record Version(String etag, long lastModified) {
+
+        /**
+         * ETag of one representation of the list (a page, a filtered view), distinct per variant
+         */
+        public String etag(String variant) {
+            return etag.substring(0, etag.length() - 1) + "-" + Integer.toHexString(variant.hashCode()) + "\"";
+        }
+    }
+
+    private record Key(String entityType, Long plazaId) {}
+
+    private static final Map<String, String> TABLES = Map.of(
+            InvalidationEvent.PRODUCT, "products",
+            InvalidationEvent.STORE, "stores",
+            InvalidationEvent.BULLETIN, "bulletins");
+
+    private static final String VERSION_SQL =
+            "SELECT (SELECT count(*) FROM %1$s WHERE plaza_id = ?), " +
+            "(SELECT max(updated_at) FROM %1$s WHERE plaza_id = ?), " +
+            "(SELECT updated_at FROM plazas WHERE id = ?), CURRENT_DATE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InvalidationBus invalidationBus;
+    private final Cache<Key, Version> versions;
+
+    public ResourceVersions(JdbcTemplate jdbcTemplate, InvalidationBus invalidationBus, MeterRegistry meterRegistry,
+                            @Value("${resource.versions.max-size:10000}") long maxSize,
+                            @Value("${resource.versions.ttl:PT1M}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.invalidationBus = invalidationBus;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "resource.versions");
+    }
+
+    /**
+     * Current version of the plaza's list of the entity type (InvalidationEvent.PRODUCT, STORE or BULLETIN)
+     */
+    public Version current(String entityType, Long plazaId) {
+        return versions.get(new Key(entityType, plazaId), this::load);
+    }
+
+    /**
+     * A row of the plaza's list was created, changed or deactivated (and committed) on this instance
+     */
+    public void changed(String entityType, Long id, Long plazaId) {
+        evictLocally(entityType, plazaId);
+        invalidationBus.publish(entityType, id, plazaId);
+    }
+
+    /**
+     * Drop the cached version on this instance only; a null plazaId drops every plaza
+     */
+    public void evictLocally(String entityType, Long plazaId) {
+        if (plazaId == null) {
+            versions.asMap().keySet().removeIf(key -> key.entityType().equals(entityType));
+        } else {
+            versions.invalidate(new Key(entityType, plazaId));
+        }
+    }
+
+    /**
+     * Drop every list version of the plaza (its name is part of the rows); null drops everything
+     */
+    public void evictPlaza(Long plazaId) {
+        if (plazaId == null) {
+            versions.invalidateAll();
+        } else {
+            versions.asMap().keySet().removeIf(key -> key.plazaId().equals(plazaId));
+        }
+    }
+
+    private Version load(Key key) {
+        String table = TABLES.get(key.entityType());
+        if (table == null) {
+            throw new IllegalArgumentException("No versioned list for " + key.entityType());
+        }
+        return jdbcTemplate.queryForObject(VERSION_SQL.formatted(table), (rs, row) -> {
+            long count = rs.getLong(1);
+            long rowsModified = millis(rs.getTimestamp(2));
+            long plazaModified = millis(rs.getTimestamp(3));
+            String etag = "\"" + key.entityType().charAt(0) + key.plazaId() + "-" + count + "-"
+                    + Long.toHexString(rowsModified) + "-" + Long.toHexString(plazaModified) + "-" + rs.getDate(4) + "\"";
+            return new Version(etag, Math.max(rowsModified, plazaModified));
+        }, key.plazaId(), key.plazaId(), key.plazaId());
+    }
+
+    private static long millis(Timestamp timestamp) {
+        return timestamp != null ? timestamp.getTime() : -1L;
+    }
+}
@@ -0,0 +1,142 @@
+package com.kodehaus.plaza.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Finished JSON responses of small, rarely changing lists (roles, permissions, product categories),
+ * kept as bytes together with their gzip encoding and copied straight to the servlet output stream.
+ *
+ * An entry is keyed by endpoint and tenant (null for global lists) and remembers the version of the data
+ * it was built from, e.g. AuthorityRegistry.generation(), which only grows; a request with another version
+ * rebuilds it, so entries never outlive a change seen by this instance. Write endpoints also drop their
+ * endpoint's entries right away. Brotli is not offered: there is no encoder on the classpath.
+ */
+@Service
+public class ResponseCache {
+
+    private record Key(String endpoint, Long tenantId) {}
+
+    private record Entry(long version, byte[] json, byte[] gzip) {}
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Key, Entry> entries;
+
+    public ResponseCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                         @Value("${response.cache.max-entries:1000}") long maxEntries) {
+        this.objectMapper = objectMapper;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "response.cache");
+    }
+
+    /**
+     * Write the cached response of the endpoint, serializing body only when there is no entry for this version.
+     * Sends the gzip bytes when the client accepts them, with Vary: Accept-Encoding either way.
+     */
+    public void write(String endpoint, Long tenantId, long version, Supplier<?> body,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Key key = new Key(endpoint, tenantId);
+        Entry entry = entries.getIfPresent(key);
+        if (entry == null || entry.version() != version) {
+            // built outside the map, so the query and serialization never hold its lock; concurrent misses may
+            // each build, and the higher version wins
+            Entry built = build(version, body.get());
+            entries.asMap().merge(key, built, (held, fresh) -> held.version() > fresh.version() ? held : fresh);
+            entry = built;
+        }
+
+        byte[] bytes = entry.json();
+        if (entry.gzip() != null && acceptsGzip(request)) {
+            bytes = entry.gzip();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    /**
+     * Drop every entry of the endpoint, on all tenants
+     */
+    public void invalidate(String endpoint) {
+        entries.asMap().keySet().removeIf(key -> key.endpoint().equals(endpoint));
+    }
+
+    /**
+     * Whether Accept-Encoding allows gzip: gzip or x-gzip, else *, with a non-zero q
+     */
+    public static boolean acceptsGzip(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (header == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String coding : header.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].strip();
+            if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+                gzip = quality(parts);
+            } else if (name.equals("*")) {
+                any = quality(parts);
+            }
+        }
+        Double quality = gzip != null ? gzip : any;
+        return quality != null && quality > 0;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].strip();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private Entry build(long version, Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            byte[] gzip = gzip(json);
+            // tiny lists can grow when compressed; those are only served as is
+            return new Entry(version, json, gzip.length < json.length ? gzip : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize cached response", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4 + 32);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
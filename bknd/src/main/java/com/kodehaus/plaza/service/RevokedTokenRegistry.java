@@ -0,0 +1,122 @@
+package com.kodehaus.plaza.service;
+
+import com.kodehaus.plaza.entity.RevokedToken;
+import com.kodehaus.plaza.repository.RevokedTokenRepository;
+import com.kodehaus.plaza.security.RevocationSet;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Revoked access token ids (jti), checked on every authenticated request without a database read.
+ *
+ * The revoked_tokens table is loaded at startup and polled for rows added by other nodes, with the
+ * same overlap scheme as AuthzVersionRegistry. Revocations only matter until the token expires, so expired
+ * rows are purged both here and in the database; the set never grows with the number of tokens issued.
+ */
+@Service
+public class RevokedTokenRegistry {
+    private static final Logger log = LoggerFactory.getLogger(RevokedTokenRegistry.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final RevocationSet revocations;
+    private final Duration overlap;
+    private volatile LocalDateTime lastPoll;
+    // serializes the polls; a ReentrantLock, unlike a monitor, lets a virtual thread unmount during the query
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public RevokedTokenRegistry(RevokedTokenRepository revokedTokenRepository, MeterRegistry meterRegistry,
+                                @Value("${jwt.revocation.expected-size:100000}") int expectedSize,
+                                @Value("${jwt.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+                                @Value("${jwt.revocation.overlap:PT1M}") Duration overlap) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.revocations = new RevocationSet(expectedSize, falsePositiveRate);
+        this.overlap = overlap;
+        Gauge.builder("jwt.revoked-tokens.size", revocations, RevocationSet::size)
+                .description("Revoked access tokens that have not expired yet")
+                .register(meterRegistry);
+        FunctionCounter.builder("jwt.revoked-tokens.false-positives", revocations, RevocationSet::falsePositives)
+                .description("Bloom filter hits not confirmed by the exact set")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        lock.lock();
+        try {
+            LocalDateTime started = LocalDateTime.now();
+            merge(revokedTokenRepository.findByExpiresAtAfter(started));
+            lastPoll = started;
+            log.info("Loaded {} revoked tokens", revocations.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Pick up tokens revoked on other nodes since the last poll
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval-ms:5000}")
+    public void refresh() {
+        lock.lock();
+        try {
+            LocalDateTime since = lastPoll;
+            if (since == null) {
+                // initial load has not run yet
+                return;
+            }
+            LocalDateTime started = LocalDateTime.now();
+            merge(revokedTokenRepository.findByRevokedAtGreaterThanEqual(since.minus(overlap)));
+            lastPoll = started;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop revocations of tokens that have expired anyway
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int removed = revocations.purgeExpired(Instant.now());
+        int deleted = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        log.debug("Purged {} expired revocations ({} rows)", removed, deleted);
+    }
+
+    /**
+     * Revoke an access token until its expiry; effective on this node immediately, on others after the next poll
+     */
+    public void revoke(String tokenId, Date expiration) {
+        if (tokenId == null || expiration == null || expiration.before(new Date())) {
+            return;
+        }
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(expiration.toInstant(), ZoneId.systemDefault());
+        revokedTokenRepository.save(new RevokedToken(tokenId, expiresAt, LocalDateTime.now()));
+        revocations.add(tokenId, expiration.toInstant());
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return revocations.isRevoked(tokenId);
+    }
+
+    private void merge(List<RevokedToken> rows) {
+        for (RevokedToken row : rows) {
+            revocations.add(row.getTokenId(), row.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant());
+        }
+    }
+}
@@ -1,89 +1,66 @@
 package com.kodehaus.plaza.service;
 
+import com.kodehaus.plaza.dto.ExternalStoreOwnerRequestDto;
+import com.kodehaus.plaza.dto.ExternalStoreRequestDto;
+import com.kodehaus.plaza.exception.OutboundHttpException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.client.RestClientException;
 
+import java.net.URI;
 import java.util.Map;
 
 /**
- * Service for communicating with the external Store Management System
+ * Service for communicating with the external Store Management System.
+ * Failures are logged and reported as false: the store or owner is already saved locally.
  */
 @Service
 public class StoreManagementService {
-    
-    @Value("${external.store-management.url:http://localhost:8090}")
-    private String storeManagementUrl;
-    
-    @Value("${external.store-management.api-key:}")
-    private String storeManagementApiKey;
-    
-    private final RestTemplate restTemplate;
-    
-    public StoreManagementService() {
-        this.restTemplate = new RestTemplate();
+    private static final Logger log = LoggerFactory.getLogger(StoreManagementService.class);
+
+    static final String DESTINATION = "store-management";
+
+    private final OutboundHttpClient outboundHttpClient;
+    private final String storeManagementUrl;
+    private final String storeManagementApiKey;
+
+    public StoreManagementService(OutboundHttpClient outboundHttpClient,
+                                  @Value("${external.store-management.url:http://localhost:8090}") String storeManagementUrl,
+                                  @Value("${external.store-management.api-key:}") String storeManagementApiKey) {
+        this.outboundHttpClient = outboundHttpClient;
+        this.storeManagementUrl = storeManagementUrl;
+        this.storeManagementApiKey = storeManagementApiKey;
     }
-    
+
     /**
      * Create a store in the external store management system
-     * @param storeData Store data to create
-     * @return Response from external system
+     * @param store Store data to create
+     * @return Whether the external system accepted it
      */
-    public ResponseEntity<Map<String, Object>> createStore(Map<String, Object> storeData) {
-        try {
-            String url = storeManagementUrl + "/api/Locales";
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Content-Type", "application/json");
-            if (storeManagementApiKey != null && !storeManagementApiKey.isEmpty()) {
-                headers.set("X-API-KEY", storeManagementApiKey);
-            }
-            
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(storeData, headers);
-            
-            return restTemplate.exchange(url, HttpMethod.POST, request, 
-                (Class<Map<String, Object>>)(Class<?>)Map.class);
-        } catch (RestClientException e) {
-            System.err.println("Error calling store management service: " + e.getMessage());
-            // Don't throw exception - return error response instead to avoid breaking the flow
-            // The store is still created locally even if external service fails
-            return ResponseEntity.status(org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE)
-                .body(java.util.Map.of("error", "External service unavailable", "message", e.getMessage()));
-        }
+    public boolean createStore(ExternalStoreRequestDto store) {
+        return post("/api/Locales", store);
     }
-    
+
     /**
      * Create a store owner profile in the external store management system
-     * @param storeExternalId Store external ID
-     * @param ownerData Owner profile data
-     * @return Response from external system
+     * @param owner Owner profile data
+     * @return Whether the external system accepted it
      */
-    public ResponseEntity<Map<String, Object>> createStoreOwnerProfile(Map<String, Object> ownerData) {
+    public boolean createStoreOwnerProfile(ExternalStoreOwnerRequestDto owner) {
+        return post("/api/Auth/register/admin", owner);
+    }
+
+    private boolean post(String path, Object body) {
+        Map<String, String> headers = storeManagementApiKey != null && !storeManagementApiKey.isEmpty()
+                ? Map.of("X-API-KEY", storeManagementApiKey)
+                : Map.of();
         try {
-            String url = storeManagementUrl + "/api/Auth/register/admin";
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Content-Type", "application/json");
-            if (storeManagementApiKey != null && !storeManagementApiKey.isEmpty()) {
-                headers.set("X-API-KEY", storeManagementApiKey);
-            }
-            
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(ownerData, headers);
-            
-            return restTemplate.exchange(url, HttpMethod.POST, request, 
-                (Class<Map<String, Object>>)(Class<?>)Map.class);
-        } catch (RestClientException e) {
-            System.err.println("Error calling store management service for owner profile: " + e.getMessage());
-            // Don't throw exception - return error response instead to avoid breaking the flow
-            // The store owner is still created locally even if external service fails
-            return ResponseEntity.status(org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE)
-                .body(java.util.Map.of("error", "External service unavailable", "message", e.getMessage()));
+            outboundHttpClient.post(DESTINATION, URI.create(storeManagementUrl + path), headers, body, null);
+            return true;
+        } catch (OutboundHttpException e) {
+            log.warn("Error calling store management service {}: {}", path, e.getMessage());
+            return false;
         }
     }
 }
-
@@ -0,0 +1,138 @@
+-- Baseline: the schema previously created by spring.jpa.hibernate.ddl-auto=update.
+-- Every statement is idempotent so databases that already have these tables are adopted as they are.
+
+CREATE TABLE IF NOT EXISTS plazas (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    uuid            UUID UNIQUE,
+    external_id     VARCHAR(255),
+    name            VARCHAR(255) NOT NULL,
+    description     VARCHAR(255),
+    address         VARCHAR(255) NOT NULL,
+    phone_number    VARCHAR(255) NOT NULL,
+    email           VARCHAR(255),
+    opening_hours   VARCHAR(255),
+    closing_hours   VARCHAR(255),
+    is_active       BOOLEAN,
+    created_at      TIMESTAMP(6),
+    updated_at      TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS permissions (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name            VARCHAR(255) NOT NULL UNIQUE,
+    description     VARCHAR(255),
+    resource        VARCHAR(255),
+    action          VARCHAR(255),
+    bit_index       INTEGER UNIQUE,
+    is_active       BOOLEAN,
+    created_at      TIMESTAMP(6),
+    updated_at      TIMESTAMP(6)
+);
+
+ALTER TABLE permissions ADD COLUMN IF NOT EXISTS bit_index INTEGER UNIQUE;
+
+CREATE TABLE IF NOT EXISTS roles (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name            VARCHAR(255) NOT NULL UNIQUE,
+    description     VARCHAR(255),
+    is_active       BOOLEAN,
+    created_at      TIMESTAMP(6),
+    updated_at      TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS role_permissions (
+    role_id         BIGINT NOT NULL REFERENCES roles (id),
+    permission_id   BIGINT NOT NULL REFERENCES permissions (id),
+    PRIMARY KEY (role_id, permission_id)
+);
+
+CREATE TABLE IF NOT EXISTS stores (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    external_id     VARCHAR(255) UNIQUE,
+    name            VARCHAR(255) NOT NULL,
+    description     VARCHAR(255),
+    owner_name      VARCHAR(255),
+    phone_number    VARCHAR(255),
+    email           VARCHAR(255),
+    is_active       BOOLEAN,
+    created_at      TIMESTAMP(6),
+    updated_at      TIMESTAMP(6),
+    plaza_id        BIGINT NOT NULL REFERENCES plazas (id)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    external_id         VARCHAR(255) UNIQUE,
+    username            VARCHAR(255) NOT NULL UNIQUE,
+    email               VARCHAR(255) NOT NULL UNIQUE,
+    password            VARCHAR(255) NOT NULL,
+    first_name          VARCHAR(255) NOT NULL,
+    last_name           VARCHAR(255) NOT NULL,
+    phone_number        VARCHAR(255),
+    cedula              VARCHAR(255),
+    is_active           BOOLEAN,
+    created_at          TIMESTAMP(6),
+    updated_at          TIMESTAMP(6),
+    authz_version       BIGINT,
+    authz_changed_at    TIMESTAMP(6),
+    plaza_id            BIGINT NOT NULL REFERENCES plazas (id),
+    store_id            BIGINT REFERENCES stores (id)
+);
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS authz_version BIGINT;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS authz_changed_at TIMESTAMP(6);
+
+CREATE TABLE IF NOT EXISTS user_roles (
+    user_id         BIGINT NOT NULL REFERENCES users (id),
+    role_id         BIGINT NOT NULL REFERENCES roles (id),
+    PRIMARY KEY (user_id, role_id)
+);
+
+CREATE TABLE IF NOT EXISTS products (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name            VARCHAR(255) NOT NULL,
+    description     VARCHAR(255),
+    category        VARCHAR(255) NOT NULL,
+    unit            VARCHAR(255) NOT NULL,
+    price           NUMERIC(10, 2) NOT NULL,
+    is_active       BOOLEAN,
+    is_available    BOOLEAN,
+    created_at      TIMESTAMP(6),
+    updated_at      TIMESTAMP(6),
+    plaza_id        BIGINT NOT NULL REFERENCES plazas (id)
+);
+
+CREATE TABLE IF NOT EXISTS bulletins (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title               VARCHAR(255) NOT NULL,
+    content             TEXT NOT NULL,
+    publication_date    DATE NOT NULL,
+    is_active           BOOLEAN,
+    created_at          TIMESTAMP(6),
+    updated_at          TIMESTAMP(6),
+    plaza_id            BIGINT NOT NULL REFERENCES plazas (id),
+    created_by          BIGINT NOT NULL REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    token_hash          VARCHAR(64) NOT NULL UNIQUE,
+    user_id             BIGINT NOT NULL REFERENCES users (id),
+    family_id           VARCHAR(36) NOT NULL,
+    access_token_id     VARCHAR(36),
+    expires_at          TIMESTAMP(6) NOT NULL,
+    revoked_at          TIMESTAMP(6),
+    created_at          TIMESTAMP(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_family_id ON refresh_tokens (family_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
+
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    token_id            VARCHAR(36) PRIMARY KEY,
+    expires_at          TIMESTAMP(6) NOT NULL,
+    revoked_at          TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
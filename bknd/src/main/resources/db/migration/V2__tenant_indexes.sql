@@ -0,0 +1,48 @@
+-- Indexes for the per-plaza repository queries. Nearly every hot query filters on plaza_id and is_active,
+-- so the active-only variants are partial indexes; plain plaza_id indexes back the foreign keys and the
+-- findByPlazaId methods that also return inactive rows.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- ProductRepository
+-- findByPlazaIdAndIsActiveTrue, findByPlazaIdAndCategoryAndIsActiveTrue,
+-- findByPlazaIdOrderByCategoryAndName, findDistinctCategoriesByPlazaId
+CREATE INDEX IF NOT EXISTS idx_products_plaza_category_name_active
+    ON products (plaza_id, category, name) WHERE is_active;
+-- findByPlazaIdAndIsActiveTrueAndIsAvailableTrue, findByPlazaIdAndIsAvailableAndIsActiveTrue
+CREATE INDEX IF NOT EXISTS idx_products_plaza_available_active
+    ON products (plaza_id, is_available) WHERE is_active;
+-- findByPlazaIdAndNameContainingIgnoreCase: LOWER(name) LIKE '%...%'
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm_active
+    ON products USING gin (lower(name) gin_trgm_ops) WHERE is_active;
+CREATE INDEX IF NOT EXISTS idx_products_plaza_id ON products (plaza_id);
+
+-- BulletinRepository
+-- findLatestByPlazaId, findTodaysBulletinsByPlazaId, findByPlazaIdAndIsActiveTrue
+CREATE INDEX IF NOT EXISTS idx_bulletins_plaza_publication_active
+    ON bulletins (plaza_id, publication_date DESC, created_at DESC) WHERE is_active;
+-- findByPlazaIdAndPublicationDate, findByPlazaIdAndPublicationDateBetween, findByPlazaId
+CREATE INDEX IF NOT EXISTS idx_bulletins_plaza_publication
+    ON bulletins (plaza_id, publication_date DESC);
+-- findByCreatedById
+CREATE INDEX IF NOT EXISTS idx_bulletins_created_by ON bulletins (created_by);
+
+-- StoreRepository
+-- findByPlazaId, findByPlazaIdAndIsActiveTrue, existsByNameAndPlazaId, existsByNameAndPlazaIdAndIdNot
+CREATE INDEX IF NOT EXISTS idx_stores_plaza_name ON stores (plaza_id, name);
+
+-- UserRepository
+-- findByPlazaIdAndIsActiveTrue
+CREATE INDEX IF NOT EXISTS idx_users_plaza_active ON users (plaza_id) WHERE is_active;
+-- findByPlazaId, findByPlazaIdAndRoleName
+CREATE INDEX IF NOT EXISTS idx_users_plaza_id ON users (plaza_id);
+-- findByStoreId, findByStoreIdAndIsActiveTrue, findStoreOwnerByStoreId
+CREATE INDEX IF NOT EXISTS idx_users_store_id ON users (store_id) WHERE store_id IS NOT NULL;
+-- findAuthzVersionsChangedSince (polled every few seconds), findAuthzVersions
+CREATE INDEX IF NOT EXISTS idx_users_authz_changed_at ON users (authz_changed_at) WHERE authz_changed_at IS NOT NULL;
+-- findByRoleName, bumpAuthzVersionByRoleId (primary key is user_id, role_id)
+CREATE INDEX IF NOT EXISTS idx_user_roles_role_id ON user_roles (role_id);
+CREATE INDEX IF NOT EXISTS idx_role_permissions_permission_id ON role_permissions (permission_id);
+
+-- RefreshTokenRepository.findActiveByUserId
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user_active ON refresh_tokens (user_id) WHERE revoked_at IS NULL;
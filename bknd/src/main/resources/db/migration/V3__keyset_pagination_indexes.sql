@@ -0,0 +1,6 @@
+-- Keyset pagination of active users walks (plaza_id, id); the sort key replaces the plain partial index.
+-- Products (plaza_id, category, name), bulletins (plaza_id, publication_date DESC, created_at DESC)
+-- and stores (plaza_id, name) already match their page order from V2.
+
+DROP INDEX IF EXISTS idx_users_plaza_active;
+CREATE INDEX IF NOT EXISTS idx_users_plaza_id_active ON users (plaza_id, id) WHERE is_active;
@@ -0,0 +1,4 @@
+-- Product ids are allocated by Hibernate's pooled optimizer, 50 at a time, so inserts can be JDBC-batched.
+-- The identity column keeps its sequence; nextval now returns the top of the next block of 50.
+
+ALTER TABLE products ALTER COLUMN id SET INCREMENT BY 50;
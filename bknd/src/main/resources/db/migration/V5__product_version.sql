@@ -0,0 +1,3 @@
+-- Optimistic lock column for products; bulk price updates compare and bump it in SQL.
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
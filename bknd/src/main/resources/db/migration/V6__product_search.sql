@@ -0,0 +1,14 @@
+-- Accent-insensitive product search (GET /api/products/search).
+-- product_search_key folds accents and case ("Pimentón" -> "pimenton", "Ñame" -> "name"). unaccent itself is
+-- only STABLE, so it is wrapped with an explicit dictionary in an IMMUTABLE function to be usable in an index.
+-- The trigram GIN index serves both the substring/prefix LIKE and the word-similarity (<%) match.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+CREATE OR REPLACE FUNCTION product_search_key(text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+    AS $$ SELECT lower(public.unaccent('public.unaccent'::regdictionary, $1)) $$;
+
+CREATE INDEX IF NOT EXISTS idx_products_search_key ON products USING gin (product_search_key(name) gin_trgm_ops)
+    WHERE is_active;
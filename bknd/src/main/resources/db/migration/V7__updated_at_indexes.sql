@@ -0,0 +1,7 @@
+-- ResourceVersions reads count(*) and max(updated_at) per plaza to build the ETag of the list endpoints;
+-- (plaza_id, updated_at) answers both from the index. The plain plaza_id index on products is now a prefix of it.
+
+CREATE INDEX IF NOT EXISTS idx_products_plaza_updated ON products (plaza_id, updated_at);
+DROP INDEX IF EXISTS idx_products_plaza_id;
+CREATE INDEX IF NOT EXISTS idx_stores_plaza_updated ON stores (plaza_id, updated_at);
+CREATE INDEX IF NOT EXISTS idx_bulletins_plaza_updated ON bulletins (plaza_id, updated_at);
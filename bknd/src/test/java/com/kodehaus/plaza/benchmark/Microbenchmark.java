@@ -0,0 +1,81 @@
+package com.kodehaus.plaza.benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongFunction;
+
+/**
+ * Minimal harness for the opt-in microbenchmark tests (-Dbenchmark=true): runs an operation on a number of
+ * platform threads for a warm-up and then a measured period, and reports the average time per call.
+ * Results are folded into a volatile sink so the JIT cannot drop the work.
+ */
+public final class Microbenchmark {
+
+	public static final Duration WARM_UP = Duration.ofSeconds(2);
+	public static final Duration MEASURED = Duration.ofSeconds(5);
+
+	public static volatile long sink;
+
+	private Microbenchmark() {
+	}
+
+	/**
+	 * Average nanoseconds per call of operation (given a per-thread call counter) on threads threads
+	 */
+	public static double nanosPerCall(int threads, LongFunction<Object> operation) throws InterruptedException {
+		run(threads, WARM_UP, operation);
+		long calls = run(threads, MEASURED, operation);
+		return (double) MEASURED.toNanos() * threads / calls;
+	}
+
+	/**
+	 * nanosPerCall for each thread count, printed as one line per count; returns the results in the same order
+	 */
+	public static List<Double> report(String label, LongFunction<Object> operation, int... threadCounts)
+			throws InterruptedException {
+		List<Double> results = new ArrayList<>();
+		for (int threads : threadCounts) {
+			double nanos = nanosPerCall(threads, operation);
+			results.add(nanos);
+			System.out.printf("%-40s %2d threads  %,10.1f ns/call  %,14.0f calls/s%n", label, threads, nanos,
+				threads * 1e9 / nanos);
+		}
+		return results;
+	}
+
+	private static long run(int threads, Duration duration, LongFunction<Object> operation)
+			throws InterruptedException {
+		AtomicBoolean running = new AtomicBoolean(true);
+		CountDownLatch started = new CountDownLatch(threads);
+		long[] calls = new long[threads];
+		List<Thread> workers = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			int index = t;
+			Thread worker = new Thread(() -> {
+				long count = 0;
+				long folded = 0;
+				started.countDown();
+				while (running.get()) {
+					Object result = operation.apply(count++);
+					folded += result != null ? result.hashCode() : 0;
+				}
+				calls[index] = count;
+				sink += folded;
+			});
+			workers.add(worker);
+			worker.start();
+		}
+		started.await();
+		Thread.sleep(duration.toMillis());
+		running.set(false);
+		long total = 0;
+		for (int t = 0; t < threads; t++) {
+			workers.get(t).join();
+			total += calls[t];
+		}
+		return total;
+	}
+}
@@ -0,0 +1,70 @@
+package com.kodehaus.plaza.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BoundedDataSourceTests {
+
+	private final AtomicInteger closed = new AtomicInteger();
+
+	private DataSource pool() {
+		return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {DataSource.class},
+				(proxy, method, args) -> {
+					if (method.getName().equals("getConnection")) {
+						return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+								(connection, call, callArgs) -> {
+									if (call.getName().equals("close")) {
+										closed.incrementAndGet();
+									}
+									return call.getName().equals("isClosed") ? false : null;
+								});
+					}
+					return null;
+				});
+	}
+
+	@Test
+	void capsConnectionsOutAndReleasesOnClose() throws Exception {
+		BoundedDataSource dataSource = new BoundedDataSource(pool(), 2, Duration.ofMillis(50));
+
+		Connection first = dataSource.getConnection();
+		Connection second = dataSource.getConnection();
+		assertEquals(2, dataSource.active());
+		assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+		assertEquals(1, dataSource.timeouts());
+
+		first.close();
+		// closing twice hands back one permit only
+		first.close();
+		assertEquals(1, dataSource.active());
+		assertEquals(2, closed.get());
+
+		Connection third = dataSource.getConnection();
+		assertEquals(2, dataSource.active());
+		second.close();
+		third.close();
+		assertEquals(0, dataSource.active());
+	}
+
+	@Test
+	void proxiesCompareByIdentity() throws Exception {
+		BoundedDataSource dataSource = new BoundedDataSource(pool(), 2, Duration.ofMillis(50));
+		Connection first = dataSource.getConnection();
+		Connection second = dataSource.getConnection();
+
+		assertEquals(first, first);
+		assertNotEquals(first, second);
+		first.close();
+		second.close();
+	}
+}
@@ -0,0 +1,138 @@
+package com.kodehaus.plaza.controller;
+
+import com.kodehaus.bknd.BkndApplication;
+import com.kodehaus.plaza.security.JwtTokenProvider;
+import com.kodehaus.plaza.security.UserSnapshot;
+import com.kodehaus.plaza.service.CustomUserDetailsService;
+import com.kodehaus.plaza.service.ProductCatalog;
+import com.kodehaus.plaza.service.ResourceVersions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Response bytes and CPU time of a simulated polling session on /api/products, /api/bulletins/today and
+ * /api/stores, with and without the client sending back the ETag it got. The data changes every
+ * CHANGE_EVERY rounds, so the conditional session also pays for a few full responses.
+ * Opt-in: mvn test -Dtest=ConditionalGetBenchmarkTests -Dbenchmark=true, against the database of
+ * BkndApplicationTests.
+ */
+@SpringBootTest(classes = BkndApplication.class)
+@AutoConfigureMockMvc
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ConditionalGetBenchmarkTests {
+
+	private static final List<String> POLLED = List.of("/api/products", "/api/bulletins/today", "/api/stores");
+	private static final int ROUNDS = 500;
+	private static final int CHANGE_EVERY = 50;
+
+	private record Session(long bytes, long cpuNanos, int notModified) {}
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CustomUserDetailsService userDetailsService;
+
+	@Autowired
+	private JwtTokenProvider tokenProvider;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ResourceVersions resourceVersions;
+
+	@Autowired
+	private ProductCatalog productCatalog;
+
+	private String bearer;
+	private Long plazaId;
+
+	@BeforeEach
+	void setUp() {
+		UserSnapshot manager = userDetailsService.loadUserByUsername("manager1");
+		plazaId = manager.getPlazaId();
+		bearer = "Bearer " + tokenProvider.generateToken(
+				new UsernamePasswordAuthenticationToken(manager, null, manager.getAuthorities()));
+	}
+
+	@Test
+	void pollingSessionWithAndWithoutEtags() throws Exception {
+		// warm-up, not reported
+		poll(false, 50);
+		poll(true, 50);
+
+		Session unconditional = poll(false, ROUNDS);
+		Session conditional = poll(true, ROUNDS);
+		report("unconditional", unconditional);
+		report("conditional", conditional);
+		System.out.printf("saved %.1f%% bytes, %.1f%% CPU%n",
+			100.0 * (unconditional.bytes() - conditional.bytes()) / unconditional.bytes(),
+			100.0 * (unconditional.cpuNanos() - conditional.cpuNanos()) / unconditional.cpuNanos());
+
+		// everything but the first round and the rounds after a change is answered 304
+		assertThat(conditional.notModified()).isEqualTo(POLLED.size() * (ROUNDS - ROUNDS / CHANGE_EVERY));
+		assertThat(conditional.bytes()).isLessThan(unconditional.bytes());
+	}
+
+	private Session poll(boolean conditional, int rounds) throws Exception {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		Map<String, String> etags = new HashMap<>();
+		long bytes = 0;
+		int notModified = 0;
+		long cpuStarted = threads.getCurrentThreadCpuTime();
+		for (int round = 0; round < rounds; round++) {
+			if (round > 0 && round % CHANGE_EVERY == 0) {
+				touchPlaza();
+			}
+			for (String path : POLLED) {
+				MockHttpServletRequestBuilder request = get(path).header("Authorization", bearer);
+				if (conditional && etags.containsKey(path)) {
+					request.header(HttpHeaders.IF_NONE_MATCH, etags.get(path));
+				}
+				MockHttpServletResponse response = mockMvc.perform(request).andReturn().getResponse();
+				if (response.getStatus() == 304) {
+					notModified++;
+				} else {
+					assertThat(response.getStatus()).isEqualTo(200);
+					etags.put(path, response.getHeader(HttpHeaders.ETAG));
+				}
+				bytes += response.getContentAsByteArray().length;
+			}
+		}
+		return new Session(bytes, threads.getCurrentThreadCpuTime() - cpuStarted, notModified);
+	}
+
+	/**
+	 * A change seen by every polled list: the plaza's updated_at is part of each version
+	 */
+	private void touchPlaza() {
+		jdbcTemplate.update("UPDATE plazas SET updated_at = now() WHERE id = ?", plazaId);
+		productCatalog.evictLocally(plazaId);
+		resourceVersions.evictPlaza(plazaId);
+	}
+
+	private static void report(String label, Session session) {
+		System.out.printf("%-14s %,6d polls  %,10d bytes  %,6d ms CPU  %,5d not modified%n", label,
+			ROUNDS * POLLED.size(), session.bytes(), session.cpuNanos() / 1_000_000, session.notModified());
+	}
+}
@@ -0,0 +1,154 @@
+package com.kodehaus.plaza.controller;
+
+import com.kodehaus.bknd.BkndApplication;
+import com.kodehaus.plaza.security.JwtTokenProvider;
+import com.kodehaus.plaza.security.UserSnapshot;
+import com.kodehaus.plaza.service.CustomUserDetailsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Login p99 and catalog p99 while LOGIN_CLIENTS callers storm POST /api/auth/login (BCrypt on every attempt)
+ * and CATALOG_CLIENTS keep reading GET /api/products. With the bounded PasswordHashingExecutor the logins the
+ * pool cannot take are answered 429 with Retry-After and the request threads stay free for the catalog.
+ * For the unbounded comparison (hashing effectively on the request threads), run it again with
+ * -Dpassword-hashing.threads=200 -Dpassword-hashing.queue-capacity=100000:
+ * mvn test -Dtest=LoginStormLoadBenchmarkTests -Dbenchmark=true [-Dpassword-hashing...]
+ * The login throttle is lifted so every attempt reaches the hashing pool.
+ * Needs the database of BkndApplicationTests for the application context.
+ */
+@SpringBootTest(classes = BkndApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+	properties = {"login-throttle.max-per-ip=1000000000", "login-throttle.max-per-username=1000000000"})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LoginStormLoadBenchmarkTests {
+
+	private static final int LOGIN_CLIENTS = 400;
+	private static final int CATALOG_CLIENTS = 20;
+	private static final Duration WARM_UP = Duration.ofSeconds(5);
+	private static final Duration MEASURED = Duration.ofSeconds(20);
+	private static final String LOGIN_BODY = "{\"username\":\"manager1\",\"password\":\"password123\"}";
+
+	private record Result(Map<Integer, List<Long>> latenciesByStatus, int failures, int missingRetryAfter) {}
+
+	@LocalServerPort
+	private int port;
+
+	@Value("${password-hashing.threads:0}")
+	private int hashingThreads;
+
+	@Value("${password-hashing.queue-capacity:64}")
+	private int hashingQueue;
+
+	@Autowired
+	private CustomUserDetailsService userDetailsService;
+
+	@Autowired
+	private JwtTokenProvider tokenProvider;
+
+	@Test
+	void catalogStaysResponsiveDuringLoginStorm() throws Exception {
+		UserSnapshot manager = userDetailsService.loadUserByUsername("manager1");
+		String bearer = "Bearer " + tokenProvider.generateToken(
+			new UsernamePasswordAuthenticationToken(manager, null, manager.getAuthorities()));
+		HttpClient client = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.executor(Executors.newVirtualThreadPerTaskExecutor())
+			.build();
+		HttpRequest login = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+			.header("Content-Type", "application/json")
+			.POST(HttpRequest.BodyPublishers.ofString(LOGIN_BODY))
+			.build();
+		HttpRequest catalog = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products"))
+			.header("Authorization", bearer)
+			.build();
+
+		storm(client, login, catalog, WARM_UP);
+		Result[] results = storm(client, login, catalog, MEASURED);
+		Result logins = results[0];
+		Result reads = results[1];
+
+		System.out.printf("hashing pool %s threads, queue %d, %d login and %d catalog clients, %d s%n",
+			hashingThreads > 0 ? hashingThreads : "one per core:", hashingQueue, LOGIN_CLIENTS, CATALOG_CLIENTS,
+			MEASURED.toSeconds());
+		report("login", logins);
+		report("catalog", reads);
+
+		assertThat(reads.latenciesByStatus().keySet()).containsOnly(200);
+		assertThat(reads.failures()).isZero();
+		assertThat(logins.missingRetryAfter()).isZero();
+	}
+
+	/**
+	 * Both client groups in closed loops for the duration; results of the login and the catalog requests
+	 */
+	private Result[] storm(HttpClient client, HttpRequest login, HttpRequest catalog, Duration duration)
+			throws InterruptedException {
+		Map<Integer, List<Long>> loginLatencies = new ConcurrentHashMap<>();
+		Map<Integer, List<Long>> catalogLatencies = new ConcurrentHashMap<>();
+		AtomicInteger loginFailures = new AtomicInteger();
+		AtomicInteger catalogFailures = new AtomicInteger();
+		AtomicInteger missingRetryAfter = new AtomicInteger();
+		long deadline = System.nanoTime() + duration.toNanos();
+		try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < LOGIN_CLIENTS + CATALOG_CLIENTS; i++) {
+				boolean loginClient = i < LOGIN_CLIENTS;
+				callers.submit(() -> {
+					while (System.nanoTime() < deadline) {
+						long started = System.nanoTime();
+						try {
+							HttpResponse<Void> response = client.send(loginClient ? login : catalog,
+								HttpResponse.BodyHandlers.discarding());
+							(loginClient ? loginLatencies : catalogLatencies)
+								.computeIfAbsent(response.statusCode(), status -> Collections.synchronizedList(new ArrayList<>()))
+								.add(System.nanoTime() - started);
+							if (response.statusCode() == 429 && response.headers().firstValue("Retry-After").isEmpty()) {
+								missingRetryAfter.incrementAndGet();
+							}
+						} catch (IOException e) {
+							(loginClient ? loginFailures : catalogFailures).incrementAndGet();
+						}
+					}
+					return null;
+				});
+			}
+		}
+		return new Result[] {
+			new Result(loginLatencies, loginFailures.get(), missingRetryAfter.get()),
+			new Result(catalogLatencies, catalogFailures.get(), 0)
+		};
+	}
+
+	private void report(String label, Result result) {
+		List<Long> all = new ArrayList<>();
+		result.latenciesByStatus().values().forEach(all::addAll);
+		Collections.sort(all);
+		StringBuilder statuses = new StringBuilder();
+		result.latenciesByStatus().forEach((status, latencies) ->
+			statuses.append(' ').append(status).append(": ").append(String.format("%,d", latencies.size())));
+		System.out.printf("%-8s %,7d requests, p50 %,5d ms, p99 %,5d ms, failed %d,%s%n", label, all.size(),
+			all.isEmpty() ? 0 : all.get(all.size() / 2) / 1_000_000,
+			all.isEmpty() ? 0 : all.get((int) (all.size() * 0.99)) / 1_000_000, result.failures(), statuses);
+	}
+}
@@ -0,0 +1,104 @@
+package com.kodehaus.plaza.controller;
+
+import com.kodehaus.bknd.BkndApplication;
+import com.kodehaus.plaza.security.JwtTokenProvider;
+import com.kodehaus.plaza.security.UserSnapshot;
+import com.kodehaus.plaza.service.CustomUserDetailsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Rows per second of POST /api/products/bulk (10k and 100k rows) against one POST /api/products per row.
+ * Opt-in: mvn test -Dtest=ProductImportBenchmarkTests -Dbenchmark=true, against the database of
+ * BkndApplicationTests. The rows it creates are deleted afterwards.
+ */
+@SpringBootTest(classes = BkndApplication.class)
+@AutoConfigureMockMvc
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProductImportBenchmarkTests {
+
+	private static final String CATEGORY = "benchmark-import";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CustomUserDetailsService userDetailsService;
+
+	@Autowired
+	private JwtTokenProvider tokenProvider;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private String bearer;
+
+	@BeforeEach
+	void setUp() {
+		UserSnapshot manager = userDetailsService.loadUserByUsername("manager1");
+		bearer = "Bearer " + tokenProvider.generateToken(
+				new UsernamePasswordAuthenticationToken(manager, null, manager.getAuthorities()));
+	}
+
+	@AfterEach
+	void cleanUp() {
+		jdbcTemplate.update("DELETE FROM products WHERE category = ?", CATEGORY);
+	}
+
+	@Test
+	void bulkImportAgainstSingleRowApi() throws Exception {
+		// warm-up, not reported
+		bulk(1_000);
+		cleanUp();
+
+		report("single-row API", 10_000, singleRows(10_000));
+		report("bulk import", 10_000, bulk(10_000));
+		report("bulk import", 100_000, bulk(100_000));
+	}
+
+	private long bulk(int rows) throws Exception {
+		StringBuilder csv = new StringBuilder("name,description,category,unit,price\n");
+		for (int i = 0; i < rows; i++) {
+			csv.append("Product ").append(i).append(",Imported by the benchmark,").append(CATEGORY).append(",kg,")
+				.append(1000 + i % 500).append('\n');
+		}
+		byte[] body = csv.toString().getBytes();
+
+		long started = System.nanoTime();
+		mockMvc.perform(post("/api/products/bulk").header("Authorization", bearer)
+				.contentType("text/csv").content(body))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.imported").value(rows));
+		return System.nanoTime() - started;
+	}
+
+	private long singleRows(int rows) throws Exception {
+		long started = System.nanoTime();
+		for (int i = 0; i < rows; i++) {
+			String json = "{\"name\":\"Product " + i + "\",\"category\":\"" + CATEGORY
+				+ "\",\"unit\":\"kg\",\"price\":" + (1000 + i % 500) + "}";
+			mockMvc.perform(post("/api/products").header("Authorization", bearer)
+					.contentType(MediaType.APPLICATION_JSON).content(json))
+				.andExpect(status().isCreated());
+		}
+		return System.nanoTime() - started;
+	}
+
+	private static void report(String label, int rows, long nanos) {
+		System.out.printf("%-16s %,8d rows  %,8d ms  %,10.0f rows/s%n",
+			label, rows, nanos / 1_000_000, rows / (nanos / 1e9));
+	}
+}
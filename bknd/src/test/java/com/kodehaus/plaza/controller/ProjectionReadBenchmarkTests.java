@@ -0,0 +1,185 @@
+package com.kodehaus.plaza.controller;
+
+import com.kodehaus.bknd.BkndApplication;
+import com.kodehaus.plaza.benchmark.Microbenchmark;
+import com.kodehaus.plaza.entity.Product;
+import com.kodehaus.plaza.entity.User;
+import com.kodehaus.plaza.repository.ProductRepository;
+import com.kodehaus.plaza.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency and heap allocation per request of a page of products and a page of users, read the way the GET
+ * endpoints did before (entities loaded, then convertToResponseDto) and the way they do now (JPQL constructor
+ * projections), on a plaza seeded with SEEDED_PRODUCTS products and SEEDED_USERS users. Each request runs in
+ * a read-write transaction, as a service method would; the entities left managed in its persistence context
+ * are what the flush at commit dirty-checks, and the projections leave none.
+ * Opt-in: mvn test -Dtest=ProjectionReadBenchmarkTests -Dbenchmark=true, against the database of
+ * BkndApplicationTests. The seeded rows are deleted afterwards.
+ */
+@SpringBootTest(classes = BkndApplication.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProjectionReadBenchmarkTests {
+
+	private static final String PREFIX = "projection-";
+	private static final int SEEDED_PRODUCTS = 50_000;
+	private static final int SEEDED_USERS = 10_000;
+	private static final int PAGE = 500;
+	private static final int WARM_UP_REQUESTS = 200;
+	private static final int MEASURED_REQUESTS = 1_000;
+
+	private record Measured(long p50Nanos, long p99Nanos, long bytesPerRequest, int managedEntities) {}
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ProductController productController;
+
+	@Autowired
+	private UserController userController;
+
+	private Long plazaId;
+
+	@BeforeAll
+	void seed() {
+		cleanUp();
+		jdbcTemplate.update("INSERT INTO plazas (name, address, phone_number, is_active, created_at, updated_at) " +
+				"VALUES (?, 'Calle 1', '000', true, now(), now())", PREFIX + "plaza");
+		plazaId = jdbcTemplate.queryForObject("SELECT id FROM plazas WHERE name = ?", Long.class, PREFIX + "plaza");
+		jdbcTemplate.update("INSERT INTO products (name, description, category, unit, price, is_active, is_available, " +
+				"created_at, updated_at, plaza_id) " +
+				"SELECT 'Producto ' || g, 'Sembrado', 'Categoria ' || (g % 20), 'kg', 1000 + g % 500, g % 10 <> 0, " +
+				"g % 3 <> 0, now(), now(), ? FROM generate_series(1, ?) g", plazaId, SEEDED_PRODUCTS);
+		jdbcTemplate.update("INSERT INTO users (username, email, password, first_name, last_name, is_active, " +
+				"created_at, updated_at, plaza_id) " +
+				"SELECT ? || g, ? || g || '@example.com', 'x', 'Usuario', 'Sembrado', g % 10 <> 0, now(), now(), ? " +
+				"FROM generate_series(1, ?) g", PREFIX, PREFIX, plazaId, SEEDED_USERS);
+		jdbcTemplate.update("INSERT INTO user_roles (user_id, role_id) " +
+				"SELECT u.id, (SELECT min(id) FROM roles) FROM users u WHERE u.plaza_id = ?", plazaId);
+		for (String table : List.of("plazas", "products", "users", "user_roles")) {
+			jdbcTemplate.execute("ANALYZE " + table);
+		}
+	}
+
+	@AfterAll
+	void cleanUp() {
+		String plazas = "(SELECT id FROM plazas WHERE name LIKE '" + PREFIX + "%')";
+		jdbcTemplate.update("DELETE FROM user_roles WHERE user_id IN (SELECT id FROM users WHERE plaza_id IN " + plazas + ")");
+		jdbcTemplate.update("DELETE FROM users WHERE plaza_id IN " + plazas);
+		jdbcTemplate.update("DELETE FROM products WHERE plaza_id IN " + plazas);
+		jdbcTemplate.update("DELETE FROM plazas WHERE name LIKE ?", PREFIX + "%");
+	}
+
+	@Test
+	void projectionsAgainstEntityLoading() {
+		Object products = AopTestUtils.getUltimateTargetObject(productController);
+		Object users = AopTestUtils.getUltimateTargetObject(userController);
+		Method convertProduct = privateMethod(ProductController.class, "convertToResponseDto", Product.class);
+		Method convertUser = privateMethod(UserController.class, "convertToResponseDto", User.class);
+		Method withRoles = privateMethod(UserController.class, "withRoles", List.class);
+
+		Measured productEntities = measure("products, entities", () -> entityManager.createQuery(
+						"SELECT p FROM Product p WHERE p.plaza.id = :plazaId AND p.isActive = true " +
+						"ORDER BY p.category, p.name, p.id", Product.class)
+				.setParameter("plazaId", plazaId)
+				.setMaxResults(PAGE)
+				.getResultList().stream()
+				.map(product -> ReflectionUtils.invokeMethod(convertProduct, products, product))
+				.toList());
+		Measured productProjection = measure("products, projection",
+				() -> productRepository.findPageByPlazaId(plazaId, Limit.of(PAGE)));
+		Measured userEntities = measure("users, entities", () -> entityManager.createQuery(
+						"SELECT u FROM User u WHERE u.plaza.id = :plazaId AND u.isActive = true ORDER BY u.id", User.class)
+				.setParameter("plazaId", plazaId)
+				.setMaxResults(PAGE)
+				.getResultList().stream()
+				.map(user -> ReflectionUtils.invokeMethod(convertUser, users, user))
+				.toList());
+		Measured userProjection = measure("users, projection", () -> (List<?>) ReflectionUtils.invokeMethod(withRoles,
+				users, userRepository.findPageByPlazaId(plazaId, Limit.of(PAGE))));
+
+		assertThat(productProjection.managedEntities()).isZero();
+		assertThat(userProjection.managedEntities()).isZero();
+		assertThat(productEntities.managedEntities()).isGreaterThanOrEqualTo(PAGE);
+		assertThat(userEntities.managedEntities()).isGreaterThanOrEqualTo(PAGE);
+		assertThat(productProjection.bytesPerRequest()).isLessThan(productEntities.bytesPerRequest());
+		assertThat(userProjection.bytesPerRequest()).isLessThan(userEntities.bytesPerRequest());
+	}
+
+	/**
+	 * Runs the read in its own transaction per request; latency and allocation cover the commit, which is where
+	 * managed entities are dirty-checked
+	 */
+	private Measured measure(String label, Supplier<List<?>> read) {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		for (int i = 0; i < WARM_UP_REQUESTS; i++) {
+			transaction.execute(status -> Microbenchmark.sink += read.get().size());
+		}
+
+		long[] nanos = new long[MEASURED_REQUESTS];
+		long allocated = 0;
+		int managedEntities = 0;
+		for (int i = 0; i < MEASURED_REQUESTS; i++) {
+			long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+			long started = System.nanoTime();
+			managedEntities = transaction.execute(status -> {
+				List<?> page = read.get();
+				assertThat(page).hasSize(PAGE);
+				return entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+			});
+			nanos[i] = System.nanoTime() - started;
+			allocated += threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+		}
+		Arrays.sort(nanos);
+		Measured measured = new Measured(nanos[MEASURED_REQUESTS / 2], nanos[MEASURED_REQUESTS * 99 / 100],
+				allocated / MEASURED_REQUESTS, managedEntities);
+		System.out.printf("%-22s p50 %,8.2f ms  p99 %,8.2f ms  %,12d bytes/request  %,6d managed entities%n", label,
+				measured.p50Nanos() / 1e6, measured.p99Nanos() / 1e6, measured.bytesPerRequest(),
+				measured.managedEntities());
+		return measured;
+	}
+
+	private static Method privateMethod(Class<?> type, String name, Class<?> parameter) {
+		Method method = ReflectionUtils.findMethod(type, name, parameter);
+		assertThat(method).as(type.getSimpleName() + "." + name).isNotNull();
+		ReflectionUtils.makeAccessible(method);
+		return method;
+	}
+}
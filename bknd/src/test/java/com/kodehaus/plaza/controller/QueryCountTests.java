@@ -0,0 +1,87 @@
+package com.kodehaus.plaza.controller;
+
+import com.kodehaus.bknd.BkndApplication;
+import com.kodehaus.plaza.config.QueryCounter;
+import com.kodehaus.plaza.repository.RoleRepository;
+import com.kodehaus.plaza.security.JwtTokenProvider;
+import com.kodehaus.plaza.security.UserSnapshot;
+import com.kodehaus.plaza.service.CustomUserDetailsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Upper bound on the SQL statements of each read endpoint, so an N+1 fails the build.
+ * Needs the same database as BkndApplicationTests, with the seed data of DataInitializationService.
+ * Opt-in: mvn test -Dtest=QueryCountTests -Dintegration=true
+ */
+@SpringBootTest(classes = BkndApplication.class, properties = "jpa.query-count.enabled=true")
+@AutoConfigureMockMvc
+@EnabledIfSystemProperty(named = "integration", matches = "true")
+class QueryCountTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CustomUserDetailsService userDetailsService;
+
+	@Autowired
+	private RoleRepository roleRepository;
+
+	@Autowired
+	private JwtTokenProvider tokenProvider;
+
+	private final Map<String, Integer> bounds = new LinkedHashMap<>();
+
+	private String bearer;
+
+	@BeforeEach
+	void setUp() {
+		UserSnapshot manager = userDetailsService.loadUserByUsername("manager1");
+		bearer = "Bearer " + tokenProvider.generateToken(
+				new UsernamePasswordAuthenticationToken(manager, null, manager.getAuthorities()));
+		Long plazaId = manager.getPlazaId();
+		Long roleId = roleRepository.findByName("MANAGER").orElseThrow().getId();
+
+		// users: one page query plus one query for the roles of the whole page
+		bounds.put("/api/users", 2);
+		bounds.put("/api/users/" + manager.getId(), 2);
+		bounds.put("/api/roles", 1);
+		bounds.put("/api/roles/" + roleId, 1);
+		bounds.put("/api/managers/" + plazaId, 1);
+		bounds.put("/api/managers/" + plazaId + "/exists", 1);
+		bounds.put("/api/stores", 1);
+		bounds.put("/api/stores/1", 1);
+	}
+
+	@Test
+	void readEndpointsStayWithinStatementBounds() throws Exception {
+		List<Executable> checks = new ArrayList<>();
+		for (Map.Entry<String, Integer> bound : bounds.entrySet()) {
+			// first call warms the per-node caches, the second one is measured
+			mockMvc.perform(get(bound.getKey()).header("Authorization", bearer));
+			QueryCounter.reset();
+			mockMvc.perform(get(bound.getKey()).header("Authorization", bearer));
+			int queries = QueryCounter.current();
+			checks.add(() -> assertTrue(queries <= bound.getValue(),
+					bound.getKey() + " ran " + queries + " statements, bound is " + bound.getValue()));
+		}
+		assertAll(checks);
+	}
+}
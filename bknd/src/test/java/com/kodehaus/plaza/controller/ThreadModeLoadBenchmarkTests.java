@@ -0,0 +1,142 @@
+package com.kodehaus.plaza.controller;
+
+import com.kodehaus.bknd.BkndApplication;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput and p99 latency of GET /api/modules/plaza/{id} while the system-owner service (a local stub)
+ * takes EXTERNAL_DELAY to answer, with CLIENTS concurrent callers. Run it once per thread mode and compare:
+ * mvn test -Dtest=ThreadModeLoadBenchmarkTests -Dbenchmark=true -Dspring.threads.virtual.enabled=false|true
+ * Needs the database of BkndApplicationTests for the application context.
+ */
+@SpringBootTest(classes = BkndApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ThreadModeLoadBenchmarkTests {
+
+	private static final Duration EXTERNAL_DELAY = Duration.ofMillis(300);
+	private static final int CLIENTS = 600;
+	private static final Duration WARM_UP = Duration.ofSeconds(5);
+	private static final Duration MEASURED = Duration.ofSeconds(20);
+
+	private static final HttpServer systemOwner = startSystemOwnerStub();
+
+	@LocalServerPort
+	private int port;
+
+	@Value("${spring.threads.virtual.enabled:false}")
+	private boolean virtualThreads;
+
+	@DynamicPropertySource
+	static void systemOwnerUrl(DynamicPropertyRegistry registry) {
+		registry.add("external.system-owner.url", () -> "http://localhost:" + systemOwner.getAddress().getPort());
+	}
+
+	@AfterAll
+	static void stopStub() {
+		systemOwner.stop(0);
+	}
+
+	@Test
+	void slowExternalCallsUnderLoad() throws Exception {
+		HttpClient client = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.executor(Executors.newVirtualThreadPerTaskExecutor())
+			.build();
+		URI uri = URI.create("http://localhost:" + port + "/api/modules/plaza/benchmark");
+
+		run(client, uri, WARM_UP);
+		List<Long> latencies = run(client, uri, MEASURED);
+
+		Collections.sort(latencies);
+		long p50 = latencies.get(latencies.size() / 2);
+		long p99 = latencies.get((int) (latencies.size() * 0.99));
+		System.out.printf("%s threads: %,d requests in %d s, %,.0f req/s, p50 %d ms, p99 %d ms%n",
+			virtualThreads ? "virtual" : "platform", latencies.size(), MEASURED.toSeconds(),
+			latencies.size() / (double) MEASURED.toSeconds(), p50 / 1_000_000, p99 / 1_000_000);
+		assertThat(latencies).isNotEmpty();
+	}
+
+	/**
+	 * CLIENTS callers in a closed loop for the duration; latencies in nanos
+	 */
+	private List<Long> run(HttpClient client, URI uri, Duration duration) throws InterruptedException {
+		List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+		AtomicInteger failures = new AtomicInteger();
+		long deadline = System.nanoTime() + duration.toNanos();
+		try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < CLIENTS; i++) {
+				callers.submit(() -> {
+					while (System.nanoTime() < deadline) {
+						long started = System.nanoTime();
+						try {
+							HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri).build(),
+								HttpResponse.BodyHandlers.discarding());
+							if (response.statusCode() == 200) {
+								latencies.add(System.nanoTime() - started);
+							} else {
+								failures.incrementAndGet();
+							}
+						} catch (IOException e) {
+							failures.incrementAndGet();
+						}
+					}
+					return null;
+				});
+			}
+		}
+		if (failures.get() > 0) {
+			System.out.printf("%,d failed requests%n", failures.get());
+		}
+		return latencies;
+	}
+
+	private static HttpServer startSystemOwnerStub() {
+		try {
+			HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+			byte[] body = "[{\"id\":1,\"nombre\":\"Inventario\"}]".getBytes(StandardCharsets.UTF_8);
+			server.createContext("/api/modulos", exchange -> {
+				try {
+					Thread.sleep(EXTERNAL_DELAY);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				exchange.getResponseHeaders().set("Content-Type", "application/json");
+				exchange.sendResponseHeaders(200, body.length);
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(body);
+				}
+			});
+			server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+			server.start();
+			return server;
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
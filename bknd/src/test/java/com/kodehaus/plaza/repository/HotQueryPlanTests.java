@@ -0,0 +1,324 @@
+package com.kodehaus.plaza.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kodehaus.bknd.BkndApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plans of the hot repository queries on large tables: every statement a repository method sends is
+ * recorded with its bind values, replayed under EXPLAIN and must not scan products, bulletins, stores or users
+ * sequentially. The tables are seeded with SEEDED_PLAZAS plazas (and analyzed) first, so the planner sees
+ * per-plaza selectivity close to production; the seeded rows are deleted afterwards.
+ * Opt-in: mvn test -Dtest=HotQueryPlanTests -Dintegration=true, against the database of BkndApplicationTests.
+ */
+@SpringBootTest(classes = BkndApplication.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "integration", matches = "true")
+class HotQueryPlanTests {
+
+	private static final String PREFIX = "explain-";
+	private static final int SEEDED_PLAZAS = 40;
+	private static final int PRODUCTS_PER_PLAZA = 2_500;
+	private static final int BULLETINS_PER_PLAZA = 1_000;
+	private static final int STORES_PER_PLAZA = 250;
+	private static final int USERS_PER_PLAZA = 500;
+	private static final Set<String> LARGE_TABLES = Set.of("products", "bulletins", "stores", "users");
+
+	private record Recorded(String sql, List<Object[]> binds) {}
+
+	private static final ThreadLocal<List<Recorded>> RECORDING = new ThreadLocal<>();
+
+	@TestConfiguration
+	static class RecordingConfig {
+
+		@Bean
+		static BeanPostProcessor recordingDataSource() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					return bean instanceof DataSource dataSource ? new RecordingDataSource(dataSource) : bean;
+				}
+			};
+		}
+	}
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private BulletinRepository bulletinRepository;
+
+	@Autowired
+	private StoreRepository storeRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private Long plazaId;
+	private Long productId;
+	private Long storeId;
+	private Long userId;
+	private String username;
+
+	@BeforeAll
+	void seed() {
+		cleanUp();
+		jdbcTemplate.update("INSERT INTO plazas (name, address, phone_number, is_active, created_at, updated_at) " +
+				"SELECT ? || g, 'Calle ' || g, '000', true, now(), now() FROM generate_series(1, ?) g",
+				PREFIX, SEEDED_PLAZAS);
+		jdbcTemplate.update("INSERT INTO products (name, description, category, unit, price, is_active, is_available, " +
+				"created_at, updated_at, plaza_id) " +
+				"SELECT 'Producto ' || g, 'Sembrado', 'Categoria ' || (g % 20), 'kg', 1000 + g % 500, g % 10 <> 0, " +
+				"g % 3 <> 0, now(), now(), pl.id FROM plazas pl, generate_series(1, ?) g WHERE pl.name LIKE ?",
+				PRODUCTS_PER_PLAZA, PREFIX + "%");
+		jdbcTemplate.update("INSERT INTO stores (name, owner_name, is_active, created_at, updated_at, plaza_id) " +
+				"SELECT 'Local ' || g, 'Dueno', g % 10 <> 0, now(), now(), pl.id " +
+				"FROM plazas pl, generate_series(1, ?) g WHERE pl.name LIKE ?",
+				STORES_PER_PLAZA, PREFIX + "%");
+		jdbcTemplate.update("INSERT INTO users (username, email, password, first_name, last_name, is_active, " +
+				"created_at, updated_at, plaza_id) " +
+				"SELECT ? || pl.id || '-' || g, ? || pl.id || '-' || g || '@example.com', 'x', 'Usuario', 'Sembrado', " +
+				"g % 10 <> 0, now(), now(), pl.id FROM plazas pl, generate_series(1, ?) g WHERE pl.name LIKE ?",
+				PREFIX, PREFIX, USERS_PER_PLAZA, PREFIX + "%");
+		jdbcTemplate.update("INSERT INTO user_roles (user_id, role_id) " +
+				"SELECT u.id, (SELECT min(id) FROM roles) FROM users u WHERE u.username LIKE ?", PREFIX + "%");
+		jdbcTemplate.update("INSERT INTO bulletins (title, content, publication_date, is_active, created_at, updated_at, " +
+				"plaza_id, created_by) " +
+				"SELECT 'Boletin ' || g, 'Sembrado', CURRENT_DATE - (g % 1000), g % 10 <> 0, now(), now(), pl.id, " +
+				"(SELECT min(u.id) FROM users u WHERE u.plaza_id = pl.id) " +
+				"FROM plazas pl, generate_series(1, ?) g WHERE pl.name LIKE ?",
+				BULLETINS_PER_PLAZA, PREFIX + "%");
+		for (String table : List.of("plazas", "products", "stores", "users", "user_roles", "bulletins")) {
+			jdbcTemplate.execute("ANALYZE " + table);
+		}
+
+		plazaId = jdbcTemplate.queryForObject("SELECT min(id) FROM plazas WHERE name LIKE ?", Long.class, PREFIX + "%");
+		productId = jdbcTemplate.queryForObject("SELECT min(id) FROM products WHERE plaza_id = ?", Long.class, plazaId);
+		storeId = jdbcTemplate.queryForObject("SELECT min(id) FROM stores WHERE plaza_id = ?", Long.class, plazaId);
+		userId = jdbcTemplate.queryForObject("SELECT min(id) FROM users WHERE plaza_id = ?", Long.class, plazaId);
+		username = jdbcTemplate.queryForObject("SELECT username FROM users WHERE id = ?", String.class, userId);
+		jdbcTemplate.update("UPDATE users SET store_id = ? WHERE id = ?", storeId, userId);
+	}
+
+	@AfterAll
+	void cleanUp() {
+		String plazas = "(SELECT id FROM plazas WHERE name LIKE '" + PREFIX + "%')";
+		jdbcTemplate.update("DELETE FROM bulletins WHERE plaza_id IN " + plazas);
+		jdbcTemplate.update("DELETE FROM user_roles WHERE user_id IN (SELECT id FROM users WHERE plaza_id IN " + plazas + ")");
+		jdbcTemplate.update("DELETE FROM refresh_tokens WHERE user_id IN (SELECT id FROM users WHERE plaza_id IN " + plazas + ")");
+		jdbcTemplate.update("DELETE FROM users WHERE plaza_id IN " + plazas);
+		jdbcTemplate.update("DELETE FROM stores WHERE plaza_id IN " + plazas);
+		jdbcTemplate.update("DELETE FROM products WHERE plaza_id IN " + plazas);
+		jdbcTemplate.update("DELETE FROM plazas WHERE name LIKE ?", PREFIX + "%");
+	}
+
+	@Test
+	void hotQueriesUseIndexes() throws Exception {
+		LocalDate today = LocalDate.now();
+		Map<String, Runnable> queries = new LinkedHashMap<>();
+
+		queries.put("ProductRepository.findByPlazaIdAndIsActiveTrue", () -> productRepository.findByPlazaIdAndIsActiveTrue(plazaId));
+		queries.put("ProductRepository.findByPlazaIdAndIsActiveTrueAndIsAvailableTrue",
+				() -> productRepository.findByPlazaIdAndIsActiveTrueAndIsAvailableTrue(plazaId));
+		queries.put("ProductRepository.findByPlazaIdAndCategoryAndIsActiveTrue",
+				() -> productRepository.findByPlazaIdAndCategoryAndIsActiveTrue(plazaId, "Categoria 7"));
+		queries.put("ProductRepository.findByPlazaIdAndIsAvailableAndIsActiveTrue",
+				() -> productRepository.findByPlazaIdAndIsAvailableAndIsActiveTrue(plazaId, true));
+		queries.put("ProductRepository.findByIdAndPlazaIdAndIsActiveTrue",
+				() -> productRepository.findByIdAndPlazaIdAndIsActiveTrue(productId, plazaId));
+		queries.put("ProductRepository.findByPlazaIdAndNameContainingIgnoreCase",
+				() -> productRepository.findByPlazaIdAndNameContainingIgnoreCase(plazaId, "ducto 12"));
+		queries.put("ProductRepository.findDistinctCategoriesByPlazaId", () -> productRepository.findDistinctCategoriesByPlazaId(plazaId));
+		queries.put("ProductRepository.findByPlazaIdOrderByCategoryAndName",
+				() -> productRepository.findByPlazaIdOrderByCategoryAndName(plazaId));
+		queries.put("ProductRepository.findPageByPlazaId", () -> productRepository.findPageByPlazaId(plazaId, Limit.of(100)));
+		queries.put("ProductRepository.findPageByPlazaIdAfter",
+				() -> productRepository.findPageByPlazaIdAfter(plazaId, "Categoria 3", "Producto 1", 0L, Limit.of(100)));
+		queries.put("ProductRepository.findActiveDtosByPlazaId", () -> productRepository.findActiveDtosByPlazaId(plazaId));
+		queries.put("ProductRepository.findAvailableDtosByPlazaId", () -> productRepository.findAvailableDtosByPlazaId(plazaId));
+		queries.put("ProductRepository.findDtoByIdAndPlazaId", () -> productRepository.findDtoByIdAndPlazaId(productId, plazaId));
+		queries.put("ProductRepository.searchByName", () -> productRepository.searchByName(plazaId, "producto 12", 20));
+
+		queries.put("BulletinRepository.findByPlazaIdAndIsActiveTrue", () -> bulletinRepository.findByPlazaIdAndIsActiveTrue(plazaId));
+		queries.put("BulletinRepository.findByPlazaIdAndPublicationDate",
+				() -> bulletinRepository.findByPlazaIdAndPublicationDate(plazaId, today));
+		queries.put("BulletinRepository.findByPlazaIdAndPublicationDateBetween",
+				() -> bulletinRepository.findByPlazaIdAndPublicationDateBetween(plazaId, today.minusDays(7), today));
+		queries.put("BulletinRepository.findLatestByPlazaId", () -> bulletinRepository.findLatestByPlazaId(plazaId));
+		queries.put("BulletinRepository.findTodaysBulletinsByPlazaId", () -> bulletinRepository.findTodaysBulletinsByPlazaId(plazaId));
+		queries.put("BulletinRepository.findByCreatedById", () -> bulletinRepository.findByCreatedById(userId));
+		queries.put("BulletinRepository.findPageByPlazaId", () -> bulletinRepository.findPageByPlazaId(plazaId, Limit.of(100)));
+		queries.put("BulletinRepository.findPageByPlazaIdAfter", () -> bulletinRepository.findPageByPlazaIdAfter(plazaId,
+				today.minusDays(30), LocalDateTime.now(), Long.MAX_VALUE, Limit.of(100)));
+		queries.put("BulletinRepository.findTodaysDtosByPlazaId", () -> bulletinRepository.findTodaysDtosByPlazaId(plazaId));
+		queries.put("BulletinRepository.findDtosByPlazaIdAndPublicationDate",
+				() -> bulletinRepository.findDtosByPlazaIdAndPublicationDate(plazaId, today));
+
+		queries.put("StoreRepository.findByPlazaId", () -> storeRepository.findByPlazaId(plazaId));
+		queries.put("StoreRepository.findByPlazaIdAndIsActiveTrue", () -> storeRepository.findByPlazaIdAndIsActiveTrue(plazaId));
+		queries.put("StoreRepository.existsByNameAndPlazaId", () -> storeRepository.existsByNameAndPlazaId("Local 7", plazaId));
+		queries.put("StoreRepository.findPageByPlazaId", () -> storeRepository.findPageByPlazaId(plazaId, Limit.of(100)));
+		queries.put("StoreRepository.findPageByPlazaIdAfter",
+				() -> storeRepository.findPageByPlazaIdAfter(plazaId, "Local 1", 0L, Limit.of(100)));
+		queries.put("StoreRepository.findDtoByIdAndPlazaId", () -> storeRepository.findDtoByIdAndPlazaId(storeId, plazaId));
+
+		queries.put("UserRepository.findByUsername", () -> userRepository.findByUsername(username));
+		queries.put("UserRepository.findByPlazaId", () -> userRepository.findByPlazaId(plazaId));
+		queries.put("UserRepository.findByPlazaIdAndIsActiveTrue", () -> userRepository.findByPlazaIdAndIsActiveTrue(plazaId));
+		queries.put("UserRepository.findPageByPlazaId", () -> userRepository.findPageByPlazaId(plazaId, Limit.of(100)));
+		queries.put("UserRepository.findPageByPlazaIdAfter", () -> userRepository.findPageByPlazaIdAfter(plazaId, 0L, Limit.of(100)));
+		queries.put("UserRepository.findByPlazaIdAndRoleName",
+				() -> userRepository.findByPlazaIdAndRoleName(plazaId, "MANAGER"));
+		queries.put("UserRepository.findByStoreIdAndIsActiveTrue", () -> userRepository.findByStoreIdAndIsActiveTrue(storeId));
+		queries.put("UserRepository.findAuthzVersionsChangedSince",
+				() -> userRepository.findAuthzVersionsChangedSince(LocalDateTime.now().minusMinutes(1)));
+
+		List<String> sequentialScans = new ArrayList<>();
+		for (Map.Entry<String, Runnable> query : queries.entrySet()) {
+			for (Recorded statement : record(query.getValue())) {
+				JsonNode plan = explain(statement);
+				List<String> scanned = new ArrayList<>();
+				collectSequentialScans(plan.get(0).get("Plan"), scanned);
+				System.out.printf("%-70s %s%n", query.getKey(), scanned.isEmpty() ? "ok" : "Seq Scan on " + scanned);
+				if (!scanned.isEmpty()) {
+					sequentialScans.add(query.getKey() + " scans " + scanned + ": " + statement.sql());
+				}
+			}
+		}
+		assertThat(sequentialScans).isEmpty();
+	}
+
+	private static List<Recorded> record(Runnable query) {
+		List<Recorded> statements = new ArrayList<>();
+		RECORDING.set(statements);
+		try {
+			query.run();
+		} finally {
+			RECORDING.remove();
+		}
+		assertThat(statements).isNotEmpty();
+		return statements;
+	}
+
+	/**
+	 * Replays the statement's bind calls on EXPLAIN of the same SQL, so the plan is the one its values get
+	 */
+	private JsonNode explain(Recorded statement) throws Exception {
+		try (Connection connection = dataSource.getConnection();
+			 PreparedStatement explain = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + statement.sql())) {
+			for (Object[] bind : statement.binds()) {
+				Method setter = (Method) bind[0];
+				setter.invoke(explain, (Object[]) bind[1]);
+			}
+			try (ResultSet rs = explain.executeQuery()) {
+				rs.next();
+				return objectMapper.readTree(rs.getString(1));
+			}
+		}
+	}
+
+	private static void collectSequentialScans(JsonNode node, List<String> scanned) {
+		if ("Seq Scan".equals(node.path("Node Type").asText()) && LARGE_TABLES.contains(node.path("Relation Name").asText())) {
+			scanned.add(node.path("Relation Name").asText());
+		}
+		for (JsonNode child : node.path("Plans")) {
+			collectSequentialScans(child, scanned);
+		}
+	}
+
+	/**
+	 * Records the SQL and the set* calls of the prepared statements run on the current thread while recording
+	 */
+	static class RecordingDataSource extends DelegatingDataSource {
+
+		RecordingDataSource(DataSource target) {
+			super(target);
+		}
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			return wrap(super.getConnection());
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) throws SQLException {
+			return wrap(super.getConnection(username, password));
+		}
+
+		private static Connection wrap(Connection connection) {
+			return (Connection) Proxy.newProxyInstance(HotQueryPlanTests.class.getClassLoader(),
+					new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+						Object result = invoke(connection, method, args);
+						if (method.getName().equals("prepareStatement") && RECORDING.get() != null) {
+							return statement((PreparedStatement) result, (String) args[0]);
+						}
+						return result;
+					});
+		}
+
+		private static PreparedStatement statement(PreparedStatement target, String sql) {
+			List<Object[]> binds = new ArrayList<>();
+			return (PreparedStatement) Proxy.newProxyInstance(HotQueryPlanTests.class.getClassLoader(),
+					new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+						if (method.getName().startsWith("set") && args != null && args.length > 1 && args[0] instanceof Integer) {
+							binds.add(new Object[] {method, args.clone()});
+						} else if (method.getName().startsWith("execute") && (args == null || args.length == 0)) {
+							List<Recorded> recording = RECORDING.get();
+							if (recording != null) {
+								recording.add(new Recorded(sql, List.copyOf(binds)));
+							}
+						} else if (method.getName().equals("clearParameters")) {
+							binds.clear();
+						}
+						return invoke(target, method, args);
+					});
+		}
+
+		private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+}
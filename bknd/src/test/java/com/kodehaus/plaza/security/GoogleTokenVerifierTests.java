@@ -0,0 +1,120 @@
+package com.kodehaus.plaza.security;
+
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyFactory;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * GoogleTokenVerifier against a file-backed key set (google/certs.json, the certificate of google/signing-key.pem)
+ */
+class GoogleTokenVerifierTests {
+
+	private static final String EMAIL = "cliente@example.com";
+
+	@TempDir
+	Path directory;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private GoogleTokenVerifier verifier;
+
+	@AfterEach
+	void stopRefresher() {
+		if (verifier != null) {
+			verifier.shutdown();
+		}
+	}
+
+	private GoogleTokenVerifier verifier(Path keySet) {
+		verifier = new GoogleTokenVerifier();
+		ReflectionTestUtils.setField(verifier, "certsUrl", keySet.toUri().toString());
+		ReflectionTestUtils.setField(verifier, "negativeCacheMaxSize", 100L);
+		ReflectionTestUtils.setField(verifier, "negativeCacheTtl", Duration.ofMinutes(5));
+		ReflectionTestUtils.setField(verifier, "meterRegistry", meterRegistry);
+		verifier.init();
+		return verifier;
+	}
+
+	private double rejected() {
+		return meterRegistry.get("cache.size").tag("cache", "google.rejected-tokens").gauge().value();
+	}
+
+	private static String idToken(PrivateKey key) {
+		return Jwts.builder()
+				.header().keyId("plaza-test").and()
+				.issuer("https://accounts.google.com")
+				.audience().add("plaza-client").and()
+				.subject("1234567890")
+				.claim("email", EMAIL)
+				.issuedAt(new Date())
+				.expiration(new Date(System.currentTimeMillis() + 3_600_000))
+				.signWith(key, Jwts.SIG.RS256)
+				.compact();
+	}
+
+	private static PrivateKey signingKey() throws Exception {
+		try (InputStream in = GoogleTokenVerifierTests.class.getResourceAsStream("/google/signing-key.pem")) {
+			String pem = new String(in.readAllBytes(), StandardCharsets.US_ASCII)
+					.replaceAll("-----[A-Z ]+-----", "")
+					.replaceAll("\\s", "");
+			return KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(pem)));
+		}
+	}
+
+	private Path keySetFile() throws IOException {
+		Path keySet = directory.resolve("certs.json");
+		try (InputStream in = getClass().getResourceAsStream("/google/certs.json")) {
+			Files.copy(in, keySet);
+		}
+		return keySet;
+	}
+
+	@Test
+	void acceptsTokenSignedWithKeyOfKeySet() throws Exception {
+		GoogleTokenVerifier verifier = verifier(keySetFile());
+
+		assertEquals(EMAIL, verifier.verifyEmail(idToken(signingKey())));
+		assertEquals(0, rejected());
+	}
+
+	@Test
+	void remembersDefinitiveRejections() throws Exception {
+		GoogleTokenVerifier verifier = verifier(keySetFile());
+		PrivateKey otherKey = KeyPairGenerator.getInstance("RSA").generateKeyPair().getPrivate();
+
+		assertNull(verifier.verifyEmail(idToken(otherKey)));
+		assertNull(verifier.verifyEmail("not-a-jwt"));
+		assertEquals(2, rejected());
+	}
+
+	@Test
+	void doesNotRememberTokensCheckedDuringKeySetOutage() throws Exception {
+		Path keySet = directory.resolve("certs.json");
+		GoogleTokenVerifier verifier = verifier(keySet);
+		String token = idToken(signingKey());
+
+		assertNull(verifier.verifyEmail(token));
+		assertEquals(0, rejected());
+
+		keySetFile();
+		assertEquals(EMAIL, verifier.verifyEmail(token));
+	}
+}
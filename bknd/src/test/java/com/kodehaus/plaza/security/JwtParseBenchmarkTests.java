@@ -0,0 +1,66 @@
+package com.kodehaus.plaza.security;
+
+import com.kodehaus.plaza.benchmark.Microbenchmark;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reading the claims of one access token: the previous per-claim path (signing key derived and parser built
+ * on every call, the token verified once per claim: validity, username, plazaId, plazaName, plazaUuid and
+ * expiry) against JwtTokenProvider.parse (key and parser built once, one verification for all claims),
+ * at 1, 8 and 32 threads.
+ * Opt-in: mvn test -Dtest=JwtParseBenchmarkTests -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JwtParseBenchmarkTests {
+
+	private static final String SECRET =
+			"mySecretKeyForJWTTokenGenerationAndValidationMustBeAtLeast512BitsLong12345678901234567890";
+
+	private final String token = Jwts.builder()
+			.id(UUID.randomUUID().toString())
+			.subject("manager1")
+			.issuedAt(new Date())
+			.expiration(new Date(System.currentTimeMillis() + 3_600_000))
+			.claim("roles", List.of("MANAGER"))
+			.claim("userId", 1L)
+			.claim("authzVersion", 0L)
+			.claim("plazaId", 1L)
+			.claim("plazaName", "Plaza Central")
+			.claim("plazaUuid", UUID.randomUUID().toString())
+			.signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+			.compact();
+
+	@Test
+	void parseOnceAgainstPerClaimVerification() throws Exception {
+		JwtTokenProvider provider = new JwtTokenProvider();
+		ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+		provider.init();
+
+		List<Double> perClaim = Microbenchmark.report("per-claim verification (6 claims)", call -> {
+			Claims claims = null;
+			for (int claim = 0; claim < 6; claim++) {
+				claims = Jwts.parser()
+						.verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+						.build()
+						.parseSignedClaims(token)
+						.getPayload();
+			}
+			return claims.getSubject();
+		}, 1, 8, 32);
+		List<Double> parsed = Microbenchmark.report("JwtTokenProvider.parse", call -> provider.parse(token).username(),
+				1, 8, 32);
+
+		assertThat(parsed.get(0)).isLessThan(perClaim.get(0));
+	}
+}
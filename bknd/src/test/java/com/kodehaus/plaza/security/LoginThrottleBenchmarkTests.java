@@ -0,0 +1,53 @@
+package com.kodehaus.plaza.security;
+
+import com.kodehaus.plaza.benchmark.Microbenchmark;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cost of LoginThrottle.checkAttempt over 100k usernames and 10k client addresses at 1, 8 and 32 threads, with
+ * limits high enough that nothing is rejected, so only the counting is measured. Once with room for every key,
+ * once with the default login-throttle.max-keys, where the distinct usernames of a credential-stuffing run keep
+ * evicting each other.
+ * Opt-in: mvn test -Dtest=LoginThrottleBenchmarkTests -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LoginThrottleBenchmarkTests {
+
+	private static final String[] USERNAMES = new String[100_000];
+	private static final String[] ADDRESSES = new String[10_000];
+
+	static {
+		for (int i = 0; i < USERNAMES.length; i++) {
+			USERNAMES[i] = "user" + i;
+		}
+		for (int i = 0; i < ADDRESSES.length; i++) {
+			ADDRESSES[i] = "10." + (i >> 8 & 255) + "." + (i & 255) + ".1";
+		}
+	}
+
+	@Test
+	void checkAttemptCostsWellUnderAMicrosecond() throws Exception {
+		List<Double> resident = measure("checkAttempt, keys resident", 1_000_000);
+		measure("checkAttempt, keys evicted", 100_000);
+
+		assertThat(resident.get(0)).isLessThan(1_000.0);
+	}
+
+	private static List<Double> measure(String label, int maxKeys) throws InterruptedException {
+		LoginThrottle throttle = new LoginThrottle(Duration.ofMinutes(1), Integer.MAX_VALUE, Integer.MAX_VALUE,
+				maxKeys, new SimpleMeterRegistry(), System::currentTimeMillis);
+		return Microbenchmark.report(label, call -> {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			throttle.checkAttempt(USERNAMES[random.nextInt(USERNAMES.length)], ADDRESSES[random.nextInt(ADDRESSES.length)]);
+			return null;
+		}, 1, 8, 32);
+	}
+}
@@ -0,0 +1,99 @@
+package com.kodehaus.plaza.security;
+
+import com.kodehaus.plaza.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.autoconfigure.web.embedded.TomcatWebServerFactoryCustomizer;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.support.ResourcePropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The login throttle behind a proxy: with the server settings of application.properties, clients forwarded
+ * by a trusted proxy are counted by their own address, not the proxy's.
+ */
+class LoginThrottleForwardedClientTests {
+
+	private static final int MAX_PER_IP = 3;
+
+	private final LoginThrottle throttle =
+			new LoginThrottle(Duration.ofMinutes(1), 100, MAX_PER_IP, 1000, new SimpleMeterRegistry(), () -> 60_000L);
+	private final HttpClient client = HttpClient.newHttpClient();
+	private WebServer server;
+
+	@BeforeEach
+	void startServer() throws Exception {
+		StandardEnvironment environment = new StandardEnvironment();
+		environment.getPropertySources().addFirst(new ResourcePropertySource("classpath:application.properties"));
+		ServerProperties serverProperties = Binder.get(environment).bind("server", ServerProperties.class).get();
+
+		TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+		new TomcatWebServerFactoryCustomizer(environment, serverProperties).customize(factory);
+		// the same key AuthController.login passes
+		HttpServlet login = new HttpServlet() {
+			@Override
+			protected void doPost(HttpServletRequest request, HttpServletResponse response) {
+				try {
+					throttle.checkAttempt(request.getParameter("username"), request.getRemoteAddr());
+					response.setStatus(200);
+				} catch (TooManyRequestsException e) {
+					response.setStatus(429);
+				}
+			}
+		};
+		server = factory.getWebServer(context -> context.addServlet("login", login).addMapping("/login"));
+		server.start();
+	}
+
+	@AfterEach
+	void stopServer() {
+		server.stop();
+	}
+
+	private int login(String username, String forwardedFor) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(
+						URI.create("http://127.0.0.1:" + server.getPort() + "/login?username=" + username))
+				.header("X-Forwarded-For", forwardedFor)
+				.POST(HttpRequest.BodyPublishers.noBody())
+				.build();
+		return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+	}
+
+	@Test
+	void forwardedClientsGetSeparateBuckets() throws Exception {
+		for (int i = 0; i < MAX_PER_IP; i++) {
+			assertEquals(200, login("a" + i, "203.0.113.10"));
+		}
+		assertEquals(429, login("other", "203.0.113.10"));
+
+		// another client through the same proxy is not affected
+		for (int i = 0; i < MAX_PER_IP; i++) {
+			assertEquals(200, login("b" + i, "198.51.100.20"));
+		}
+	}
+
+	@Test
+	void spoofedLeadingAddressesDoNotOpenNewBuckets() throws Exception {
+		// only the address appended by the trusted proxy counts, not what the client put before it
+		for (int i = 0; i < MAX_PER_IP; i++) {
+			assertEquals(200, login("c" + i, "192.0.2." + i + ", 203.0.113.30"));
+		}
+		assertEquals(429, login("other", "192.0.2.99, 203.0.113.30"));
+	}
+}
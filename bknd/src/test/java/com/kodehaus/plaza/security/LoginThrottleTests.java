@@ -0,0 +1,64 @@
+package com.kodehaus.plaza.security;
+
+import com.kodehaus.plaza.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoginThrottleTests {
+
+	private final AtomicLong now = new AtomicLong(60_000);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final LoginThrottle throttle =
+			new LoginThrottle(Duration.ofMinutes(1), 3, 5, 1000, meterRegistry, now::get);
+
+	@Test
+	void blocksUsernameOverLimitCaseInsensitively() {
+		throttle.checkAttempt("Alice", "10.0.0.1");
+		throttle.checkAttempt("alice", "10.0.0.2");
+		throttle.checkAttempt("ALICE ", "10.0.0.3");
+		TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+				() -> throttle.checkAttempt("alice", "10.0.0.4"));
+		assertEquals(60, ex.getRetryAfterSeconds());
+		assertEquals(1.0, meterRegistry.get("auth.login.throttled").tag("key", "username").counter().count());
+		assertDoesNotThrow(() -> throttle.checkAttempt("bob", "10.0.0.4"));
+	}
+
+	@Test
+	void blocksIpAcrossUsernames() {
+		for (int i = 0; i < 5; i++) {
+			throttle.checkAttempt("user" + i, "10.0.0.1");
+		}
+		assertThrows(TooManyRequestsException.class, () -> throttle.checkAttempt("other", "10.0.0.1"));
+		assertEquals(1.0, meterRegistry.get("auth.login.throttled").tag("key", "ip").counter().count());
+	}
+
+	@Test
+	void previousWindowFadesOut() {
+		for (int i = 0; i < 3; i++) {
+			throttle.checkAttempt("alice", null);
+		}
+		// a quarter into the next window, 3 * 0.75 = 2.25 attempts still count
+		now.addAndGet(75_000);
+		assertDoesNotThrow(() -> throttle.checkAttempt("alice", null));
+		assertThrows(TooManyRequestsException.class, () -> throttle.checkAttempt("alice", null));
+		// two windows later nothing is left
+		now.addAndGet(120_000);
+		assertDoesNotThrow(() -> throttle.checkAttempt("alice", null));
+	}
+
+	@Test
+	void resetClearsUsername() {
+		for (int i = 0; i < 3; i++) {
+			throttle.checkAttempt("alice", null);
+		}
+		throttle.reset("Alice");
+		assertDoesNotThrow(() -> throttle.checkAttempt("alice", null));
+	}
+}
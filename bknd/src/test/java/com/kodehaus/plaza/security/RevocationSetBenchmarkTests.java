@@ -0,0 +1,60 @@
+package com.kodehaus.plaza.security;
+
+import com.kodehaus.plaza.benchmark.Microbenchmark;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * RevocationSet.isRevoked with REVOKED live revocations at the default false-positive rate
+ * (jwt.revocation.*): clean token ids, the case of nearly every request, answered by the Bloom filter alone,
+ * and revoked ids, confirmed against the exact set, at 1, 8 and 32 threads.
+ * Opt-in: mvn test -Dtest=RevocationSetBenchmarkTests -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RevocationSetBenchmarkTests {
+
+	private static final int REVOKED = 100_000;
+	private static final int CLEAN = 100_000;
+
+	@Test
+	void checkCleanAndRevokedIds() throws Exception {
+		RevocationSet set = new RevocationSet(REVOKED, 0.001);
+		Instant later = Instant.now().plusSeconds(3600);
+		String[] revoked = new String[REVOKED];
+		for (int i = 0; i < REVOKED; i++) {
+			revoked[i] = UUID.randomUUID().toString();
+			set.add(revoked[i], later);
+		}
+		String[] clean = new String[CLEAN];
+		for (int i = 0; i < CLEAN; i++) {
+			clean[i] = UUID.randomUUID().toString();
+		}
+
+		List<Double> cleanNanos = Microbenchmark.report("isRevoked, clean ids",
+				call -> set.isRevoked(clean[(int) (call % CLEAN)]), 1, 8, 32);
+		Microbenchmark.report("isRevoked, revoked ids", call -> set.isRevoked(revoked[(int) (call % REVOKED)]), 1, 8, 32);
+		double falsePositiveRate = falsePositiveRate(set, clean);
+		System.out.printf("%,d revocations: filter %,d KB, observed false-positive rate %.5f%n",
+				set.size(), set.filterBits() / 8 / 1024, falsePositiveRate);
+
+		assertThat(cleanNanos.get(0)).isLessThan(1_000.0);
+		assertThat(falsePositiveRate).isLessThan(0.002);
+	}
+
+	/**
+	 * Share of clean ids that hit the filter and had to be confirmed against the exact set
+	 */
+	private static double falsePositiveRate(RevocationSet set, String[] clean) {
+		long before = set.falsePositives();
+		for (String id : clean) {
+			assertThat(set.isRevoked(id)).isFalse();
+		}
+		return (double) (set.falsePositives() - before) / clean.length;
+	}
+}
@@ -0,0 +1,53 @@
+package com.kodehaus.plaza.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RevocationSetTests {
+
+	private static final Instant LATER = Instant.now().plusSeconds(900);
+
+	@Test
+	void revokedIdsAreAlwaysFound() {
+		RevocationSet set = new RevocationSet(1000, 0.001);
+		for (int i = 0; i < 1000; i++) {
+			set.add("jti-" + i, LATER);
+		}
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(set.isRevoked("jti-" + i));
+		}
+		assertFalse(set.isRevoked(null));
+	}
+
+	@Test
+	void filterFalsePositivesAreRejectedByExactSet() {
+		// one 64-bit word and one hash: about 1 in 64 clean ids hits the revoked id's bit
+		RevocationSet set = new RevocationSet(1, 0.5);
+		set.add("revoked", LATER);
+
+		int clean = 1000;
+		for (int i = 0; i < clean; i++) {
+			assertFalse(set.isRevoked("clean-" + i));
+		}
+		assertTrue(set.falsePositives() > 0);
+		assertTrue(set.isRevoked("revoked"));
+	}
+
+	@Test
+	void purgeDropsExpiredAndKeepsLive() {
+		RevocationSet set = new RevocationSet(100, 0.01);
+		Instant now = Instant.now();
+		set.add("expired", now.minusSeconds(1));
+		set.add("live", LATER);
+
+		assertEquals(1, set.purgeExpired(now));
+		assertEquals(1, set.size());
+		assertFalse(set.isRevoked("expired"));
+		assertTrue(set.isRevoked("live"));
+	}
+}
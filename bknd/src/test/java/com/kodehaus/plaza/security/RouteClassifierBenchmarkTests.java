@@ -0,0 +1,59 @@
+package com.kodehaus.plaza.security;
+
+import com.kodehaus.plaza.benchmark.Microbenchmark;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.util.AntPathMatcher;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Classifying the request paths of RouteClassifierTests: the previous JwtAuthenticationFilter.isPublicPath
+ * (AntPathMatcher over the public patterns, per request) against the shared RouteClassifier, in time per path
+ * at 1, 8 and 32 threads and in heap allocated per path.
+ * Opt-in: mvn test -Dtest=RouteClassifierBenchmarkTests -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RouteClassifierBenchmarkTests {
+
+	// JwtAuthenticationFilter.PUBLIC_PATHS before the classifier
+	private static final List<String> PUBLIC_PATHS = List.of(
+			"/actuator/**", "/api/auth/**", "/api/plazas/externo", "/api/managers/register", "/h2-console/**",
+			"/error", "/swagger-ui/**", "/v3/api-docs/**", "/swagger/**", "/swagger-ui.html", "/v3/api-docs/**",
+			"/swagger-resources/**", "/webjars/**");
+
+	private static final String[] PATHS = RouteClassifierTests.ROUTES.keySet().toArray(new String[0]);
+
+	@Test
+	void classifierAgainstAntPatterns() throws Exception {
+		AntPathMatcher pathMatcher = new AntPathMatcher();
+		RouteClassifier classifier = new RouteClassifier();
+		Function<String, Object> antPatterns = path -> PUBLIC_PATHS.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+		Function<String, Object> trie = classifier::classify;
+
+		List<Double> ant = Microbenchmark.report("AntPathMatcher over PUBLIC_PATHS", call -> antPatterns.apply(PATHS[(int) (call % PATHS.length)]),
+				1, 8, 32);
+		List<Double> classified = Microbenchmark.report("RouteClassifier.classify", call -> trie.apply(PATHS[(int) (call % PATHS.length)]),
+				1, 8, 32);
+		long antBytes = bytesPerPath(antPatterns);
+		long classifierBytes = bytesPerPath(trie);
+		System.out.printf("allocated per path: AntPathMatcher %d bytes, RouteClassifier %d bytes%n", antBytes, classifierBytes);
+
+		assertThat(classified.get(0)).isLessThan(ant.get(0));
+		assertThat(classifierBytes).isZero();
+	}
+
+	private static long bytesPerPath(Function<String, Object> classify) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		int rounds = 100_000;
+		long started = threads.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < rounds * PATHS.length; i++) {
+			Microbenchmark.sink += classify.apply(PATHS[i % PATHS.length]).hashCode();
+		}
+		return (threads.getCurrentThreadAllocatedBytes() - started) / ((long) rounds * PATHS.length);
+	}
+}
@@ -0,0 +1,71 @@
+package com.kodehaus.plaza.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteClassifierTests {
+
+	static final Map<String, RouteAccess> ROUTES = new LinkedHashMap<>();
+
+	static {
+		ROUTES.put("/api/auth/login", RouteAccess.PUBLIC);
+		ROUTES.put("/api/auth/external-register", RouteAccess.PUBLIC);
+		ROUTES.put("/api/auth", RouteAccess.PUBLIC);
+		ROUTES.put("/api/auth/me", RouteAccess.OPTIONAL);
+		ROUTES.put("/actuator/health", RouteAccess.PUBLIC);
+		ROUTES.put("/actuator/metrics/jwt.verified-tokens.gets", RouteAccess.PUBLIC);
+		ROUTES.put("/error", RouteAccess.PUBLIC);
+		ROUTES.put("/v3/api-docs", RouteAccess.PUBLIC);
+		ROUTES.put("/v3/api-docs/swagger-config", RouteAccess.PUBLIC);
+		ROUTES.put("/swagger-ui/index.html", RouteAccess.PUBLIC);
+		ROUTES.put("/swagger-ui.html", RouteAccess.PUBLIC);
+		ROUTES.put("/webjars/swagger-ui/index.css", RouteAccess.PUBLIC);
+		ROUTES.put("/api/modulos", RouteAccess.OPTIONAL);
+		ROUTES.put("/api/modulos/plaza/abc", RouteAccess.OPTIONAL);
+		ROUTES.put("/api/plazas/externo", RouteAccess.API_KEY);
+		ROUTES.put("/api/users/externo", RouteAccess.OPTIONAL);
+		ROUTES.put("/api/managers/register", RouteAccess.API_KEY);
+		ROUTES.put("/api/modules", RouteAccess.AUTHENTICATED);
+		ROUTES.put("/api/products", RouteAccess.AUTHENTICATED);
+		ROUTES.put("/api/products/12", RouteAccess.AUTHENTICATED);
+		ROUTES.put("/api/products/search", RouteAccess.AUTHENTICATED);
+		ROUTES.put("/api/plazas/externo/1", RouteAccess.AUTHENTICATED);
+		ROUTES.put("/api/authx", RouteAccess.AUTHENTICATED);
+		ROUTES.put("/errors", RouteAccess.AUTHENTICATED);
+		ROUTES.put("/", RouteAccess.AUTHENTICATED);
+	}
+
+	private final RouteClassifier classifier = new RouteClassifier();
+
+	@Test
+	void classifiesRouteTable() {
+		ROUTES.forEach((path, expected) -> assertEquals(expected, classifier.classify(path), path));
+	}
+
+	@Test
+	void ignoresContextPath() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/app/api/auth/login");
+		request.setContextPath("/app");
+		assertEquals(RouteAccess.PUBLIC, classifier.classify(request));
+	}
+
+	@Test
+	void securityConfigAndJwtFilterAgree() {
+		RequestMatcher permitAll = classifier.permitAllMatcher();
+		ROUTES.forEach((path, expected) -> {
+			MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+			boolean permitted = permitAll.matches(request);
+			boolean readsJwt = classifier.classify(request).readsJwt();
+			// a route the filter skips must never be one that Spring Security protects
+			assertTrue(permitted || readsJwt, path);
+			assertEquals(expected != RouteAccess.AUTHENTICATED, permitted, path);
+		});
+	}
+}
@@ -0,0 +1,56 @@
+package com.kodehaus.plaza.security;
+
+import com.kodehaus.plaza.entity.Plaza;
+import com.kodehaus.plaza.entity.Role;
+import com.kodehaus.plaza.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UserSnapshotTests {
+
+	private static User manager() {
+		Plaza plaza = new Plaza();
+		plaza.setId(7L);
+		plaza.setName("Plaza Central");
+		Role role = new Role();
+		role.setName(Role.GERENTE);
+		User user = new User();
+		user.setId(1L);
+		user.setUsername("manager1");
+		user.setPassword("hash");
+		user.setIsActive(true);
+		user.setAuthzVersion(3L);
+		user.setPlaza(plaza);
+		user.setRoles(new HashSet<>(Set.of(role)));
+		return user;
+	}
+
+	@Test
+	void keepsValuesWhenEntityChangesLater() {
+		User user = manager();
+		UserSnapshot snapshot = UserSnapshot.of(user);
+
+		user.setUsername("renamed");
+		user.getPlaza().setId(8L);
+		user.getRoles().clear();
+		user.setAuthzVersion(4L);
+
+		assertEquals("manager1", snapshot.getUsername());
+		assertEquals(7L, snapshot.getPlazaId());
+		assertEquals(List.of(Role.GERENTE), snapshot.getRoles());
+		assertEquals(3L, snapshot.getAuthzVersion());
+	}
+
+	@Test
+	void rolesCannotBeModified() {
+		UserSnapshot snapshot = UserSnapshot.of(manager());
+
+		assertThrows(UnsupportedOperationException.class, () -> snapshot.getRoles().add("ADMIN"));
+	}
+}
@@ -0,0 +1,24 @@
+package com.kodehaus.plaza.service;
+
+import com.kodehaus.plaza.entity.Role;
+import com.kodehaus.plaza.security.AuthorityMask;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuthorityRegistryTests {
+
+	private final AuthorityRegistry registry = new AuthorityRegistry(null, null);
+
+	@Test
+	void roleNamesMatchIgnoringCase() {
+		AuthorityMask admins = registry.roleMask(List.of("ADMIN", Role.GERENTE));
+
+		assertTrue(registry.roleMask(List.of("admin")).intersects(admins));
+		assertTrue(registry.roleMask(List.of("Gerente")).intersects(admins));
+		assertFalse(registry.roleMask(List.of("EMPLOYEE_GENERAL")).intersects(admins));
+	}
+}
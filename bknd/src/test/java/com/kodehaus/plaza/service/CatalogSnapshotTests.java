@@ -0,0 +1,101 @@
+package com.kodehaus.plaza.service;
+
+import com.kodehaus.plaza.dto.ProductResponseDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogSnapshotTests {
+
+	private static ProductResponseDto product(long id, String category, String name, boolean active, boolean available) {
+		return product(id, category, name, active, available, 0L);
+	}
+
+	private static ProductResponseDto product(long id, String category, String name, boolean active, boolean available,
+			long version) {
+		return new ProductResponseDto(id, name, null, category, "kg", BigDecimal.TEN, active, available,
+				null, null, version, 1L, "Plaza");
+	}
+
+	private static List<Long> ids(List<ProductResponseDto> products) {
+		return products.stream().map(ProductResponseDto::getId).toList();
+	}
+
+	@Test
+	void sortsAndPrecomputesViews() {
+		CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(
+				product(3, "Verduras", "Tomate", true, true),
+				product(1, "Frutas", "Mango", true, false),
+				product(2, "Frutas", "Banano", true, true)));
+
+		assertEquals(List.of(2L, 1L, 3L), ids(snapshot.products()));
+		assertEquals(List.of(2L, 3L), ids(snapshot.available()));
+		assertEquals(List.of("Frutas", "Verduras"), snapshot.categories());
+		assertTrue(snapshot.estimatedBytes() > 0);
+	}
+
+	@Test
+	void pagesByKeysetCursor() {
+		CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(
+				product(1, "A", "a", true, true),
+				product(2, "A", "b", true, true),
+				product(3, "B", "a", true, true)));
+
+		assertEquals(List.of(1L, 2L), ids(snapshot.first(2)));
+		assertEquals(List.of(3L), ids(snapshot.after("A", "b", 2L, 2)));
+		// a cursor whose row has since been removed still resumes after it
+		assertEquals(List.of(2L, 3L), ids(snapshot.after("A", "aa", 9L, 5)));
+	}
+
+	@Test
+	void copyOnWriteLeavesTheOriginalUntouched() {
+		CatalogSnapshot original = CatalogSnapshot.of(List.of(
+				product(1, "A", "a", true, true),
+				product(2, "B", "b", true, true)));
+
+		CatalogSnapshot updated = original.with(List.of(
+				product(1, "C", "a", true, false),
+				product(3, "A", "z", true, true),
+				product(2, "B", "b", false, true)));
+
+		assertEquals(List.of(1L, 2L), ids(original.products()));
+		assertEquals(List.of(3L, 1L), ids(updated.products()));
+		assertEquals(List.of(3L), ids(updated.available()));
+		assertEquals(List.of("A", "C"), updated.categories());
+		assertEquals(List.of(3L), ids(updated.without(1L).products()));
+	}
+
+	@Test
+	void keepsTheNewerVersionOfAProduct() {
+		CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(product(1, "A", "a", true, true, 5L)));
+
+		CatalogSnapshot stale = snapshot.with(List.of(product(1, "A", "a", false, true, 4L)));
+		assertEquals(List.of(1L), ids(stale.products()));
+		assertEquals(5L, stale.products().get(0).getVersion());
+
+		CatalogSnapshot racing = snapshot.with(List.of(
+				product(1, "B", "a", true, true, 7L),
+				product(1, "C", "a", true, true, 6L)));
+		assertEquals(List.of("B"), racing.categories());
+		assertEquals(7L, racing.products().get(0).getVersion());
+	}
+
+	@Test
+	void toleratesRowsWithoutCategoryOrName() {
+		CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(
+				product(2, "A", "a", true, true),
+				product(1, null, null, true, true)));
+
+		assertEquals(List.of(1L, 2L), ids(snapshot.products()));
+		assertNull(snapshot.products().get(0).getCategory());
+		assertNull(snapshot.products().get(0).getName());
+		assertEquals(List.of("A"), snapshot.categories());
+		assertEquals(List.of(2L), ids(snapshot.after("", "", 1L, 5)));
+		assertEquals(List.of(1L, 3L, 2L), ids(snapshot.with(List.of(product(3, null, "b", true, true))).products()));
+	}
+}
@@ -0,0 +1,32 @@
+package com.kodehaus.plaza.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvRowReaderTests {
+
+	@Test
+	void readsPlainAndQuotedFields() throws IOException {
+		CsvRowReader reader = new CsvRowReader(new StringReader(
+				"name,price\r\n\"Tomato, red\",2000\n\n\"Say \"\"hi\"\"\nagain\",\nlast,1"));
+		assertEquals(List.of("name", "price"), reader.next());
+		assertEquals(List.of("Tomato, red", "2000"), reader.next());
+		assertEquals(List.of("Say \"hi\"\nagain", ""), reader.next());
+		assertEquals(List.of("last", "1"), reader.next());
+		assertNull(reader.next());
+	}
+
+	@Test
+	void rejectsUnterminatedQuote() throws IOException {
+		CsvRowReader reader = new CsvRowReader(new StringReader("a,b\n\"open,1\n"));
+		assertEquals(List.of("a", "b"), reader.next());
+		assertThrows(IllegalStateException.class, reader::next);
+	}
+}
@@ -0,0 +1,68 @@
+package com.kodehaus.plaza.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kodehaus.plaza.dto.SystemModuleDto;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExternalSystemServiceTests {
+
+	private final AtomicReference<String> requestedPath = new AtomicReference<>();
+	private HttpServer server;
+	private OutboundHttpClient client;
+
+	@BeforeEach
+	void startStub() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 16);
+		server.createContext("/api/modulos", exchange -> {
+			requestedPath.set(exchange.getRequestURI().getRawPath());
+			byte[] body = "[{\"id\":\"m1\",\"nombre\":\"Parqueadero\"}]".getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+		client = new OutboundHttpClient(new ObjectMapper(), new SimpleMeterRegistry(), Duration.ofSeconds(1),
+				Duration.ofSeconds(1), Duration.ofSeconds(2), 4, false);
+	}
+
+	@AfterEach
+	void stopStub() {
+		server.stop(0);
+	}
+
+	@Test
+	void fetchesModulesOfPlazaWithEncodedId() {
+		ExternalSystemService service = new ExternalSystemService(client,
+				"http://localhost:" + server.getAddress().getPort(), "");
+
+		List<SystemModuleDto> modules = service.getPlazaModules("plaza norte");
+
+		assertEquals("/api/modulos/plaza/plaza%20norte", requestedPath.get());
+		assertEquals("Parqueadero", modules.get(0).getNombre());
+	}
+
+	@Test
+	void unreachableSystemOwnerGivesNoModules() {
+		int port = server.getAddress().getPort();
+		server.stop(0);
+		ExternalSystemService service = new ExternalSystemService(client, "http://localhost:" + port, "");
+
+		assertTrue(service.getPlazaModules(null).isEmpty());
+	}
+}
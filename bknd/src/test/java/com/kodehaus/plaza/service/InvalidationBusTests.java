@@ -0,0 +1,64 @@
+package com.kodehaus.plaza.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvalidationBusTests {
+
+	@Test
+	void payloadRoundTrip() {
+		InvalidationEvent event = new InvalidationEvent(InvalidationEvent.USER, 42L, 7L, "node-a", 1234L);
+		assertEquals(event, InvalidationEvent.fromPayload(event.toPayload()));
+
+		InvalidationEvent all = new InvalidationEvent(InvalidationEvent.ROLE, null, null, "node-b", 99L);
+		InvalidationEvent parsed = InvalidationEvent.fromPayload(all.toPayload());
+		assertNull(parsed.id());
+		assertNull(parsed.plazaId());
+		assertEquals(all, parsed);
+
+		assertThrows(IllegalArgumentException.class, () -> InvalidationEvent.fromPayload("user:1"));
+	}
+
+	@Test
+	void dispatchesOnlyToSubscribersOfTheType() {
+		LoopbackInvalidationBus bus = new LoopbackInvalidationBus();
+		List<InvalidationEvent> users = new ArrayList<>();
+		List<InvalidationEvent> roles = new ArrayList<>();
+		bus.subscribe(InvalidationEvent.USER, users::add);
+		bus.subscribe(InvalidationEvent.ROLE, roles::add);
+
+		bus.publish(InvalidationEvent.USER, 5L, 1L);
+
+		assertEquals(1, users.size());
+		assertEquals(5L, users.get(0).id());
+		assertEquals(bus.nodeId(), users.get(0).origin());
+		assertTrue(roles.isEmpty());
+	}
+
+	@Test
+	void sendsAfterCommitInsideATransaction() {
+		LoopbackInvalidationBus bus = new LoopbackInvalidationBus();
+		List<InvalidationEvent> plazas = new ArrayList<>();
+		bus.subscribe(InvalidationEvent.PLAZA, plazas::add);
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			bus.publish(InvalidationEvent.PLAZA, 3L, 3L);
+			assertTrue(plazas.isEmpty());
+
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+			assertEquals(1, plazas.size());
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+}
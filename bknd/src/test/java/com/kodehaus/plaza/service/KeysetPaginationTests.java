@@ -0,0 +1,50 @@
+package com.kodehaus.plaza.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeysetPaginationTests {
+
+	private final KeysetPagination pagination = new KeysetPagination(3, 5);
+	private final List<Integer> rows = IntStream.rangeClosed(1, 10).boxed().toList();
+
+	@Test
+	void requestWithoutLimitOrCursorGetsWholeList() {
+		assertTrue(pagination.limit(null, null).isUnlimited());
+
+		ResponseEntity<List<Integer>> response = pagination.page(rows, null, null, String::valueOf);
+
+		assertEquals(rows, response.getBody());
+		assertNull(response.getHeaders().getFirst(KeysetPagination.NEXT_CURSOR_HEADER));
+	}
+
+	@Test
+	void limitOrCursorPages() {
+		assertEquals(3, pagination.limit(2, null).max());
+		assertEquals(4, pagination.limit(null, "c").max());
+		assertEquals(6, pagination.limit(50, null).max());
+
+		ResponseEntity<List<Integer>> response = pagination.page(rows, 2, null, String::valueOf, Function.identity());
+		assertEquals(List.of(1, 2), response.getBody());
+		assertEquals("2", response.getHeaders().getFirst(KeysetPagination.NEXT_CURSOR_HEADER));
+
+		ResponseEntity<List<Integer>> defaultPage = pagination.page(rows, null, "c", String::valueOf);
+		assertEquals(List.of(1, 2, 3), defaultPage.getBody());
+	}
+
+	@Test
+	void cursorRoundTrips() {
+		String cursor = KeysetPagination.encode("Verduras", "Tomate", 42L);
+		assertArrayEquals(new String[] {"Verduras", "Tomate", "42"}, KeysetPagination.decode(cursor, 3));
+		assertArrayEquals(new String[] {"", "", "7"}, KeysetPagination.decode(KeysetPagination.encode(null, null, 7L), 3));
+	}
+}
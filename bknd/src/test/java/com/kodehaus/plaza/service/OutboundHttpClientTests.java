@@ -0,0 +1,141 @@
+package com.kodehaus.plaza.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kodehaus.plaza.dto.SystemModuleDto;
+import com.kodehaus.plaza.exception.OutboundHttpException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OutboundHttpClientTests {
+
+	private static final TypeReference<List<SystemModuleDto>> MODULES = new TypeReference<>() {};
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AtomicReference<String> apiKey = new AtomicReference<>();
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger maxInFlight = new AtomicInteger();
+	private HttpServer server;
+	private OutboundHttpClient client;
+
+	@BeforeEach
+	void startStub() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 64);
+		server.createContext("/api/modulos", exchange -> {
+			apiKey.set(exchange.getRequestHeaders().getFirst("X-API-KEY"));
+			respond(exchange, 200, "[{\"id\":7,\"nombre\":\"Inventario\",\"estado\":\"Activo\",\"extra\":true}]");
+		});
+		server.createContext("/down", exchange -> respond(exchange, 503, "{}"));
+		server.createContext("/garbled", exchange -> respond(exchange, 200, "<html>"));
+		server.createContext("/slow", exchange -> {
+			int now = inFlight.incrementAndGet();
+			maxInFlight.accumulateAndGet(now, Math::max);
+			try {
+				Thread.sleep(300);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			inFlight.decrementAndGet();
+			respond(exchange, 200, "[]");
+		});
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		server.start();
+		client = client(Duration.ofSeconds(2), 2);
+	}
+
+	@AfterEach
+	void stopStub() {
+		server.stop(0);
+	}
+
+	private OutboundHttpClient client(Duration readTimeout, int maxConcurrentPerHost) {
+		return new OutboundHttpClient(new ObjectMapper(), meterRegistry, Duration.ofSeconds(2), readTimeout,
+				Duration.ofSeconds(5), maxConcurrentPerHost, false);
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + server.getAddress().getPort() + path);
+	}
+
+	private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	private long calls(String outcome) {
+		return meterRegistry.get(OutboundHttpClient.METRIC).tag("destination", "test").tag("outcome", outcome)
+				.timer().count();
+	}
+
+	@Test
+	void readsTypedBodyAndSendsHeaders() {
+		List<SystemModuleDto> modules = client.get("test", uri("/api/modulos"), Map.of("X-API-KEY", "secret"), MODULES);
+
+		assertEquals(1, modules.size());
+		assertEquals("7", modules.get(0).getId());
+		assertEquals("Inventario", modules.get(0).getNombre());
+		assertEquals("secret", apiKey.get());
+		assertEquals(1, calls("SUCCESS"));
+	}
+
+	@Test
+	void reportsErrorStatusAndUnreadableBody() {
+		OutboundHttpException down = assertThrows(OutboundHttpException.class,
+				() -> client.get("test", uri("/down"), Map.of(), MODULES));
+		assertEquals(503, down.getStatus());
+		assertEquals(1, calls("SERVER_ERROR"));
+
+		assertThrows(OutboundHttpException.class, () -> client.get("test", uri("/garbled"), Map.of(), MODULES));
+		assertEquals(1, calls("INVALID_RESPONSE"));
+	}
+
+	@Test
+	void givesUpAfterReadTimeout() {
+		OutboundHttpClient impatient = client(Duration.ofMillis(100), 2);
+
+		OutboundHttpException timeout = assertThrows(OutboundHttpException.class,
+				() -> impatient.get("test", uri("/slow"), Map.of(), MODULES));
+		assertEquals(0, timeout.getStatus());
+		assertEquals(1, calls("TIMEOUT"));
+	}
+
+	@Test
+	void capsConcurrentCallsPerHost() throws Exception {
+		List<Future<List<SystemModuleDto>>> calls = new ArrayList<>();
+		try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < 6; i++) {
+				calls.add(callers.submit(() -> client.get("test", uri("/slow"), Map.of(), MODULES)));
+			}
+		}
+		for (Future<List<SystemModuleDto>> call : calls) {
+			assertEquals(List.of(), call.get());
+		}
+		assertEquals(2, maxInFlight.get());
+	}
+}
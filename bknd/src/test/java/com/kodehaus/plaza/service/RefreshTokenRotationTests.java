@@ -0,0 +1,77 @@
+package com.kodehaus.plaza.service;
+
+import com.kodehaus.bknd.BkndApplication;
+import com.kodehaus.plaza.entity.RefreshToken;
+import com.kodehaus.plaza.entity.User;
+import com.kodehaus.plaza.repository.RefreshTokenRepository;
+import com.kodehaus.plaza.repository.UserRepository;
+import com.kodehaus.plaza.security.TokenDigests;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent refreshes presenting the same token: at most one of them gets it, and the others count as reuse
+ * and revoke the family.
+ * Opt-in: mvn test -Dtest=RefreshTokenRotationTests -Dintegration=true, against the database of
+ * BkndApplicationTests.
+ */
+@SpringBootTest(classes = BkndApplication.class)
+@EnabledIfSystemProperty(named = "integration", matches = "true")
+class RefreshTokenRotationTests {
+
+	private static final int CALLERS = 8;
+
+	@Autowired
+	private RefreshTokenService refreshTokenService;
+
+	@Autowired
+	private RefreshTokenRepository refreshTokenRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void concurrentRotationsConsumeTokenOnce() throws Exception {
+		User manager = userRepository.findByUsername("manager1").orElseThrow();
+		String raw = refreshTokenService.issue(manager, null);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Optional<RefreshToken>>> rotations = new ArrayList<>();
+		try (ExecutorService callers = Executors.newFixedThreadPool(CALLERS)) {
+			for (int i = 0; i < CALLERS; i++) {
+				rotations.add(callers.submit(() -> {
+					start.await();
+					return refreshTokenService.rotate(raw);
+				}));
+			}
+			start.countDown();
+		}
+
+		String familyId = refreshTokenRepository.findByTokenHash(TokenDigests.sha256(raw)).orElseThrow().getFamilyId();
+		try {
+			int consumed = 0;
+			for (Future<Optional<RefreshToken>> rotation : rotations) {
+				consumed += rotation.get().isPresent() ? 1 : 0;
+			}
+			assertThat(consumed).isLessThanOrEqualTo(1);
+			assertThat(refreshTokenService.rotate(raw)).isEmpty();
+		} finally {
+			jdbcTemplate.update("DELETE FROM refresh_tokens WHERE family_id = ?", familyId);
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package com.kodehaus.plaza.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseCacheTests {
+
+	private final ResponseCache cache = new ResponseCache(new ObjectMapper(), new SimpleMeterRegistry(), 100);
+
+	private static final List<String> BODY = Collections.nCopies(50, "Verduras y hortalizas");
+
+	private static MockHttpServletRequest request(String acceptEncoding) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		if (acceptEncoding != null) {
+			request.addHeader("Accept-Encoding", acceptEncoding);
+		}
+		return request;
+	}
+
+	@Test
+	void servesGzipOnlyWhenAccepted() throws IOException {
+		byte[] json = new ObjectMapper().writeValueAsBytes(BODY);
+
+		MockHttpServletResponse plain = new MockHttpServletResponse();
+		cache.write("categories", 1L, 1, () -> BODY, request(null), plain);
+		assertNull(plain.getHeader("Content-Encoding"));
+		assertEquals("Accept-Encoding", plain.getHeader("Vary"));
+		assertArrayEquals(json, plain.getContentAsByteArray());
+
+		MockHttpServletResponse gzip = new MockHttpServletResponse();
+		cache.write("categories", 1L, 1, () -> BODY, request("br, gzip;q=0.8"), gzip);
+		assertEquals("gzip", gzip.getHeader("Content-Encoding"));
+		assertEquals(gzip.getContentAsByteArray().length, gzip.getContentLength());
+		assertArrayEquals(json, new GZIPInputStream(new ByteArrayInputStream(gzip.getContentAsByteArray())).readAllBytes());
+	}
+
+	@Test
+	void rebuildsOnlyForAnotherVersionOrAfterInvalidate() throws IOException {
+		AtomicInteger builds = new AtomicInteger();
+
+		cache.write("roles", null, 1, () -> { builds.incrementAndGet(); return BODY; }, request(null), new MockHttpServletResponse());
+		cache.write("roles", null, 1, () -> { builds.incrementAndGet(); return BODY; }, request(null), new MockHttpServletResponse());
+		assertEquals(1, builds.get());
+
+		cache.write("roles", null, 2, () -> { builds.incrementAndGet(); return BODY; }, request(null), new MockHttpServletResponse());
+		assertEquals(2, builds.get());
+
+		cache.invalidate("roles");
+		cache.write("roles", null, 2, () -> { builds.incrementAndGet(); return BODY; }, request(null), new MockHttpServletResponse());
+		assertEquals(3, builds.get());
+	}
+
+	@Test
+	void keepsNewerVersionWhenOlderBuildFinishesLast() throws IOException {
+		AtomicInteger builds = new AtomicInteger();
+
+		cache.write("permissions", null, 2, () -> { builds.incrementAndGet(); return BODY; }, request(null), new MockHttpServletResponse());
+		MockHttpServletResponse stale = new MockHttpServletResponse();
+		cache.write("permissions", null, 1, () -> { builds.incrementAndGet(); return List.of("old"); }, request(null), stale);
+		assertEquals("[\"old\"]", stale.getContentAsString());
+
+		cache.write("permissions", null, 2, () -> { builds.incrementAndGet(); return BODY; }, request(null), new MockHttpServletResponse());
+		assertEquals(2, builds.get());
+	}
+
+	@Test
+	void parsesAcceptEncoding() {
+		assertTrue(ResponseCache.acceptsGzip(request("gzip, deflate, br")));
+		assertTrue(ResponseCache.acceptsGzip(request("*")));
+		assertTrue(ResponseCache.acceptsGzip(request("*;q=0, GZIP")));
+		assertFalse(ResponseCache.acceptsGzip(request("gzip;q=0, *")));
+		assertFalse(ResponseCache.acceptsGzip(request("identity")));
+		assertFalse(ResponseCache.acceptsGzip(request(null)));
+	}
+}